@@ -0,0 +1,230 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A Linux cgroup v2 which the mysqld process is launched into, to limit its memory, CPU and I/O.
+ *
+ * <p>This requires a delegated cgroup subtree which the JVM's user can write to, see <a
+ * href="https://docs.kernel.org/admin-guide/cgroup-v2.html#delegation">cgroup v2 delegation</a>. By
+ * default the cgroup is created below the JVM's own cgroup; because of the cgroup v2 "no internal
+ * processes" rule, this typically only works if the JVM runs in a cgroup with delegated
+ * controllers, e.g. a systemd unit with <code>Delegate=yes</code>, and otherwise requires {@link
+ * DBConfigurationBuilder#setCgroupParent(File)}.
+ */
+/* Intentionally package private, not public */
+final class Cgroup {
+
+    private static final Logger logger = LoggerFactory.getLogger(Cgroup.class);
+
+    private static final Path ROOT = Paths.get("/sys/fs/cgroup");
+
+    private static final Path PROC_SELF_CGROUP = Paths.get("/proc/self/cgroup");
+
+    /**
+     * Shell script which moves itself into the cgroup, and then exec's mysqld; so mysqld keeps the
+     * PID of the shell, and is in the cgroup from its very first allocation. Arguments are the
+     * cgroup.procs file, followed by the mysqld executable and its arguments.
+     */
+    static final String LAUNCH_SCRIPT = "echo $$ > \"$1\" && shift && exec \"$@\"";
+
+    private final Path path;
+
+    private Cgroup(Path path) {
+        this.path = path;
+    }
+
+    File getProcsFile() {
+        return path.resolve("cgroup.procs").toFile();
+    }
+
+    @Override
+    public String toString() {
+        return path.toString();
+    }
+
+    /**
+     * Create a new cgroup with the limits of the configuration.
+     *
+     * @param configuration the DBConfiguration with the limits
+     * @return the Cgroup, or empty if the configuration has no limits, or (after logging a warning)
+     *     if cgroup v2 delegation is not available
+     */
+    static Optional<Cgroup> create(DBConfiguration configuration) {
+        if (limits(configuration).isEmpty()) {
+            return Optional.empty();
+        }
+        if (Platform.get() != Platform.OS.LINUX) {
+            logger.warn(
+                    "Ignoring cgroup limits {}, as cgroups are only supported on Linux",
+                    limits(configuration));
+            return Optional.empty();
+        }
+        return create(configuration, ROOT, PROC_SELF_CGROUP);
+    }
+
+    /**
+     * Like {@link #create(DBConfiguration)}, on any OS, with the cgroup v2 file system mounted at
+     * root, and the cgroup of this process described by procSelfCgroup.
+     */
+    static Optional<Cgroup> create(DBConfiguration configuration, Path root, Path procSelfCgroup) {
+        Map<String, String> limits = limits(configuration);
+        if (limits.isEmpty()) {
+            return Optional.empty();
+        }
+        Path path = null;
+        try {
+            if (!Files.exists(root.resolve("cgroup.controllers"))) {
+                throw new IOException("cgroup v2 is not mounted at " + root);
+            }
+            Path parent =
+                    configuration.getCgroupParent() != null
+                            ? configuration.getCgroupParent().toPath()
+                            : ownCgroup(root, procSelfCgroup);
+            enableControllers(parent, limits.keySet());
+            Path candidate = parent.resolve("mariadb4j-" + configuration.getPort());
+            if (Files.isDirectory(candidate)) {
+                removeLeftover(candidate);
+            }
+            Files.createDirectory(candidate);
+            path = candidate;
+            for (Map.Entry<String, String> limit : limits.entrySet()) {
+                write(path.resolve(limit.getKey() + ".max"), limit.getValue());
+            }
+            logger.info("Created cgroup {} with limits {}", path, limits);
+            return Optional.of(new Cgroup(path));
+        } catch (IOException | RuntimeException e) {
+            logger.warn(
+                    "Could not create cgroup with limits {}, so starting mysqld without them; "
+                            + "use DBConfigurationBuilder.setCgroupParent() to point to a delegated "
+                            + "cgroup v2 subtree",
+                    limits,
+                    e);
+            if (path != null) {
+                new Cgroup(path).remove();
+            }
+            return Optional.empty();
+        }
+    }
+
+    private static Map<String, String> limits(DBConfiguration configuration) {
+        Map<String, String> limits = new LinkedHashMap<>();
+        putIfNotNull(limits, "memory", configuration.getCgroupMemoryMax());
+        putIfNotNull(limits, "cpu", configuration.getCgroupCpuMax());
+        putIfNotNull(limits, "io", configuration.getCgroupIoMax());
+        return limits;
+    }
+
+    /**
+     * Removes a cgroup of the same name left over from a previous run which was killed, but only if
+     * no process is in it; as otherwise it is still used, e.g. by another JVM on the same port.
+     */
+    private static void removeLeftover(Path path) throws IOException {
+        Path procs = path.resolve("cgroup.procs");
+        String pids = Files.exists(procs) ? read(procs).replace('\n', ' ') : "";
+        if (!pids.isEmpty()) {
+            throw new IOException(path + " already exists, and is in use by PIDs " + pids);
+        }
+        // rmdir, which (on cgroupfs) works despite the interface files, as long as it is empty
+        Files.delete(path);
+        logger.info("Removed left over cgroup {}", path);
+    }
+
+    private static void putIfNotNull(Map<String, String> limits, String controller, String max) {
+        if (max != null) {
+            limits.put(controller, max);
+        }
+    }
+
+    private static Path ownCgroup(Path root, Path procSelfCgroup) throws IOException {
+        // On cgroup v2 this is a single line like "0::/user.slice/user-1000.slice/session-2.scope"
+        for (String line : Files.readAllLines(procSelfCgroup, StandardCharsets.UTF_8)) {
+            if (line.startsWith("0::")) {
+                return root.resolve(line.substring("0::/".length()));
+            }
+        }
+        throw new IOException("Could not find own cgroup v2 in " + procSelfCgroup);
+    }
+
+    private static void enableControllers(Path parent, Iterable<String> controllers)
+            throws IOException {
+        List<String> enabled =
+                Arrays.asList(read(parent.resolve("cgroup.subtree_control")).split(" ", -1));
+        List<String> missing = new ArrayList<>();
+        for (String controller : controllers) {
+            if (!enabled.contains(controller)) {
+                missing.add("+" + controller);
+            }
+        }
+        if (!missing.isEmpty()) {
+            write(parent.resolve("cgroup.subtree_control"), String.join(" ", missing));
+        }
+    }
+
+    private static String read(Path file) throws IOException {
+        return Files.readString(file, StandardCharsets.US_ASCII).trim();
+    }
+
+    private static void write(Path file, String value) throws IOException {
+        Files.writeString(file, value, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Removes this cgroup. This only works once the mysqld process is gone, so it retries for a
+     * little while, because the kernel empties cgroup.procs asynchronously.
+     */
+    void remove() {
+        for (int attempt = 1; attempt <= 10; attempt++) {
+            try {
+                Files.deleteIfExists(path);
+                logger.info("Removed cgroup {}", path);
+                return;
+            } catch (IOException e) {
+                if (attempt == 10) {
+                    logger.warn("Could not remove cgroup {}", path, e);
+                    return;
+                }
+            }
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.warn("Interrupted while removing cgroup {}", path, e);
+                return;
+            }
+        }
+    }
+}
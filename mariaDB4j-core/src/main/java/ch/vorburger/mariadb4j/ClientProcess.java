@@ -0,0 +1,202 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j;
+
+import ch.vorburger.exec.ManagedProcessBuilder;
+import ch.vorburger.exec.ManagedProcessException;
+import ch.vorburger.exec.ManagedProcessListener;
+import ch.vorburger.exec.OutputStreamLogDispatcher;
+import ch.vorburger.exec.OutputStreamType;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Stream;
+
+/**
+ * A short-lived client process, e.g. of the mysql client, which is run from the command line of a
+ * {@link ManagedProcessBuilder}, but with its stdin, stdout and stderr redirected to files.
+ *
+ * <p>A ManagedProcess uses a platform thread (of commons-exec) to wait for the exit of the process,
+ * and one to pump each of its streams; so concurrent {@link DB#run(String)} and {@link
+ * DB#query(String)} calls on many DBs needed hundreds of OS threads. This one needs no threads of
+ * its own: the OS writes the output to the files, and {@link #waitForExit()} parks the calling
+ * thread (which may be virtual) until the JDK notices the exit. Its output is therefore only logged
+ * once it exited.
+ */
+/* Intentionally package private, not public */
+final class ClientProcess implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClientProcess.class);
+
+    private final String name;
+    private final Process process;
+    private final Path stdout;
+    private final Path stderr;
+    private final List<Path> files;
+    private final OutputStreamLogDispatcher dispatcher;
+    private final ManagedProcessListener listener;
+    private Integer exitValue;
+
+    private ClientProcess(
+            ManagedProcessBuilder builder,
+            Process process,
+            Path stdout,
+            Path stderr,
+            List<Path> files) {
+        this.name = Path.of(builder.getExecutable()).getFileName().toString();
+        this.process = process;
+        this.stdout = stdout;
+        this.stderr = stderr;
+        this.files = files;
+        this.dispatcher = builder.getOutputStreamLogDispatcher();
+        this.listener = builder.getProcessListener();
+    }
+
+    /**
+     * Starts the executable of the builder, with its arguments, environment and working directory.
+     * Its input stream, and additional stdout and stderr streams, are ignored.
+     *
+     * @param builder the builder of the command line
+     * @param input what to write to the stdin of the process, or null for none
+     * @return the started process, which must be closed
+     * @throws IOException if the process could not be started
+     */
+    static ClientProcess start(ManagedProcessBuilder builder, InputStream input)
+            throws IOException {
+        List<Path> files = new ArrayList<>();
+        try {
+            Path stdin = createTempFile(files, ".in");
+            if (input != null) {
+                Files.copy(input, stdin, StandardCopyOption.REPLACE_EXISTING);
+            }
+            Path stdout = createTempFile(files, ".out");
+            Path stderr = createTempFile(files, ".err");
+            List<String> command = new ArrayList<>();
+            command.add(builder.getExecutable());
+            command.addAll(builder.getArguments());
+            ProcessBuilder processBuilder =
+                    new ProcessBuilder(command)
+                            .directory(builder.getWorkingDirectory())
+                            .redirectInput(stdin.toFile())
+                            .redirectOutput(stdout.toFile())
+                            .redirectError(stderr.toFile());
+            processBuilder.environment().clear();
+            processBuilder.environment().putAll(builder.getEnvironment());
+            return new ClientProcess(builder, processBuilder.start(), stdout, stderr, files);
+        } catch (IOException | RuntimeException e) {
+            delete(files);
+            throw e;
+        }
+    }
+
+    private static Path createTempFile(List<Path> files, String suffix) throws IOException {
+        Path file = Files.createTempFile("mariadb4j-client", suffix);
+        files.add(file);
+        return file;
+    }
+
+    boolean isAlive() {
+        return process.isAlive();
+    }
+
+    /** What the process wrote to stdout so far, as UTF-8. */
+    String getStdout() throws IOException {
+        return Files.readString(stdout, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Waits for the process to exit, and then logs its output, and notifies the process listener of
+     * the builder.
+     *
+     * @return the exit value of the process
+     * @throws ManagedProcessException if interrupted while waiting, which also destroys the process
+     */
+    synchronized int waitForExit() throws ManagedProcessException {
+        if (exitValue != null) {
+            return exitValue;
+        }
+        try {
+            // Unlike Process.waitFor(), this parks rather than pins a virtual thread
+            exitValue = process.onExit().get().exitValue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            process.destroy();
+            throw new ManagedProcessException("Interrupted while waiting for " + name, e);
+        } catch (ExecutionException e) {
+            throw new ManagedProcessException("Waiting for " + name + " failed", e.getCause());
+        }
+        log(OutputStreamType.STDOUT, stdout);
+        log(OutputStreamType.STDERR, stderr);
+        if (listener != null) {
+            if (exitValue == 0) {
+                listener.onProcessComplete(exitValue);
+            } else {
+                listener.onProcessFailed(
+                        exitValue, new ManagedProcessException(name + " exited with " + exitValue));
+            }
+        }
+        return exitValue;
+    }
+
+    private void log(OutputStreamType type, Path file) {
+        try (Stream<String> lines = Files.lines(file, StandardCharsets.UTF_8)) {
+            lines.forEach(
+                    line ->
+                            logger.atLevel(dispatcher.dispatch(type, line))
+                                    .log("{}: {}", name, line));
+        } catch (IOException | RuntimeException e) {
+            // Only logging, e.g. of output which is not UTF-8
+            logger.warn("Could not log the {} of {}", type, name, e);
+        }
+    }
+
+    void destroy() {
+        process.destroy();
+    }
+
+    /** Destroys the process if it is still running, and deletes the files of its streams. */
+    @Override
+    public void close() {
+        if (process.isAlive()) {
+            process.destroyForcibly();
+        }
+        delete(files);
+    }
+
+    private static void delete(List<Path> files) {
+        for (Path file : files) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                logger.warn("Could not delete {}", file, e);
+            }
+        }
+    }
+}
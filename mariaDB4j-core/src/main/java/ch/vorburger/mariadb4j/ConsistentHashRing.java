@@ -0,0 +1,72 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Maps keys to one of n shards, such that adding a shard only moves about 1/n of the keys (all to
+ * the new shard), see {@link DBShards}.
+ *
+ * <p>Each shard has many points on a ring of 64 bit hashes; a key belongs to the shard of the first
+ * point at or after its own hash.
+ */
+final class ConsistentHashRing {
+
+    static final int DEFAULT_VIRTUAL_NODES = 160;
+
+    private final NavigableMap<Long, Integer> ring = new TreeMap<>();
+
+    ConsistentHashRing(int shards, int virtualNodes) {
+        if (shards < 1) {
+            throw new IllegalArgumentException("shards must be at least 1: " + shards);
+        }
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("virtualNodes must be at least 1: " + virtualNodes);
+        }
+        for (int shard = 0; shard < shards; shard++) {
+            for (int node = 0; node < virtualNodes; node++) {
+                // On a (very unlikely) collision, the lower shard keeps the point
+                ring.putIfAbsent(hash("shard-" + shard + "#" + node), shard);
+            }
+        }
+    }
+
+    int shard(String key) {
+        Map.Entry<Long, Integer> point = ring.ceilingEntry(hash(key));
+        return (point != null ? point : ring.firstEntry()).getValue();
+    }
+
+    static long hash(String value) {
+        try {
+            byte[] digest =
+                    MessageDigest.getInstance("MD5").digest(value.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
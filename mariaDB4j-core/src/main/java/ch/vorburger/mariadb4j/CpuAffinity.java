@@ -0,0 +1,202 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+/**
+ * Launch prefix which pins a process to CPUs and/or a NUMA node, using <code>numactl</code> or
+ * <code>taskset</code> from the PATH. See {@link DBConfigurationBuilder#setCpuAffinity(String)} and
+ * {@link DBConfigurationBuilder#setNumaNode(int)}.
+ */
+/* Intentionally package private, not public */
+final class CpuAffinity {
+
+    private static final Logger logger = LoggerFactory.getLogger(CpuAffinity.class);
+
+    static final Pattern CPU_LIST = Pattern.compile("\\d+(-\\d+)?(,\\d+(-\\d+)?)*");
+
+    private static volatile boolean warned;
+
+    private CpuAffinity() {}
+
+    /**
+     * Command to prepend to a process launch to apply the affinity of the configuration.
+     *
+     * @param configuration the DBConfiguration with the affinity
+     * @return executable and arguments, or an empty list if there is no affinity configured, or
+     *     (after logging a warning, once) if neither numactl nor taskset is available
+     */
+    static List<String> launchPrefix(DBConfiguration configuration) {
+        String cpus = configuration.getCpuAffinity();
+        int node = configuration.getNumaNode();
+        List<String> prefix = new ArrayList<>();
+        if (cpus == null && node < 0) {
+            return prefix;
+        }
+        File numactl = Platform.get() == Platform.OS.LINUX ? which("numactl") : null;
+        File taskset = Platform.get() == Platform.OS.LINUX ? which("taskset") : null;
+        if (numactl != null) {
+            prefix.add(numactl.getAbsolutePath());
+            if (node >= 0) {
+                prefix.add("--membind=" + node);
+                prefix.add(cpus != null ? "--physcpubind=" + cpus : "--cpunodebind=" + node);
+            } else {
+                prefix.add("--physcpubind=" + cpus);
+            }
+        } else if (taskset != null && cpus != null) {
+            // taskset cannot bind memory, but the kernel prefers the node of the CPU anyway
+            prefix.add(taskset.getAbsolutePath());
+            prefix.add("-c");
+            prefix.add(cpus);
+        } else if (!warned) {
+            warned = true;
+            logger.warn(
+                    "Ignoring CPU affinity {} and NUMA node {}, as neither numactl nor taskset"
+                            + " (for CPUs only) was found on the PATH of this Linux",
+                    cpus,
+                    node);
+        }
+        return prefix;
+    }
+
+    private static File which(String command) {
+        String path = System.getenv("PATH");
+        if (path == null) {
+            return null;
+        }
+        for (String dir : path.split(File.pathSeparator, -1)) {
+            File file = new File(dir, command);
+            if (!dir.isEmpty() && file.canExecute()) {
+                return file;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parses a Linux CPU list, such as "0-3,8,10-11".
+     *
+     * @param cpuList the list, as in /sys and taskset
+     * @return the sorted CPU numbers
+     */
+    static List<Integer> parse(String cpuList) {
+        TreeSet<Integer> cpus = new TreeSet<>();
+        String trimmed = cpuList.trim();
+        if (!CPU_LIST.matcher(trimmed).matches()) {
+            throw new IllegalArgumentException("Not a CPU list like 0-3,8: " + cpuList);
+        }
+        for (String range : trimmed.split(",", -1)) {
+            int dash = range.indexOf('-');
+            int from = Integer.parseInt(dash == -1 ? range : range.substring(0, dash));
+            int to = dash == -1 ? from : Integer.parseInt(range.substring(dash + 1));
+            for (int cpu = from; cpu <= to; cpu++) {
+                cpus.add(cpu);
+            }
+        }
+        return new ArrayList<>(cpus);
+    }
+
+    /**
+     * Formats CPU numbers as a Linux CPU list, the reverse of {@link #parse(String)}.
+     *
+     * @param cpus sorted CPU numbers
+     * @return the list, e.g. "0-3,8"
+     */
+    static String format(List<Integer> cpus) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < cpus.size(); i++) {
+            int from = cpus.get(i);
+            int to = from;
+            while (i + 1 < cpus.size() && cpus.get(i + 1) == to + 1) {
+                to = cpus.get(++i);
+            }
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(from);
+            if (to != from) {
+                sb.append('-').append(to);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Reads the CPUs of each NUMA node, restricted to the CPUs this process may run on.
+     *
+     * @return CPUs per node, indexed by node number; one node with all allowed CPUs if there is no
+     *     NUMA information, e.g. not on Linux
+     */
+    static List<List<Integer>> readNodes() {
+        List<Integer> allowed = allowedCpus();
+        List<List<Integer>> nodes = new ArrayList<>();
+        Path nodeDir = Paths.get("/sys/devices/system/node");
+        for (int node = 0; Files.isDirectory(nodeDir.resolve("node" + node)); node++) {
+            try {
+                List<Integer> cpus =
+                        parse(
+                                Files.readString(
+                                        nodeDir.resolve("node" + node).resolve("cpulist"),
+                                        StandardCharsets.US_ASCII));
+                cpus.retainAll(allowed);
+                nodes.add(cpus);
+            } catch (IOException | IllegalArgumentException e) {
+                // e.g. a memory-only node has an empty cpulist
+                nodes.add(new ArrayList<>());
+            }
+        }
+        if (nodes.stream().allMatch(List::isEmpty)) {
+            nodes.clear();
+            nodes.add(allowed);
+        }
+        return nodes;
+    }
+
+    private static List<Integer> allowedCpus() {
+        try {
+            for (String line :
+                    Files.readAllLines(Paths.get("/proc/self/status"), StandardCharsets.UTF_8)) {
+                if (line.startsWith("Cpus_allowed_list:")) {
+                    return parse(line.substring("Cpus_allowed_list:".length()));
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            logger.debug("Could not read Cpus_allowed_list, using availableProcessors()", e);
+        }
+        List<Integer> cpus = new ArrayList<>();
+        for (int cpu = 0; cpu < Runtime.getRuntime().availableProcessors(); cpu++) {
+            cpus.add(cpu);
+        }
+        return cpus;
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Spreads many DB instances across the CPUs of a machine, by giving each one its own {@link
+ * DBConfigurationBuilder#setCpuAffinity(String) CPU affinity}.
+ *
+ * <p>The CPUs are cut into slots of <code>cpusPerInstance</code> which never cross a NUMA node (if
+ * a node has fewer CPUs, the whole node is one slot); each instance is also {@link
+ * DBConfigurationBuilder#setNumaNode(int) bound} to the memory of its node. Consecutive slots
+ * alternate between nodes, so the first instances land on different sockets. Each new instance gets
+ * the least used slot, so with more instances than slots, they share slots evenly.
+ *
+ * <p>Typical usage, e.g. for a pool of instances in a test suite:
+ *
+ * <pre>
+ * CpuSpreader spreader = new CpuSpreader(4);
+ * DBConfigurationBuilder config = spreader.assign(DBConfigurationBuilder.newBuilder());
+ * DB db = DB.newEmbeddedDB(config.build());
+ * ...
+ * db.stop();
+ * spreader.release(db.getConfiguration());
+ * </pre>
+ */
+public class CpuSpreader {
+
+    private final List<Slot> slots = new ArrayList<>();
+
+    private static final class Slot {
+        final int node;
+        final String cpus;
+        int instances;
+
+        Slot(int node, String cpus) {
+            this.node = node;
+            this.cpus = cpus;
+        }
+    }
+
+    /**
+     * Constructor, using the NUMA topology of this machine and the CPUs this JVM may run on.
+     *
+     * @param cpusPerInstance how many CPUs to pin each instance to
+     */
+    public CpuSpreader(int cpusPerInstance) {
+        this(CpuAffinity.readNodes(), cpusPerInstance);
+    }
+
+    CpuSpreader(List<List<Integer>> nodes, int cpusPerInstance) {
+        if (cpusPerInstance < 1) {
+            throw new IllegalArgumentException("cpusPerInstance must be at least 1");
+        }
+        List<List<Slot>> slotsPerNode = new ArrayList<>();
+        int maxSlotsPerNode = 0;
+        for (int node = 0; node < nodes.size(); node++) {
+            List<Integer> cpus = nodes.get(node);
+            List<Slot> nodeSlots = new ArrayList<>();
+            int count = cpus.isEmpty() ? 0 : Math.max(1, cpus.size() / cpusPerInstance);
+            for (int i = 0; i < count; i++) {
+                int from = i * cpusPerInstance;
+                // The last slot of a node also gets the remaining CPUs which don't fill a slot
+                int to = i == count - 1 ? cpus.size() : from + cpusPerInstance;
+                nodeSlots.add(new Slot(node, CpuAffinity.format(cpus.subList(from, to))));
+            }
+            slotsPerNode.add(nodeSlots);
+            maxSlotsPerNode = Math.max(maxSlotsPerNode, count);
+        }
+        for (int i = 0; i < maxSlotsPerNode; i++) {
+            for (List<Slot> nodeSlots : slotsPerNode) {
+                if (i < nodeSlots.size()) {
+                    slots.add(nodeSlots.get(i));
+                }
+            }
+        }
+        if (slots.isEmpty()) {
+            throw new IllegalStateException("No CPUs found to spread instances across");
+        }
+    }
+
+    /**
+     * Assigns the least used slot of CPUs to a new instance.
+     *
+     * @param builder the configuration of the new instance
+     * @return the builder, with CPU affinity and NUMA node set
+     */
+    public synchronized DBConfigurationBuilder assign(DBConfigurationBuilder builder) {
+        Slot least = slots.get(0);
+        for (Slot slot : slots) {
+            if (slot.instances < least.instances) {
+                least = slot;
+            }
+        }
+        least.instances++;
+        builder.setCpuAffinity(least.cpus);
+        if (isMultiNode()) {
+            builder.setNumaNode(least.node);
+        }
+        return builder;
+    }
+
+    /**
+     * Releases the slot of an instance which was assigned by {@link
+     * #assign(DBConfigurationBuilder)}, after it was stopped.
+     *
+     * @param configuration the configuration of the stopped instance
+     */
+    public synchronized void release(DBConfiguration configuration) {
+        for (Slot slot : slots) {
+            if (slot.cpus.equals(configuration.getCpuAffinity()) && slot.instances > 0) {
+                slot.instances--;
+                return;
+            }
+        }
+    }
+
+    private boolean isMultiNode() {
+        return slots.stream().anyMatch(slot -> slot.node != slots.get(0).node);
+    }
+
+    /**
+     * The CPU lists of all slots, in the order they are assigned.
+     *
+     * @return e.g. ["0-3", "32-35", "4-7", ...]
+     */
+    public synchronized List<String> getSlots() {
+        List<String> cpus = new ArrayList<>();
+        for (Slot slot : slots) {
+            cpus.add(slot.cpus);
+        }
+        return cpus;
+    }
+}
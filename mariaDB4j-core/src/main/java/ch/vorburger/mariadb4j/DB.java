@@ -30,6 +30,7 @@ import ch.vorburger.exec.ManagedProcessBuilder;
 import ch.vorburger.exec.ManagedProcessException;
 import ch.vorburger.exec.ManagedProcessListener;
 import ch.vorburger.exec.OutputStreamLogDispatcher;
+import ch.vorburger.exec.OutputStreamType;
 import ch.vorburger.mariadb4j.DBConfiguration.Executable;
 
 import org.apache.commons.io.FileUtils;
@@ -37,6 +38,7 @@ import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.event.Level;
 
 import java.io.BufferedOutputStream;
 import java.io.File;
@@ -44,8 +46,26 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 /**
  * Provides capability to install, start, and use an embedded database.
@@ -58,18 +78,38 @@ public class DB {
 
     private static final Logger logger = LoggerFactory.getLogger(DB.class);
 
+    /** The option file in the data directory which mysqld is started with. */
+    static final String OPTION_FILE = "mariadb4j.cnf";
+
     protected final DBConfiguration configuration;
 
     private File baseDir;
     private File libDir;
     private File dataDir;
     private File tmpDir;
-    private ManagedProcess mysqldProcess;
+    private volatile ManagedProcess mysqldProcess;
+    // The shutdown hook reads mysqldProcess when it runs, so one is enough for all (re)starts
+    private final AtomicBoolean shutdownHookAdded = new AtomicBoolean();
+    private final AtomicReference<DBState> state = new AtomicReference<>(DBState.NEW);
+    // Identifies the current mysqldProcess, to ignore late exits of previous ones
+    private final AtomicInteger generation = new AtomicInteger();
+    private final DBSupervisor supervisor;
+    private final List<DBListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile long mysqldPid = -1;
+    private ScheduledExecutorService processWatchdog;
+    private Cgroup cgroup;
+    private boolean rssLimitExceeded;
 
     protected int dbStartMaxWaitInMS = 30000;
+    protected int processWatchdogIntervalInMS = 1000;
 
     protected DB(DBConfiguration config) {
         configuration = config;
+        supervisor =
+                config.getMaxRestarts() > 0
+                        ? new DBSupervisor(
+                                this, config.getMaxRestarts(), config.getRestartBackoff())
+                        : null;
     }
 
     /**
@@ -81,6 +121,52 @@ public class DB {
         return configuration;
     }
 
+    /**
+     * Gets the lifecycle state of this DB. This never blocks, not even while another thread is
+     * starting or stopping it, so it is suitable for health checks.
+     *
+     * @return the current state
+     */
+    public DBState getState() {
+        return state.get();
+    }
+
+    /**
+     * Add a listener to be notified about events of this DB. Listeners which also need to see the
+     * installation should instead be registered through {@link
+     * DBConfigurationBuilder#addListener(DBListener)}.
+     *
+     * @param listener the DBListener
+     */
+    public void addListener(DBListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Remove a listener previously added with {@link #addListener(DBListener)}.
+     *
+     * @param listener the DBListener
+     */
+    public void removeListener(DBListener listener) {
+        listeners.remove(listener);
+    }
+
+    void notifyListeners(Consumer<DBListener> event) {
+        List<DBListener> all = new ArrayList<>(configuration.getListeners());
+        all.addAll(listeners);
+        for (DBListener listener : all) {
+            try {
+                event.accept(listener);
+            } catch (RuntimeException e) {
+                logger.warn("DBListener {} failed, ignoring", listener, e);
+            }
+        }
+    }
+
+    private static Duration since(long startNanos) {
+        return Duration.ofNanos(System.nanoTime() - startNanos);
+    }
+
     /**
      * This factory method is the mechanism for opening an existing embedded database for use. This
      * method assumes that the database has already been prepared for use.
@@ -167,81 +253,270 @@ public class DB {
      *
      * @throws ManagedProcessException if something fatal went wrong
      */
-    protected synchronized void install() throws ManagedProcessException {
+    protected void install() throws ManagedProcessException {
+        DBState before = state.get();
+        if (!before.isStartable()) {
+            throw new ManagedProcessException("Cannot install the database while it is " + before);
+        }
+        long startNanos = System.nanoTime();
         try {
             ManagedProcess mysqlInstallProcess = createDBInstallProcess();
             mysqlInstallProcess.start();
             mysqlInstallProcess.waitForExit();
         } catch (Exception e) {
+            state.compareAndSet(before, DBState.FAILED);
+            notifyListeners(l -> l.onInstall(this, since(startNanos), false));
             throw new ManagedProcessException("An error occurred while installing the database", e);
         }
+        state.compareAndSet(before, DBState.INSTALLED);
+        notifyListeners(l -> l.onInstall(this, since(startNanos), true));
         logger.info("Installation complete.");
     }
 
     /**
      * Starts up the database, using the data directory and port specified in the configuration.
      *
-     * @throws ch.vorburger.exec.ManagedProcessException if something fatal went wrong
+     * <p>A {@link #stop()} from another thread cancels a start in progress, which then throws.
+     *
+     * @throws ch.vorburger.exec.ManagedProcessException if something fatal went wrong, the start
+     *     was cancelled, or the DB is not in a {@link DBState#isStartable()} state
+     */
+    public void start() throws ManagedProcessException {
+        start(null);
+    }
+
+    /**
+     * Starts the database, like {@link #start()}.
+     *
+     * @param expected the state the DB must be in, or null for any startable state
      */
-    public synchronized void start() throws ManagedProcessException {
+    void start(DBState expected) throws ManagedProcessException {
+        DBState before = expected != null ? expected : state.get();
+        if (!before.isStartable() || !state.compareAndSet(before, DBState.STARTING)) {
+            throw new ManagedProcessException(
+                    "Cannot start the database while it is " + state.get());
+        }
         logger.info("Starting up the database...");
+        long startNanos = System.nanoTime();
+        ManagedProcess process;
         boolean ready = false;
         try {
-            mysqldProcess = startPreparation();
-            ready =
-                    mysqldProcess.startAndWaitForConsoleMessageMaxMs(
-                            getReadyForConnectionsTag(), dbStartMaxWaitInMS);
+            process = startPreparation();
+            mysqldProcess = process;
+            // Don't even launch mysqld if stop() already cancelled this start
+            if (state.get() == DBState.STARTING) {
+                ready =
+                        process.startAndWaitForConsoleMessageMaxMs(
+                                getReadyForConnectionsTag(), dbStartMaxWaitInMS);
+            }
         } catch (Exception e) {
-            logger.error("failed to start mysqld", e);
-            throw new ManagedProcessException("An error occurred while starting the database", e);
+            if (state.get() == DBState.STARTING) {
+                logger.error("failed to start mysqld", e);
+            }
+            throw abortStart(startNanos, "An error occurred while starting the database", e);
+        }
+        if (state.get() != DBState.STARTING) {
+            throw abortStart(startNanos, null, null);
         }
         if (!ready) {
-            if (mysqldProcess != null && mysqldProcess.isAlive()) {
-                mysqldProcess.destroy();
-            }
-            throw new ManagedProcessException(
+            throw abortStart(
+                    startNanos,
                     "Database does not seem to have started up correctly? Magic string not seen in "
                             + dbStartMaxWaitInMS
                             + "ms: "
                             + getReadyForConnectionsTag()
-                            + mysqldProcess.getLastConsoleLines());
+                            + process.getLastConsoleLines(),
+                    null);
         }
+        startProcessWatchdog();
+        if (!state.compareAndSet(DBState.STARTING, DBState.RUNNING)) {
+            throw abortStart(startNanos, null, null);
+        }
+        if (supervisor != null) {
+            supervisor.onStarted(expected != null);
+        }
+        notifyListeners(l -> l.onStart(this, since(startNanos), true));
         logger.info("Database startup complete.");
     }
 
+    /**
+     * Cleans up after a failed or cancelled start, and moves from STARTING to FAILED, or (if {@link
+     * #stop()} cancelled the start) from STOPPING to STOPPED.
+     *
+     * @return the exception for start() to throw
+     */
+    private ManagedProcessException abortStart(long startNanos, String message, Exception cause) {
+        ManagedProcess process = mysqldProcess;
+        if (process != null && process.isAlive()) {
+            try {
+                process.destroy();
+            } catch (ManagedProcessException e) {
+                logger.warn("Could not destroy mysqld after its start failed", e);
+            }
+        }
+        stopProcessWatchdog();
+        mysqldPid = -1;
+        removeCgroup();
+        boolean cancelled = !state.compareAndSet(DBState.STARTING, DBState.FAILED);
+        if (cancelled) {
+            state.set(DBState.STOPPED);
+        }
+        notifyListeners(l -> l.onStart(this, since(startNanos), false));
+        if (cancelled) {
+            logger.info("Database startup cancelled.");
+            return new ManagedProcessException("The start of the database was cancelled", cause);
+        }
+        return new ManagedProcessException(message, cause);
+    }
+
+    /**
+     * Reads the current resource usage (RSS, CPU time, open file descriptors, I/O) of the running
+     * mysqld process. This is only supported on Linux, where it is read from /proc.
+     *
+     * @return the ProcessStats, or empty if the DB is not running or this is not Linux
+     */
+    public Optional<ProcessStats> getProcessStats() {
+        if (Platform.get() != Platform.OS.LINUX
+                || mysqldProcess == null
+                || !mysqldProcess.isAlive()) {
+            return Optional.empty();
+        }
+        try {
+            long pid = getMysqldPid();
+            return pid == -1 ? Optional.empty() : Optional.of(ProcessStats.read(pid));
+        } catch (IOException | RuntimeException e) {
+            logger.debug("Could not read process stats of mysqld", e);
+            mysqldPid = -1;
+            return Optional.empty();
+        }
+    }
+
+    private long getMysqldPid() throws IOException {
+        long pid = mysqldPid;
+        if (pid == -1) {
+            File pidFile = getPidFile();
+            if (!pidFile.exists()) {
+                return -1;
+            }
+            pid =
+                    Long.parseLong(
+                            Files.readString(pidFile.toPath(), StandardCharsets.US_ASCII).trim());
+            mysqldPid = pid;
+        }
+        return pid;
+    }
+
+    /**
+     * The file where mysqld writes its PID to; this is either the pid-file of the {@link
+     * DBConfiguration#getServerOptions()}, or mysqld.pid in the data directory.
+     *
+     * @return the PID file
+     */
+    protected File getPidFile() {
+        String pidFileOption = configuration.getServerOptions().get("pid-file");
+        if (pidFileOption != null) {
+            File pidFile = new File(pidFileOption);
+            return pidFile.isAbsolute() ? pidFile : new File(dataDir, pidFile.getPath());
+        }
+        return new File(dataDir, "mysqld.pid");
+    }
+
+    private synchronized void startProcessWatchdog() {
+        if (configuration.getRssLimitBytes() <= 0) {
+            return;
+        }
+        if (Platform.get() != Platform.OS.LINUX) {
+            logger.warn("Ignoring the RSS limit, because it is only supported on Linux");
+            return;
+        }
+        rssLimitExceeded = false;
+        processWatchdog =
+                Executors.newSingleThreadScheduledExecutor(
+                        Util.newThreadFactory(
+                                "MariaDB4j-process-watchdog-" + configuration.getPort()));
+        Future<?> unused =
+                processWatchdog.scheduleWithFixedDelay(
+                        this::checkRssLimit,
+                        processWatchdogIntervalInMS,
+                        processWatchdogIntervalInMS,
+                        TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void stopProcessWatchdog() {
+        if (processWatchdog != null) {
+            processWatchdog.shutdownNow();
+            processWatchdog = null;
+        }
+    }
+
+    private void checkRssLimit() {
+        Optional<ProcessStats> stats = getProcessStats();
+        if (stats.isEmpty()) {
+            return;
+        }
+        long rss = stats.get().getRssBytes();
+        long limit = configuration.getRssLimitBytes();
+        if (rss <= limit) {
+            rssLimitExceeded = false;
+        } else if (configuration.isStoppingOnRssLimit()) {
+            logger.error(
+                    "mysqld RSS of {} bytes exceeds the limit of {} bytes, stopping the database: {}",
+                    rss,
+                    limit,
+                    stats.get());
+            try {
+                stop();
+            } catch (ManagedProcessException e) {
+                logger.error("Failed to stop the database after exceeding the RSS limit", e);
+            }
+        } else if (!rssLimitExceeded) {
+            // Only warn once each time the limit is crossed, not every interval
+            rssLimitExceeded = true;
+            logger.warn(
+                    "mysqld RSS of {} bytes exceeds the limit of {} bytes: {}",
+                    rss,
+                    limit,
+                    stats.get());
+        }
+    }
+
     protected String getReadyForConnectionsTag() {
         return ": ready for connections.";
     }
 
-    synchronized ManagedProcess startPreparation() throws ManagedProcessException, IOException {
-        ManagedProcessBuilder builder =
-                new ManagedProcessBuilder(configuration.getExecutable(Server));
+    ManagedProcess startPreparation() throws ManagedProcessException, IOException {
+        removeCgroup();
+        cgroup = Cgroup.create(configuration).orElse(null);
+        ManagedProcessBuilder builder = newProcessBuilder(Server, cgroup);
         builder.setOutputStreamLogDispatcher(getOutputStreamLogDispatcher("mysqld"));
+        int processGeneration = generation.incrementAndGet();
+        builder.setProcessListener(
+                new ManagedProcessListener() {
+                    @Override
+                    public void onProcessComplete(int exitValue) {
+                        onMysqldExit(processGeneration, exitValue);
+                    }
+
+                    @Override
+                    public void onProcessFailed(int exitValue, Throwable throwable) {
+                        onMysqldExit(processGeneration, exitValue);
+                    }
+                });
         builder.getEnvironment()
                 .put(configuration.getOSLibraryEnvironmentVarName(), libDir.getAbsolutePath());
-        builder.addArgument("--no-defaults"); // *** THIS MUST COME FIRST ***
-        builder.addArgument("--console");
-        if (configuration.isSecurityDisabled()) {
-            builder.addArgument("--skip-grant-tables");
+        ServerOptions options = getServerOptions();
+        if (configuration.isValidatingServerOptions()) {
+            ServerOptionsValidator.validate(
+                    options, configuration.getExecutable(Server), builder.getEnvironment());
         }
-        if (!hasArgument("--max_allowed_packet")) {
-            builder.addArgument("--max_allowed_packet=64M");
-        }
-        builder.addFileArgument("--basedir", baseDir).setWorkingDirectory(baseDir);
-        if (!configuration.isWindows()) {
-            builder.addFileArgument("--datadir", dataDir);
-            builder.addFileArgument("--tmpdir", tmpDir);
-        } else {
-            builder.addFileArgument("--datadir", dataDir.getCanonicalFile());
-            builder.addFileArgument("--tmpdir", tmpDir.getCanonicalFile());
-        }
-        addPortAndMaybeSocketArguments(builder);
-        for (String arg : configuration.getArgs()) {
+        File optionFile = new File(dataDir, OPTION_FILE);
+        options.write(optionFile);
+        // *** THIS MUST COME FIRST ***
+        builder.addFileArgument("--defaults-file", optionFile).setWorkingDirectory(baseDir);
+        for (String arg : new ServerOptions().addArgs(configuration.getArgs())) {
             builder.addArgument(arg);
         }
-        if (StringUtils.isNotBlank(configuration.getDefaultCharacterSet())) {
-            builder.addArgument("--character-set-server=", configuration.getDefaultCharacterSet());
-        }
+        mysqldPid = -1;
         cleanupOnExit();
         // because cleanupOnExit() just installed our (class DB) own
         // Shutdown hook, we don't need the one from ManagedProcess:
@@ -250,15 +525,95 @@ public class DB {
         return builder.build();
     }
 
-    protected boolean hasArgument(final String argumentName) {
-        for (String argument : configuration.getArgs()) {
-            if (argument.startsWith(argumentName)) {
-                return true;
+    /**
+     * Notices when mysqld exits while the DB is RUNNING, i.e. not because of stop() (which first
+     * moves to STOPPING), nor while starting (which start() handles itself).
+     */
+    private void onMysqldExit(int processGeneration, int exitValue) {
+        if (processGeneration != generation.get()) {
+            return;
+        }
+        boolean crashed = exitValue != 0;
+        if (!state.compareAndSet(DBState.RUNNING, crashed ? DBState.FAILED : DBState.STOPPED)) {
+            return;
+        }
+        if (crashed) {
+            logger.error("mysqld exited unexpectedly with {}", exitValue);
+        } else {
+            logger.warn("mysqld exited by itself");
+        }
+        stopProcessWatchdog();
+        mysqldPid = -1;
+        removeCgroup();
+        if (crashed) {
+            notifyListeners(l -> l.onCrash(this, exitValue));
+            if (supervisor != null) {
+                supervisor.onCrash();
             }
+        } else {
+            notifyListeners(l -> l.onStop(this, Duration.ZERO));
         }
-        return false;
     }
 
+    /**
+     * The options which mysqld is started with: the defaults of MariaDB4j, overridden by the {@link
+     * DBConfiguration#getServerOptions()}.
+     *
+     * @return a new ServerOptions
+     * @throws IOException if a directory cannot be resolved
+     */
+    protected ServerOptions getServerOptions() throws IOException {
+        ServerOptions options = new ServerOptions();
+        options.set("console", null);
+        if (configuration.isSecurityDisabled()) {
+            options.set("skip-grant-tables", null);
+        }
+        options.set("max-allowed-packet", "64M");
+        if (!configuration.isWindows()) {
+            options.set("basedir", baseDir.getAbsolutePath());
+            options.set("datadir", dataDir.getAbsolutePath());
+            options.set("tmpdir", tmpDir.getAbsolutePath());
+        } else {
+            options.set("basedir", baseDir.getCanonicalPath());
+            options.set("datadir", dataDir.getCanonicalPath());
+            options.set("tmpdir", tmpDir.getCanonicalPath());
+        }
+        options.set("pid-file", getPidFile().getAbsolutePath());
+        options.set("port", Integer.toString(configuration.getPort()));
+        if (!configuration.isWindows()) {
+            options.set("socket", getAbsoluteSocketFile().getPath());
+        }
+        options.setAll(configuration.getServerOptions());
+        if (StringUtils.isNotBlank(configuration.getDefaultCharacterSet())) {
+            options.set("character-set-server", configuration.getDefaultCharacterSet());
+        }
+        return options;
+    }
+
+    /**
+     * Whether mysqld is started with an option, given either as argument or as server option.
+     *
+     * @param argumentName e.g. "--port"
+     * @return true if the option is set
+     * @deprecated use {@link ServerOptions#contains(String)} of {@link
+     *     DBConfiguration#getServerOptions()}, which includes the arguments
+     */
+    @Deprecated
+    protected boolean hasArgument(final String argumentName) {
+        int equals = argumentName.indexOf('=');
+        return configuration
+                .getServerOptions()
+                .contains(equals < 0 ? argumentName : argumentName.substring(0, equals));
+    }
+
+    /**
+     * Adds the port, and unless on Windows the socket, as arguments.
+     *
+     * @param builder the ManagedProcessBuilder to add them to
+     * @throws IOException if the socket file cannot be resolved
+     * @deprecated mysqld is now given these in its option file, see {@link #getServerOptions()}
+     */
+    @Deprecated
     protected void addPortAndMaybeSocketArguments(ManagedProcessBuilder builder)
             throws IOException {
         builder.addArgument("--port=" + configuration.getPort());
@@ -341,7 +696,14 @@ public class DB {
      */
     public void source(InputStream resource, String username, String password, String dbName)
             throws ManagedProcessException {
-        run("script file sourced from an InputStream", resource, username, password, dbName, false);
+        run(
+                "script file sourced from an InputStream",
+                resource,
+                username,
+                password,
+                dbName,
+                false,
+                true);
     }
 
     /**
@@ -384,13 +746,102 @@ public class DB {
                     username,
                     password,
                     dbName,
-                    force);
+                    force,
+                    true);
         } catch (IOException ioe) {
             logger.warn(
                     "Issue trying to close source InputStream. Raise warning and continue.", ioe);
         }
     }
 
+    /**
+     * Sources resources into many databases concurrently, see {@link #sourceAll(Map, String,
+     * String, int)}.
+     *
+     * @param resources the paths of resources on the classpath to source, by database name
+     * @param parallelism how many mysql clients to run at the same time
+     * @return how long sourcing took, by database name
+     * @throws ch.vorburger.exec.ManagedProcessException if sourcing into any database failed
+     */
+    public Map<String, Duration> sourceAll(Map<String, List<String>> resources, int parallelism)
+            throws ManagedProcessException {
+        return sourceAll(resources, null, null, parallelism);
+    }
+
+    /**
+     * Sources resources into many databases concurrently, each with its own mysql client process.
+     * The resources of one database are sourced in order. If sourcing into a database fails (unlike
+     * the source() methods, also due to a failing statement), the remaining resources of that
+     * database are skipped, but the other databases are still sourced, and all failures are then
+     * thrown together.
+     *
+     * @param resources the paths of resources on the classpath to source, by database name; the
+     *     databases must already exist, see {@link #createDB(String)}
+     * @param username the username used to login to the database
+     * @param password the password used to login to the database
+     * @param parallelism how many mysql clients to run at the same time
+     * @return how long sourcing took, by database name
+     * @throws ch.vorburger.exec.ManagedProcessException if sourcing into any database failed
+     */
+    public Map<String, Duration> sourceAll(
+            Map<String, List<String>> resources, String username, String password, int parallelism)
+            throws ManagedProcessException {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        }
+        ExecutorService executor =
+                Executors.newFixedThreadPool(
+                        Math.min(parallelism, Math.max(1, resources.size())),
+                        Util.newThreadFactory("MariaDB4j-source"));
+        Map<String, Future<Duration>> futures = new LinkedHashMap<>();
+        try {
+            resources.forEach(
+                    (dbName, dbResources) ->
+                            futures.put(
+                                    dbName,
+                                    executor.submit(
+                                            () -> {
+                                                long startNanos = System.nanoTime();
+                                                for (String resource : dbResources) {
+                                                    sourceOrFail(
+                                                            resource, username, password, dbName);
+                                                }
+                                                return since(startNanos);
+                                            })));
+            Map<String, Duration> durations = new LinkedHashMap<>();
+            List<String> failed = new ArrayList<>();
+            List<Throwable> causes = new ArrayList<>();
+            for (Map.Entry<String, Future<Duration>> entry : futures.entrySet()) {
+                try {
+                    durations.put(entry.getKey(), entry.getValue().get());
+                } catch (ExecutionException e) {
+                    failed.add(entry.getKey());
+                    causes.add(e.getCause());
+                }
+            }
+            logger.info("Sourced into {} databases: {}", durations.size(), durations);
+            if (!failed.isEmpty()) {
+                ManagedProcessException e =
+                        new ManagedProcessException(
+                                "Sourcing into "
+                                        + failed.size()
+                                        + " of "
+                                        + resources.size()
+                                        + " databases failed: "
+                                        + failed,
+                                causes.get(0));
+                causes.stream().skip(1).forEach(e::addSuppressed);
+                throw e;
+            }
+            return durations;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ManagedProcessException("Interrupted while sourcing", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     /**
      * Run.
      *
@@ -485,47 +936,225 @@ public class DB {
             String dbName,
             boolean force)
             throws ManagedProcessException {
+        run(logInfoText, fromIS, username, password, dbName, force, false);
+    }
+
+    protected void run(
+            String logInfoText,
+            InputStream fromIS,
+            String username,
+            String password,
+            String dbName,
+            boolean force,
+            boolean isSource)
+            throws ManagedProcessException {
+        run(logInfoText, fromIS, username, password, dbName, force, isSource, false);
+    }
+
+    /**
+     * Like {@link #source(InputStream, String, String, String)}, but throws if the mysql client
+     * fails, e.g. because a statement failed (which the public source() methods only log).
+     */
+    void sourceOrFail(InputStream resource, String username, String password, String dbName)
+            throws ManagedProcessException {
+        run(
+                "script file sourced from an InputStream",
+                resource,
+                username,
+                password,
+                dbName,
+                false,
+                true,
+                true);
+    }
+
+    private void sourceOrFail(String resource, String username, String password, String dbName)
+            throws ManagedProcessException, IOException {
+        try (InputStream from = getClass().getClassLoader().getResourceAsStream(resource)) {
+            if (from == null) {
+                throw new IllegalArgumentException(
+                        "Could not find script file on the classpath at: " + resource);
+            }
+            run(
+                    "script file sourced from the classpath at: " + resource,
+                    from,
+                    username,
+                    password,
+                    dbName,
+                    false,
+                    true,
+                    true);
+        }
+    }
+
+    private void run(
+            String logInfoText,
+            InputStream fromIS,
+            String username,
+            String password,
+            String dbName,
+            boolean force,
+            boolean isSource,
+            boolean failOnError)
+            throws ManagedProcessException {
         logger.info("Running a " + logInfoText);
+        long startNanos = System.nanoTime();
         try {
-            ManagedProcessBuilder builder =
-                    new ManagedProcessBuilder(configuration.getExecutable(Client));
-            builder.setOutputStreamLogDispatcher(getOutputStreamLogDispatcher("mysql"));
-            builder.setWorkingDirectory(baseDir);
-            builder.addArgument("--default-character-set=utf8");
-            if (username != null && !username.isEmpty()) {
-                builder.addArgument("-u", username);
-            }
-            if (password != null && !password.isEmpty()) {
-                builder.addArgument("-p", password);
-            }
-            if (dbName != null && !dbName.isEmpty()) {
-                builder.addArgument("-D", dbName);
-            }
+            ManagedProcessBuilder builder = newClientProcessBuilder(username, password, dbName);
             if (force) {
                 builder.addArgument("-f");
             }
-            addSocketOrPortArgument(builder);
-            if (fromIS != null) {
-                builder.setInputStream(fromIS);
-            }
             if (configuration.getProcessListener() != null) {
                 builder.setProcessListener(configuration.getProcessListener());
             }
-            if (configuration.getDefaultCharacterSet() != null) {
-                builder.addArgument(
-                        "--default-character-set=", configuration.getDefaultCharacterSet());
-            }
 
-            ManagedProcess process = builder.build();
-            process.start();
-            process.waitForExit();
+            try (ClientProcess process = ClientProcess.start(builder, fromIS)) {
+                int exitValue = process.waitForExit();
+                if (failOnError && exitValue != 0) {
+                    throw new ManagedProcessException("mysql client exited with " + exitValue);
+                }
+            }
         } catch (Exception e) {
+            notifyRun(isSource, since(startNanos), false);
             throw new ManagedProcessException(
                     "An error occurred while running a " + logInfoText, e);
         }
+        notifyRun(isSource, since(startNanos), true);
         logger.info("Successfully ran the " + logInfoText);
     }
 
+    private void notifyRun(boolean isSource, Duration duration, boolean success) {
+        if (isSource) {
+            notifyListeners(l -> l.onSource(this, duration, success));
+        } else {
+            notifyListeners(l -> l.onRun(this, duration, success));
+        }
+    }
+
+    ManagedProcessBuilder newClientProcessBuilder(String username, String password, String dbName)
+            throws ManagedProcessException, IOException {
+        ManagedProcessBuilder builder = newProcessBuilder(Client, null);
+        builder.setOutputStreamLogDispatcher(getOutputStreamLogDispatcher("mysql"));
+        builder.setWorkingDirectory(baseDir);
+        builder.addArgument("--default-character-set=utf8");
+        if (username != null && !username.isEmpty()) {
+            builder.addArgument("-u", username);
+        }
+        if (password != null && !password.isEmpty()) {
+            builder.addArgument("-p", password);
+        }
+        if (dbName != null && !dbName.isEmpty()) {
+            builder.addArgument("-D", dbName);
+        }
+        addSocketOrPortArgument(builder);
+        if (configuration.getDefaultCharacterSet() != null) {
+            builder.addArgument("--default-character-set=", configuration.getDefaultCharacterSet());
+        }
+        return builder;
+    }
+
+    /**
+     * Run a query via the mysql command line tool, and return its result.
+     *
+     * @param sql the SQL statement(s) to run
+     * @return rows of the result, without column headers; SQL NULL is returned as "NULL"
+     * @throws ch.vorburger.exec.ManagedProcessException if something fatal went wrong
+     */
+    public List<String[]> query(String sql) throws ManagedProcessException {
+        return query(sql, null, null, null);
+    }
+
+    /**
+     * Run a query via the mysql command line tool, and return its result. Unlike the run() methods,
+     * this does not log the query at INFO level, which makes it suitable for polling.
+     *
+     * @param sql the SQL statement(s) to run
+     * @param username the username used to login to the database
+     * @param password the password used to login to the database
+     * @param dbName the name of the database (schema) to run the query in
+     * @return rows of the result, without column headers; SQL NULL is returned as "NULL"
+     * @throws ch.vorburger.exec.ManagedProcessException if something fatal went wrong
+     */
+    public List<String[]> query(String sql, String username, String password, String dbName)
+            throws ManagedProcessException {
+        return query(sql, username, password, dbName, false);
+    }
+
+    /**
+     * Like {@link #query(String, String, String, String)}, but optionally with the column names as
+     * the first row, e.g. for SHOW statements whose columns vary by version.
+     */
+    List<String[]> query(
+            String sql, String username, String password, String dbName, boolean columnNames)
+            throws ManagedProcessException {
+        logger.debug("Querying: {}", sql);
+        String stdout;
+        try (InputStream from = IOUtils.toInputStream(sql, StandardCharsets.UTF_8)) {
+            ManagedProcessBuilder builder = newClientProcessBuilder(username, password, dbName);
+            OutputStreamLogDispatcher dispatcher = builder.getOutputStreamLogDispatcher();
+            builder.setOutputStreamLogDispatcher(
+                    new OutputStreamLogDispatcher() {
+                        @Override
+                        public Level dispatch(OutputStreamType type, String line) {
+                            return type == OutputStreamType.STDOUT
+                                    ? Level.TRACE
+                                    : dispatcher.dispatch(type, line);
+                        }
+                    });
+            builder.addArgument("--batch");
+            if (!columnNames) {
+                builder.addArgument("--skip-column-names");
+            }
+            try (ClientProcess process = ClientProcess.start(builder, from)) {
+                int exitValue = process.waitForExit();
+                if (exitValue != 0) {
+                    throw new ManagedProcessException("mysql client exited with " + exitValue);
+                }
+                stdout = process.getStdout();
+            }
+        } catch (Exception e) {
+            throw new ManagedProcessException("An error occurred while querying: " + sql, e);
+        }
+        return parseBatchOutput(stdout);
+    }
+
+    static List<String[]> parseBatchOutput(String output) {
+        List<String[]> rows = new ArrayList<>();
+        for (String line : output.split("\n", -1)) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            String[] columns = line.split("\t", -1);
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = unescapeBatchValue(columns[i]);
+            }
+            rows.add(columns);
+        }
+        return rows;
+    }
+
+    private static String unescapeBatchValue(String value) {
+        if (value.indexOf('\\') == -1) {
+            return value;
+        }
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                switch (next) {
+                    case 'n' -> sb.append('\n');
+                    case 't' -> sb.append('\t');
+                    case '0' -> sb.append('\0');
+                    default -> sb.append(next);
+                }
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
     /**
      * CreateDB.
      *
@@ -549,23 +1178,167 @@ public class DB {
         this.run("create database if not exists `" + dbName + "`;", username, password);
     }
 
+    /**
+     * Clones a database (schema), e.g. to give each test its own copy of a "golden" schema, which
+     * is much faster than sourcing the same scripts again.
+     *
+     * @param source the name of the database to copy
+     * @param target the name of the new database
+     * @throws ch.vorburger.exec.ManagedProcessException if something fatal went wrong
+     * @see #cloneSchema(String, String, String, String)
+     */
+    public void cloneSchema(String source, String target) throws ManagedProcessException {
+        cloneSchema(source, target, null, null);
+    }
+
+    /**
+     * Clones a database (schema). The tables are created with CREATE TABLE ... LIKE, and filled
+     * with INSERT ... SELECT, concurrently. InnoDB tables of 32 MB or more (as per
+     * information_schema.TABLES) are instead copied as transportable tablespaces, by copying their
+     * files in the data directory. Views are re-created to refer to the tables of the target.
+     * Triggers, routines and foreign keys are not cloned.
+     *
+     * @param source the name of the database to copy
+     * @param target the name of the new database, which must not exist yet
+     * @param username the username used to login to the database
+     * @param password the password used to login to the database
+     * @throws ch.vorburger.exec.ManagedProcessException if something fatal went wrong
+     */
+    public void cloneSchema(String source, String target, String username, String password)
+            throws ManagedProcessException {
+        new SchemaCloner(this, username, password).cloneSchema(source, target);
+    }
+
     protected OutputStreamLogDispatcher getOutputStreamLogDispatcher(
             @SuppressWarnings("unused") String exec) {
         return new MariaDBOutputStreamLogDispatcher();
     }
 
     /**
-     * Stops the database.
+     * Creates the builder for a process, launched through the cgroup wrapper and/or the CPU
+     * affinity prefix (numactl or taskset) if configured; these all exec() the executable, so its
+     * PID remains that of the launched process.
+     */
+    ManagedProcessBuilder newProcessBuilder(Executable executable, Cgroup cgroup)
+            throws IOException {
+        List<String> prefix = CpuAffinity.launchPrefix(configuration);
+        if (cgroup == null && prefix.isEmpty()) {
+            return new ManagedProcessBuilder(configuration.getExecutable(executable));
+        }
+        ManagedProcessBuilder builder;
+        if (cgroup != null) {
+            builder = new ManagedProcessBuilder("/bin/sh");
+            builder.addArgument("-c");
+            builder.addArgument(Cgroup.LAUNCH_SCRIPT, false);
+            builder.addArgument("mysqld");
+            builder.addArgument(cgroup.getProcsFile());
+        } else {
+            builder = new ManagedProcessBuilder(prefix.remove(0));
+        }
+        for (String arg : prefix) {
+            builder.addArgument(arg);
+        }
+        builder.addArgument(configuration.getExecutable(executable));
+        return builder;
+    }
+
+    /**
+     * Stops the database. If another thread is starting it, this cancels that start, and waits
+     * until it gave up; if another thread is stopping it, this waits for that.
      *
      * @throws ch.vorburger.exec.ManagedProcessException if something fatal went wrong
      */
-    public synchronized void stop() throws ManagedProcessException {
-        if (mysqldProcess != null && mysqldProcess.isAlive()) {
-            logger.debug("Stopping the database...");
-            mysqldProcess.destroy();
-            logger.info("Database stopped.");
-        } else {
-            logger.debug("Database was already stopped.");
+    public void stop() throws ManagedProcessException {
+        if (supervisor != null) {
+            supervisor.cancel();
+        }
+        while (true) {
+            DBState current = state.get();
+            if (current == DBState.RUNNING) {
+                if (state.compareAndSet(DBState.RUNNING, DBState.STOPPING)) {
+                    stopRunning();
+                    return;
+                }
+            } else if (current == DBState.STARTING) {
+                if (state.compareAndSet(DBState.STARTING, DBState.STOPPING)) {
+                    logger.info("Cancelling the start of the database...");
+                    awaitStopped(true);
+                    return;
+                }
+            } else if (current == DBState.STOPPING) {
+                awaitStopped(false);
+                return;
+            } else if (current == DBState.FAILED) {
+                // So that a pending restart after a crash no longer starts it
+                if (state.compareAndSet(DBState.FAILED, DBState.STOPPED)) {
+                    logger.debug("Database was already stopped.");
+                    return;
+                }
+            } else {
+                logger.debug("Database was already stopped.");
+                return;
+            }
+        }
+    }
+
+    private void stopRunning() throws ManagedProcessException {
+        ManagedProcess process = mysqldProcess;
+        try {
+            if (process != null && process.isAlive()) {
+                logger.debug("Stopping the database...");
+                long startNanos = System.nanoTime();
+                process.destroy();
+                stopProcessWatchdog();
+                mysqldPid = -1;
+                removeCgroup();
+                notifyListeners(l -> l.onStop(this, since(startNanos)));
+                logger.info("Database stopped.");
+            } else {
+                stopProcessWatchdog();
+                removeCgroup();
+                logger.debug("Database was already stopped.");
+            }
+        } catch (ManagedProcessException | RuntimeException e) {
+            state.set(DBState.FAILED);
+            throw e;
+        }
+        state.set(DBState.STOPPED);
+    }
+
+    /**
+     * Waits while another thread is stopping, or while a cancelled start gives up; for the latter,
+     * this destroys mysqld as soon as it was launched, instead of waiting until it is ready.
+     */
+    private void awaitStopped(boolean cancellingStart) throws ManagedProcessException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(dbStartMaxWaitInMS);
+        while (state.get() == DBState.STOPPING) {
+            ManagedProcess process = mysqldProcess;
+            if (cancellingStart && process != null && process.isAlive()) {
+                try {
+                    process.destroy();
+                } catch (ManagedProcessException e) {
+                    // The start just gave up by itself
+                    logger.debug("Could not destroy mysqld of a cancelled start", e);
+                }
+            }
+            if (System.nanoTime() - deadline > 0) {
+                throw new ManagedProcessException(
+                        "Database was still stopping after " + dbStartMaxWaitInMS + "ms");
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ManagedProcessException("Interrupted while stopping the database", e);
+            }
+        }
+    }
+
+    /** Removes the cgroup which mysqld was launched into, if any; mysqld must no longer run. */
+    synchronized void removeCgroup() {
+        if (cgroup != null) {
+            cgroup.remove();
+            cgroup = null;
         }
     }
 
@@ -618,9 +1391,13 @@ public class DB {
 
     /**
      * Adds a shutdown hook to ensure that when the JVM exits, the database is stopped, and any
-     * temporary data directories are cleaned up.
+     * temporary data directories are cleaned up. This only adds it once per DB, also if it is
+     * started again, e.g. after a crash.
      */
     protected void cleanupOnExit() {
+        if (!shutdownHookAdded.compareAndSet(false, true)) {
+            return;
+        }
         String threadName = "Shutdown Hook Deletion Thread for Temporary DB " + dataDir.toString();
         final DB db = this;
         Runtime.getRuntime()
@@ -684,8 +1461,7 @@ public class DB {
             String password)
             throws ManagedProcessException, IOException {
 
-        ManagedProcessBuilder builder =
-                new ManagedProcessBuilder(configuration.getExecutable(Dump));
+        ManagedProcessBuilder builder = newProcessBuilder(Dump, null);
 
         BufferedOutputStream outputStream =
                 new BufferedOutputStream(new FileOutputStream(outputFile));
@@ -719,11 +1495,15 @@ public class DB {
                     @Override
                     public void onProcessComplete(int i) {
                         closeOutputStream();
+                        notifyListeners(
+                                l -> l.onDump(DB.this, outputFile, outputFile.length(), true));
                     }
 
                     @Override
                     public void onProcessFailed(int i, Throwable throwable) {
                         closeOutputStream();
+                        notifyListeners(
+                                l -> l.onDump(DB.this, outputFile, outputFile.length(), false));
                     }
 
                     private void closeOutputStream() {
@@ -0,0 +1,388 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j;
+
+import ch.vorburger.exec.ManagedProcessException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * A primary and its replicas, all running on this host from the same binaries, e.g. to test
+ * read/write splitting against real (asynchronous, GTID based) replication.
+ *
+ * <p>Every node has its own data directory, port and server_id; the primary's is 1, the replicas'
+ * are 2, 3 and so on. The primary writes a binlog, and the replicas are read only. Instead of
+ * installing every replica, or loading a dump into it, their data directories are copies of the
+ * primary's freshly installed one; so they only need to replicate what is written to the primary
+ * after {@link #start()}, which they do from the beginning of its binlog.
+ *
+ * <p>Typical usage:
+ *
+ * <pre>
+ * DBCluster cluster = DBCluster.newBuilder().setReplicas(2).build();
+ * cluster.start();
+ * cluster.getPrimary().createDB("app");
+ * String writeURL = cluster.getURL("app");
+ * String readURL = cluster.getReplicaURL(0, "app");
+ * ...
+ * cluster.stop();
+ * </pre>
+ *
+ * <p>Reads from a replica right after a write to the primary may not see that write yet; tests
+ * should therefore {@link #waitForReplication(Duration)} in between, instead of sleeping.
+ *
+ * <p>The replicas connect to the primary as root without a password, which requires the default
+ * {@link DBConfigurationBuilder#setSecurityDisabled(boolean) disabled security}.
+ */
+public class DBCluster {
+
+    private static final Logger logger = LoggerFactory.getLogger(DBCluster.class);
+
+    static final int PRIMARY_SERVER_ID = 1;
+
+    private final DB primary;
+    private final List<DB> replicas;
+
+    DBCluster(DB primary, List<DB> replicas) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /** Builder of a {@link DBCluster}. */
+    public static class Builder {
+
+        private int replicas = 1;
+        private int port;
+        private final List<String> args = new ArrayList<>();
+        private Consumer<DBConfigurationBuilder> customizer = configurationBuilder -> {};
+
+        /**
+         * Sets the number of replicas; defaults to 1.
+         *
+         * @param replicas the number of replicas
+         * @return this
+         */
+        public Builder setReplicas(int replicas) {
+            if (replicas < 0) {
+                throw new IllegalArgumentException("replicas must not be negative: " + replicas);
+            }
+            this.replicas = replicas;
+            return this;
+        }
+
+        /**
+         * Sets the port of the primary; replica i then uses port + 1 + i. Defaults to 0, which uses
+         * free ports.
+         *
+         * @param port the port of the primary, or 0
+         * @return this
+         */
+        public Builder setPort(int port) {
+            this.port = port;
+            return this;
+        }
+
+        /**
+         * Adds an argument for mysqld, for every node.
+         *
+         * @param arg the argument
+         * @return this
+         */
+        public Builder addArg(String arg) {
+            args.add(arg);
+            return this;
+        }
+
+        /**
+         * Sets a callback which configures every node, e.g. to set its base directory or character
+         * set. It must not set the port, data directory or socket, which differ per node.
+         *
+         * @param customizer called with the configuration builder of every node
+         * @return this
+         */
+        public Builder setCustomizer(Consumer<DBConfigurationBuilder> customizer) {
+            this.customizer = customizer;
+            return this;
+        }
+
+        /**
+         * Builds the cluster, which is not started yet.
+         *
+         * @return a new DBCluster
+         */
+        public DBCluster build() {
+            DB primary =
+                    new DB(
+                            configuration(
+                                    0,
+                                    "--server-id=" + PRIMARY_SERVER_ID,
+                                    "--log-bin=mysql-bin",
+                                    "--binlog-format=ROW"));
+            List<DB> replicaDBs = new ArrayList<>();
+            for (int i = 0; i < replicas; i++) {
+                replicaDBs.add(
+                        new DB(
+                                configuration(
+                                        1 + i,
+                                        "--server-id=" + (PRIMARY_SERVER_ID + 1 + i),
+                                        "--relay-log=relay-bin",
+                                        "--read-only",
+                                        "--skip-slave-start")));
+            }
+            return new DBCluster(primary, replicaDBs);
+        }
+
+        private DBConfiguration configuration(int index, String... nodeArgs) {
+            DBConfigurationBuilder configurationBuilder = DBConfigurationBuilder.newBuilder();
+            customizer.accept(configurationBuilder);
+            configurationBuilder.setPort(port == 0 ? 0 : port + index);
+            for (String arg : args) {
+                configurationBuilder.addArg(arg);
+            }
+            for (String arg : nodeArgs) {
+                configurationBuilder.addArg(arg);
+            }
+            return configurationBuilder.build();
+        }
+    }
+
+    /**
+     * Installs the primary, seeds the replicas with copies of its data directory, starts all nodes
+     * concurrently, and lets the replicas replicate from the primary.
+     *
+     * @throws ManagedProcessException if any node could not be installed or started; the nodes
+     *     which did start are stopped again
+     */
+    public synchronized void start() throws ManagedProcessException {
+        long startNanos = System.nanoTime();
+        DBNodes.installAndCopy(primary, replicas);
+        try {
+            DBNodes.forEach(
+                    getNodes(),
+                    "MariaDB4j-cluster-start",
+                    "Could not start the cluster",
+                    DB::start);
+        } catch (ManagedProcessException e) {
+            stopQuietly();
+            throw e;
+        }
+
+        try {
+            for (DB replica : replicas) {
+                // Without MASTER_SSL=0, 11.4+ replicas reject the primary's self-signed certificate
+                replica.query(
+                        "CHANGE MASTER TO MASTER_HOST='127.0.0.1', MASTER_PORT="
+                                + primary.getConfiguration().getPort()
+                                + ", MASTER_USER='root', MASTER_SSL=0, MASTER_CONNECT_RETRY=1,"
+                                + " MASTER_USE_GTID=slave_pos; START SLAVE;");
+            }
+        } catch (ManagedProcessException e) {
+            stopQuietly();
+            throw e;
+        }
+        logger.info(
+                "Started a cluster of a primary on port {} and {} replicas in {}ms",
+                primary.getConfiguration().getPort(),
+                replicas.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+    }
+
+    /**
+     * Stops the replicas, and then the primary.
+     *
+     * @throws ManagedProcessException if any node could not be stopped; the others are stopped
+     *     nevertheless
+     */
+    public synchronized void stop() throws ManagedProcessException {
+        List<DB> nodes = new ArrayList<>(getNodes());
+        Collections.reverse(nodes);
+        DBNodes.stop(nodes);
+    }
+
+    private void stopQuietly() {
+        try {
+            stop();
+        } catch (ManagedProcessException e) {
+            logger.warn("Could not stop the cluster", e);
+        }
+    }
+
+    /**
+     * Reads how far a replica is behind the primary.
+     *
+     * @param replica the index of the replica, from 0
+     * @return the ReplicaLag
+     * @throws ManagedProcessException if the primary or replica could not be queried
+     */
+    public ReplicaLag getLag(int replica) throws ManagedProcessException {
+        // The primary first, so that the replica cannot appear to be ahead of it
+        String primaryPosition = variable(primary, "gtid_binlog_pos");
+        DB db = getReplica(replica);
+        List<String[]> slaveStatus = db.query("SHOW SLAVE STATUS", null, null, null, true);
+        return ReplicaLag.parse(primaryPosition, variable(db, "gtid_slave_pos"), slaveStatus);
+    }
+
+    /**
+     * Reads how far every replica is behind the primary.
+     *
+     * @return the ReplicaLag of every replica, by index
+     * @throws ManagedProcessException if the primary or a replica could not be queried
+     */
+    public List<ReplicaLag> getLags() throws ManagedProcessException {
+        List<ReplicaLag> lags = new ArrayList<>();
+        for (int i = 0; i < replicas.size(); i++) {
+            lags.add(getLag(i));
+        }
+        return lags;
+    }
+
+    /**
+     * Waits until every replica applied all transactions which the primary committed so far.
+     *
+     * @param timeout how long to wait, in total
+     * @throws ManagedProcessException if a replica did not catch up within the timeout
+     * @see #waitForReplication(DB, DB, Duration)
+     */
+    public void waitForReplication(Duration timeout) throws ManagedProcessException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        String position = variable(primary, "gtid_binlog_pos");
+        for (DB replica : replicas) {
+            waitForReplication(position, replica, Duration.ofNanos(deadline - System.nanoTime()));
+        }
+    }
+
+    /**
+     * Waits until a replica applied all transactions which its primary committed so far, i.e. up to
+     * the primary's current @@gtid_binlog_pos, using MASTER_GTID_WAIT() on the replica. Its {@link
+     * DBListener#onReplicationWait(DB, Duration, boolean) listeners} are notified of how long this
+     * took, e.g. to record a histogram of the replication latency.
+     *
+     * @param primary the primary
+     * @param replica a replica of the primary
+     * @param timeout how long to wait
+     * @return how long it took the replica to catch up
+     * @throws ManagedProcessException if the replica did not catch up within the timeout
+     */
+    public static Duration waitForReplication(DB primary, DB replica, Duration timeout)
+            throws ManagedProcessException {
+        return waitForReplication(variable(primary, "gtid_binlog_pos"), replica, timeout);
+    }
+
+    private static Duration waitForReplication(String position, DB replica, Duration timeout)
+            throws ManagedProcessException {
+        long startNanos = System.nanoTime();
+        if (position.isEmpty()) {
+            // The primary did not commit anything yet
+            return Duration.ZERO;
+        }
+        String seconds =
+                String.format(Locale.ROOT, "%.3f", Math.max(0, timeout.toMillis()) / 1000.0);
+        List<String[]> result =
+                replica.query(
+                        "SELECT MASTER_GTID_WAIT('"
+                                + position.replace("'", "")
+                                + "', "
+                                + seconds
+                                + ")");
+        Duration duration = Duration.ofNanos(System.nanoTime() - startNanos);
+        boolean success = !result.isEmpty() && "0".equals(result.get(0)[0]);
+        replica.notifyListeners(l -> l.onReplicationWait(replica, duration, success));
+        if (!success) {
+            throw new ManagedProcessException(
+                    "Replica on port "
+                            + replica.getConfiguration().getPort()
+                            + " did not reach GTID position "
+                            + position
+                            + " within "
+                            + timeout);
+        }
+        return duration;
+    }
+
+    static String variable(DB db, String name) throws ManagedProcessException {
+        // An empty value is an empty line, which is no row
+        List<String[]> rows = db.query("SELECT @@" + name);
+        return rows.isEmpty() ? "" : rows.get(0)[0];
+    }
+
+    public DB getPrimary() {
+        return primary;
+    }
+
+    /**
+     * Gets a replica.
+     *
+     * @param replica the index of the replica, from 0
+     * @return the replica
+     */
+    public DB getReplica(int replica) {
+        return replicas.get(replica);
+    }
+
+    public List<DB> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * Gets the primary, followed by the replicas.
+     *
+     * @return all nodes
+     */
+    public List<DB> getNodes() {
+        List<DB> nodes = new ArrayList<>();
+        nodes.add(primary);
+        nodes.addAll(replicas);
+        return nodes;
+    }
+
+    /**
+     * Gets the JDBC URL of a database on the primary, for writing.
+     *
+     * @param databaseName the name of the database
+     * @return the URL
+     */
+    public String getURL(String databaseName) {
+        return primary.getConfiguration().getURL(databaseName);
+    }
+
+    /**
+     * Gets the JDBC URL of a database on a replica, for reading.
+     *
+     * @param replica the index of the replica, from 0
+     * @param databaseName the name of the database
+     * @return the URL
+     */
+    public String getReplicaURL(int replica, String databaseName) {
+        return getReplica(replica).getConfiguration().getURL(databaseName);
+    }
+}
@@ -22,6 +22,7 @@ package ch.vorburger.mariadb4j;
 import ch.vorburger.exec.ManagedProcessListener;
 
 import java.io.File;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
@@ -102,6 +103,23 @@ public interface DBConfiguration {
 
     List<String> getArgs();
 
+    /**
+     * The mysqld options of the {@link #getArgs()} which are long options (i.e. start with "--"),
+     * with their values (also if given as the next argument), and those set with {@link
+     * DBConfigurationBuilder#setServerOption(String, String)}.
+     *
+     * @return a copy of the options, never null
+     */
+    ServerOptions getServerOptions();
+
+    /**
+     * Whether to check the {@link #getServerOptions()} against those which mysqld knows before
+     * starting it, see {@link DBConfigurationBuilder#setValidatingServerOptions(boolean)}.
+     *
+     * @return returns boolean isValidatingServerOptions value
+     */
+    boolean isValidatingServerOptions();
+
     String getOSLibraryEnvironmentVarName();
 
     /**
@@ -111,6 +129,13 @@ public interface DBConfiguration {
      */
     ManagedProcessListener getProcessListener();
 
+    /**
+     * Listeners to notify about DB events, see {@link DBListener}.
+     *
+     * @return list of listeners, never null
+     */
+    List<DBListener> getListeners();
+
     /**
      * Whether to to "--skip-grant-tables".
      *
@@ -118,6 +143,79 @@ public interface DBConfiguration {
      */
     boolean isSecurityDisabled();
 
+    /**
+     * Resident set size (RSS) ceiling of the mysqld process, in bytes. Only supported on Linux.
+     *
+     * @return 0 if there is no limit
+     */
+    long getRssLimitBytes();
+
+    /**
+     * Whether to stop the DB if {@link #getRssLimitBytes()} is exceeded, instead of just logging a
+     * warning.
+     *
+     * @return returns boolean isStoppingOnRssLimit value
+     */
+    boolean isStoppingOnRssLimit();
+
+    /**
+     * How many times in a row mysqld is restarted after it crashed, see {@link
+     * DBConfigurationBuilder#setRestartOnCrash(int, Duration)}.
+     *
+     * @return 0 if a crashed mysqld is not restarted
+     */
+    int getMaxRestarts();
+
+    /**
+     * How long to wait before restarting a crashed mysqld; this doubles for every further restart
+     * in a row.
+     *
+     * @return the initial backoff
+     */
+    Duration getRestartBackoff();
+
+    /**
+     * Parent of the cgroup v2 which mysqld is launched into if any cgroup limit is set.
+     *
+     * @return null to use the JVM's own cgroup
+     */
+    File getCgroupParent();
+
+    /**
+     * Value for the <code>memory.max</code> of the cgroup of mysqld, e.g. "512M" or "max".
+     *
+     * @return null if there is no limit
+     */
+    String getCgroupMemoryMax();
+
+    /**
+     * Value for the <code>cpu.max</code> of the cgroup of mysqld, e.g. "50000 100000".
+     *
+     * @return null if there is no limit
+     */
+    String getCgroupCpuMax();
+
+    /**
+     * Value for the <code>io.max</code> of the cgroup of mysqld, e.g. "8:0 rbps=1048576 wiops=120".
+     *
+     * @return null if there is no limit
+     */
+    String getCgroupIoMax();
+
+    /**
+     * CPUs to pin the mysqld server and the mysql and mysqldump client processes to, e.g. "0-3,8".
+     *
+     * @return null if not pinned
+     */
+    String getCpuAffinity();
+
+    /**
+     * NUMA node to bind the CPUs and memory of the mysqld server and client processes to.
+     *
+     * @return -1 if not bound
+     */
+    int getNumaNode();
+
     String getURL(String dbName);
 
     String getDefaultCharacterSet();
@@ -144,12 +242,25 @@ public interface DBConfiguration {
         private final boolean isDeletingTemporaryBaseAndDataDirsOnShutdown;
         private final boolean isWindows;
         private final List<String> args;
+        private final ServerOptions serverOptions;
+        private final boolean isValidatingServerOptions;
         private final String osLibraryEnvironmentVarName;
         private final String defaultCharacterSet;
         private final ManagedProcessListener listener;
+        private final List<DBListener> listeners;
         private final boolean isSecurityDisabled;
         private final Function<String, String> getURL;
         private final Map<Executable, Supplier<File>> executables;
+        private final long rssLimitBytes;
+        private final boolean isStoppingOnRssLimit;
+        private final int maxRestarts;
+        private final Duration restartBackoff;
+        private final File cgroupParent;
+        private final String cgroupMemoryMax;
+        private final String cgroupCpuMax;
+        private final String cgroupIoMax;
+        private final String cpuAffinity;
+        private final int numaNode;
 
         Impl(
                 int port,
@@ -161,13 +272,26 @@ public interface DBConfiguration {
                 File tmpDir,
                 boolean isWindows,
                 List<String> args,
+                ServerOptions serverOptions,
+                boolean isValidatingServerOptions,
                 String osLibraryEnvironmentVarName,
                 boolean isSecurityDisabled,
                 boolean isDeletingTemporaryBaseAndDataDirsOnShutdown,
                 Function<String, String> getURL,
                 String defaultCharacterSet,
                 Map<Executable, Supplier<File>> executables,
-                ManagedProcessListener listener) {
+                ManagedProcessListener listener,
+                List<DBListener> listeners,
+                long rssLimitBytes,
+                boolean isStoppingOnRssLimit,
+                int maxRestarts,
+                Duration restartBackoff,
+                File cgroupParent,
+                String cgroupMemoryMax,
+                String cgroupCpuMax,
+                String cgroupIoMax,
+                String cpuAffinity,
+                int numaNode) {
             this.port = port;
             this.socket = socket;
             this.binariesClassPathLocation = binariesClassPathLocation;
@@ -179,12 +303,25 @@ public interface DBConfiguration {
                     isDeletingTemporaryBaseAndDataDirsOnShutdown;
             this.isWindows = isWindows;
             this.args = args;
+            this.serverOptions = serverOptions;
+            this.isValidatingServerOptions = isValidatingServerOptions;
             this.osLibraryEnvironmentVarName = osLibraryEnvironmentVarName;
             this.isSecurityDisabled = isSecurityDisabled;
             this.getURL = getURL;
             this.defaultCharacterSet = defaultCharacterSet;
             this.listener = listener;
             this.executables = executables;
+            this.listeners = listeners;
+            this.rssLimitBytes = rssLimitBytes;
+            this.isStoppingOnRssLimit = isStoppingOnRssLimit;
+            this.maxRestarts = maxRestarts;
+            this.restartBackoff = restartBackoff;
+            this.cgroupParent = cgroupParent;
+            this.cgroupMemoryMax = cgroupMemoryMax;
+            this.cgroupCpuMax = cgroupCpuMax;
+            this.cgroupIoMax = cgroupIoMax;
+            this.cpuAffinity = cpuAffinity;
+            this.numaNode = numaNode;
         }
 
         @Override
@@ -237,6 +374,16 @@ public interface DBConfiguration {
             return args;
         }
 
+        @Override
+        public ServerOptions getServerOptions() {
+            return new ServerOptions(serverOptions);
+        }
+
+        @Override
+        public boolean isValidatingServerOptions() {
+            return isValidatingServerOptions;
+        }
+
         @Override
         public String getOSLibraryEnvironmentVarName() {
             return osLibraryEnvironmentVarName;
@@ -247,6 +394,56 @@ public interface DBConfiguration {
             return isSecurityDisabled;
         }
 
+        @Override
+        public long getRssLimitBytes() {
+            return rssLimitBytes;
+        }
+
+        @Override
+        public boolean isStoppingOnRssLimit() {
+            return isStoppingOnRssLimit;
+        }
+
+        @Override
+        public int getMaxRestarts() {
+            return maxRestarts;
+        }
+
+        @Override
+        public Duration getRestartBackoff() {
+            return restartBackoff;
+        }
+
+        @Override
+        public File getCgroupParent() {
+            return cgroupParent;
+        }
+
+        @Override
+        public String getCgroupMemoryMax() {
+            return cgroupMemoryMax;
+        }
+
+        @Override
+        public String getCgroupCpuMax() {
+            return cgroupCpuMax;
+        }
+
+        @Override
+        public String getCgroupIoMax() {
+            return cgroupIoMax;
+        }
+
+        @Override
+        public String getCpuAffinity() {
+            return cpuAffinity;
+        }
+
+        @Override
+        public int getNumaNode() {
+            return numaNode;
+        }
+
         @Override
         public String getURL(String dbName) {
             return getURL.apply(dbName);
@@ -257,6 +454,11 @@ public interface DBConfiguration {
             return listener;
         }
 
+        @Override
+        public List<DBListener> getListeners() {
+            return listeners;
+        }
+
         @Override
         public String getDefaultCharacterSet() {
             return defaultCharacterSet;
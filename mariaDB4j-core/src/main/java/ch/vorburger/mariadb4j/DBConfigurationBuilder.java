@@ -35,6 +35,7 @@ import org.apache.commons.lang3.SystemUtils;
 import java.io.File;
 import java.io.IOException;
 import java.net.ServerSocket;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -81,10 +82,23 @@ public class DBConfigurationBuilder {
     protected boolean isDeletingTemporaryBaseAndDataDirsOnShutdown = true;
     protected boolean isUnpackingFromClasspath = true;
     protected List<String> args = new ArrayList<>();
+    private final ServerOptions serverOptions = new ServerOptions();
+    private boolean isValidatingServerOptions = true;
     private boolean isSecurityDisabled = true;
+    private long rssLimitBytes = 0;
+    private boolean isStoppingOnRssLimit = false;
+    private int maxRestarts = 0;
+    private Duration restartBackoff = Duration.ofSeconds(1);
+    private File cgroupParent;
+    private String cgroupMemoryMax;
+    private String cgroupCpuMax;
+    private String cgroupIoMax;
+    private String cpuAffinity;
+    private int numaNode = -1;
 
     private boolean frozen = false;
     private ManagedProcessListener listener;
+    private final List<DBListener> listeners = new ArrayList<>();
 
     protected String defaultCharacterSet = null;
     protected Map<Executable, Supplier<File>> executables = new HashMap<>();
@@ -186,6 +200,22 @@ public class DBConfigurationBuilder {
         return listener;
     }
 
+    /**
+     * Add a listener to be notified about DB events, such as installation, start and stop.
+     *
+     * @param listener the DBListener
+     * @return this
+     */
+    public DBConfigurationBuilder addListener(DBListener listener) {
+        checkIfFrozen("addListener");
+        listeners.add(requireNonNull(listener, "listener"));
+        return this;
+    }
+
+    public List<DBListener> getListeners() {
+        return listeners;
+    }
+
     public boolean isDeletingTemporaryBaseAndDataDirsOnShutdown() {
         return isDeletingTemporaryBaseAndDataDirsOnShutdown;
     }
@@ -244,13 +274,26 @@ public class DBConfigurationBuilder {
                 _getTmpDir(),
                 isWindows(),
                 _getArgs(),
+                _getServerOptions(),
+                isValidatingServerOptions(),
                 _getOSLibraryEnvironmentVarName(),
                 isSecurityDisabled(),
                 isDeletingTemporaryBaseAndDataDirsOnShutdown(),
                 this::getURL,
                 getDefaultCharacterSet(),
                 _getExecutables(),
-                getProcessListener());
+                getProcessListener(),
+                List.copyOf(getListeners()),
+                getRssLimitBytes(),
+                isStoppingOnRssLimit(),
+                getMaxRestarts(),
+                getRestartBackoff(),
+                getCgroupParent(),
+                getCgroupMemoryMax(),
+                getCgroupCpuMax(),
+                getCgroupIoMax(),
+                getCpuAffinity(),
+                getNumaNode());
     }
 
     /**
@@ -269,12 +312,221 @@ public class DBConfigurationBuilder {
         return isSecurityDisabled;
     }
 
+    /**
+     * Sets a resident set size (RSS) ceiling for the mysqld process. When it is exceeded, a warning
+     * is logged, or the DB is stopped. This is only supported on Linux, where the RSS is read from
+     * /proc; see also {@link DB#getProcessStats()}.
+     *
+     * @param rssLimitBytes the limit in bytes, or 0 for no limit (which is the default)
+     * @param isStoppingOnRssLimit true to stop the DB, false to only log a warning
+     * @return returns this
+     */
+    public DBConfigurationBuilder setRssLimit(long rssLimitBytes, boolean isStoppingOnRssLimit) {
+        checkIfFrozen("setRssLimit");
+        if (rssLimitBytes < 0) {
+            throw new IllegalArgumentException("rssLimitBytes must not be negative");
+        }
+        this.rssLimitBytes = rssLimitBytes;
+        this.isStoppingOnRssLimit = isStoppingOnRssLimit;
+        return this;
+    }
+
+    public long getRssLimitBytes() {
+        return rssLimitBytes;
+    }
+
+    public boolean isStoppingOnRssLimit() {
+        return isStoppingOnRssLimit;
+    }
+
+    /**
+     * Restarts mysqld if it exits unexpectedly while the DB is running, e.g. because it was killed
+     * by the OOM killer; by default, a crash only makes the DB {@link DBState#FAILED}. Restarts use
+     * the same data directory, so InnoDB runs its crash recovery. The backoff doubles (up to a
+     * minute) for every further restart in a row; after maxRestarts crashes or failed restarts in a
+     * row, the DB stays FAILED. A crash after mysqld ran for at least a minute starts counting
+     * again. See {@link DBListener#onCrash(DB, int)} and {@link DBListener#onRestart(DB, int,
+     * Duration, boolean)}.
+     *
+     * @param maxRestarts the crash-loop limit, or 0 to not restart (which is the default)
+     * @param backoff how long to wait before the first restart
+     * @return returns this
+     */
+    public DBConfigurationBuilder setRestartOnCrash(int maxRestarts, Duration backoff) {
+        checkIfFrozen("setRestartOnCrash");
+        if (maxRestarts < 0) {
+            throw new IllegalArgumentException("maxRestarts must not be negative");
+        }
+        if (backoff.isNegative()) {
+            throw new IllegalArgumentException("backoff must not be negative");
+        }
+        this.maxRestarts = maxRestarts;
+        this.restartBackoff = backoff;
+        return this;
+    }
+
+    public int getMaxRestarts() {
+        return maxRestarts;
+    }
+
+    public Duration getRestartBackoff() {
+        return restartBackoff;
+    }
+
+    /**
+     * Sets the <code>memory.max</code> of a cgroup v2 which mysqld is launched into. This is only
+     * supported on Linux, and requires cgroup delegation; if that is not available, a warning is
+     * logged and mysqld is started without the limit. See also {@link #setCgroupParent(File)}.
+     *
+     * @param memoryMax the value as understood by the kernel, e.g. "512M", or null for no limit
+     * @return returns this
+     */
+    public DBConfigurationBuilder setCgroupMemoryMax(String memoryMax) {
+        checkIfFrozen("setCgroupMemoryMax");
+        this.cgroupMemoryMax = memoryMax;
+        return this;
+    }
+
+    public String getCgroupMemoryMax() {
+        return cgroupMemoryMax;
+    }
+
+    /**
+     * Sets the <code>cpu.max</code> of a cgroup v2 which mysqld is launched into, see {@link
+     * #setCgroupMemoryMax(String)}.
+     *
+     * @param cpuMax "$MAX $PERIOD" in microseconds, e.g. "50000 100000" for half a CPU, or null
+     * @return returns this
+     */
+    public DBConfigurationBuilder setCgroupCpuMax(String cpuMax) {
+        checkIfFrozen("setCgroupCpuMax");
+        this.cgroupCpuMax = cpuMax;
+        return this;
+    }
+
+    public String getCgroupCpuMax() {
+        return cgroupCpuMax;
+    }
+
+    /**
+     * Sets the <code>io.max</code> of a cgroup v2 which mysqld is launched into, see {@link
+     * #setCgroupMemoryMax(String)}.
+     *
+     * @param ioMax "$MAJ:$MIN" of the device and its limits, e.g. "8:0 wbps=1048576", or null
+     * @return returns this
+     */
+    public DBConfigurationBuilder setCgroupIoMax(String ioMax) {
+        checkIfFrozen("setCgroupIoMax");
+        this.cgroupIoMax = ioMax;
+        return this;
+    }
+
+    public String getCgroupIoMax() {
+        return cgroupIoMax;
+    }
+
+    /**
+     * Sets the delegated cgroup v2 under which a cgroup for mysqld is created if any of the cgroup
+     * limits are set, e.g. /sys/fs/cgroup/user.slice/user-1000.slice/user@1000.service/mariadb4j.
+     * It must be writable by the JVM's user and must not itself contain processes. Defaults to the
+     * JVM's own cgroup.
+     *
+     * @param cgroupParent the directory of the parent cgroup
+     * @return returns this
+     */
+    public DBConfigurationBuilder setCgroupParent(File cgroupParent) {
+        checkIfFrozen("setCgroupParent");
+        this.cgroupParent = cgroupParent;
+        return this;
+    }
+
+    public File getCgroupParent() {
+        return cgroupParent;
+    }
+
+    /**
+     * Pins the mysqld server, and the mysql and mysqldump client processes used by e.g. {@link
+     * DB#run(String)} and {@link DB#dumpSQL(File, String, String, String)}, to a set of CPUs. This
+     * is only supported on Linux, using <code>numactl</code> or <code>taskset</code> from the PATH;
+     * if neither is available, a warning is logged and the processes are not pinned. See {@link
+     * CpuSpreader} to spread many instances across CPUs automatically.
+     *
+     * @param cpuList the CPUs, as in taskset, e.g. "0-3,8", or null to not pin (the default)
+     * @return returns this
+     */
+    public DBConfigurationBuilder setCpuAffinity(String cpuList) {
+        checkIfFrozen("setCpuAffinity");
+        if (cpuList != null && !CpuAffinity.CPU_LIST.matcher(cpuList).matches()) {
+            throw new IllegalArgumentException("Not a CPU list like 0-3,8: " + cpuList);
+        }
+        this.cpuAffinity = cpuList;
+        return this;
+    }
+
+    public String getCpuAffinity() {
+        return cpuAffinity;
+    }
+
+    /**
+     * Binds the memory, and (unless {@link #setCpuAffinity(String)} is also set) the CPUs, of the
+     * same processes as {@link #setCpuAffinity(String)} to a NUMA node. This requires <code>numactl
+     * </code>.
+     *
+     * @param numaNode the node number, or -1 to not bind (the default)
+     * @return returns this
+     */
+    public DBConfigurationBuilder setNumaNode(int numaNode) {
+        checkIfFrozen("setNumaNode");
+        if (numaNode < -1) {
+            throw new IllegalArgumentException("numaNode must be -1 or a node number");
+        }
+        this.numaNode = numaNode;
+        return this;
+    }
+
+    public int getNumaNode() {
+        return numaNode;
+    }
+
     public DBConfigurationBuilder addArg(String arg) {
         checkIfFrozen("addArg");
         args.add(arg);
         return this;
     }
 
+    /**
+     * Sets a mysqld option, such as a server system variable, in the option file which mysqld is
+     * started with; this overrides the same option given with {@link #addArg(String)}.
+     *
+     * @param name the name of the option, e.g. "innodb_buffer_pool_size"
+     * @param value its value, or null for a flag such as "skip-log-bin"
+     * @return returns this
+     */
+    public DBConfigurationBuilder setServerOption(String name, String value) {
+        checkIfFrozen("setServerOption");
+        serverOptions.set(name, value);
+        return this;
+    }
+
+    /**
+     * Whether to check the mysqld options before starting it (defaults to true), against those
+     * listed by its <code>--verbose --help</code>, which is cached per mysqld binary. An unknown
+     * option then fails the start right away, naming the option; options of plugins can be given
+     * with the <code>loose-</code> prefix, which mysqld ignores if it does not know them.
+     *
+     * @param isValidatingServerOptions set isValidatingServerOptions value
+     * @return returns this
+     */
+    public DBConfigurationBuilder setValidatingServerOptions(boolean isValidatingServerOptions) {
+        checkIfFrozen("setValidatingServerOptions");
+        this.isValidatingServerOptions = isValidatingServerOptions;
+        return this;
+    }
+
+    public boolean isValidatingServerOptions() {
+        return isValidatingServerOptions;
+    }
+
     protected File _getDataDir() {
         if (isNull(getDataDir())
                 || getDataDir().equals(new File(SystemUtils.JAVA_IO_TMPDIR, DEFAULT_DATA_DIR))) {
@@ -399,6 +651,12 @@ public class DBConfigurationBuilder {
         return args;
     }
 
+    protected ServerOptions _getServerOptions() {
+        ServerOptions options = new ServerOptions();
+        options.addArgs(args);
+        return options.setAll(serverOptions);
+    }
+
     public DBConfigurationBuilder setDefaultCharacterSet(String defaultCharacterSet) {
         checkIfFrozen("setDefaultCharacterSet");
         this.defaultCharacterSet = defaultCharacterSet;
@@ -0,0 +1,121 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j;
+
+import java.io.File;
+import java.time.Duration;
+
+/**
+ * Callback for events of a {@link DB}, e.g. to record metrics.
+ *
+ * <p>Listeners are registered either through {@link DBConfigurationBuilder#addListener(DBListener)}
+ * (which also sees the installation done by {@link DB#newEmbeddedDB(DBConfiguration)}) or later
+ * through {@link DB#addListener(DBListener)}. All methods have empty default implementations. They
+ * are invoked synchronously on the thread doing the work, so implementations must be fast and must
+ * not throw.
+ */
+public interface DBListener {
+
+    /**
+     * Called after mysql_install_db finished.
+     *
+     * @param db the DB which was installed
+     * @param duration how long the installation took
+     * @param success false if the installation failed
+     */
+    default void onInstall(DB db, Duration duration, boolean success) {}
+
+    /**
+     * Called after {@link DB#start()} finished.
+     *
+     * @param db the DB which was started
+     * @param duration how long the start took, until ready for connections
+     * @param success false if the start failed
+     */
+    default void onStart(DB db, Duration duration, boolean success) {}
+
+    /**
+     * Called after {@link DB#stop()} finished, or when mysqld exited by itself with 0 while the DB
+     * was running (e.g. after a SHUTDOWN statement); the DB is then {@link DBState#STOPPED}.
+     *
+     * @param db the DB which was stopped
+     * @param duration how long the stop took, or zero if mysqld exited by itself
+     */
+    default void onStop(DB db, Duration duration) {}
+
+    /**
+     * Called when mysqld exited by itself with a non-zero exit value while the DB was running, e.g.
+     * because it crashed or was killed; the DB is then {@link DBState#FAILED}.
+     *
+     * @param db the DB whose mysqld exited
+     * @param exitValue the exit value of mysqld
+     */
+    default void onCrash(DB db, int exitValue) {}
+
+    /**
+     * Called after an attempt to restart a crashed mysqld, see {@link
+     * DBConfigurationBuilder#setRestartOnCrash(int, Duration)}.
+     *
+     * @param db the DB which was restarted
+     * @param attempt the number of the restart in a row, from 1
+     * @param downtime how long it was down, from the crash until ready for connections again
+     * @param success false if this restart failed
+     */
+    default void onRestart(DB db, int attempt, Duration downtime, boolean success) {}
+
+    /**
+     * Called after a command was run through the mysql client, e.g. by {@link DB#run(String)}.
+     *
+     * @param db the DB the command was run on
+     * @param duration how long it took
+     * @param success false if the client failed
+     */
+    default void onRun(DB db, Duration duration, boolean success) {}
+
+    /**
+     * Called after a script was sourced through the mysql client, e.g. by {@link
+     * DB#source(String)}.
+     *
+     * @param db the DB the script was sourced into
+     * @param duration how long it took
+     * @param success false if the client failed
+     */
+    default void onSource(DB db, Duration duration, boolean success) {}
+
+    /**
+     * Called after a dump process started by e.g. {@link DB#dumpSQL(File, String, String, String)}
+     * terminated.
+     *
+     * @param db the DB which was dumped
+     * @param outputFile the file the dump was written to
+     * @param bytes size of the outputFile
+     * @param success false if mysqldump failed
+     */
+    default void onDump(DB db, File outputFile, long bytes, boolean success) {}
+
+    /**
+     * Called after {@link DBCluster#waitForReplication(DB, DB, Duration)} returned, or timed out.
+     *
+     * @param replica the DB which was waited for
+     * @param duration how long it took the replica to catch up with the primary
+     * @param success false if the replica did not catch up within the timeout
+     */
+    default void onReplicationWait(DB replica, Duration duration, boolean success) {}
+}
@@ -0,0 +1,143 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j;
+
+import ch.vorburger.exec.ManagedProcessException;
+
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Operations on many DBs running from the same binaries, see {@link DBCluster} and {@link
+ * DBShards}.
+ */
+final class DBNodes {
+
+    /** Something to do with one DB. */
+    @FunctionalInterface
+    interface Task {
+        void run(DB db) throws ManagedProcessException;
+    }
+
+    private DBNodes() {}
+
+    /**
+     * Installs a DB, and copies its freshly installed data directory to other DBs, instead of
+     * installing them too.
+     */
+    static void installAndCopy(DB template, List<DB> copies) throws ManagedProcessException {
+        template.prepareDirectories();
+        template.unpackEmbeddedDb();
+        template.install();
+        File templateDataDir = template.getConfiguration().getDataDir();
+        for (DB copy : copies) {
+            copy.prepareDirectories();
+            copy.unpackEmbeddedDb();
+            File dataDir = copy.getConfiguration().getDataDir();
+            try {
+                FileUtils.copyDirectory(
+                        templateDataDir,
+                        dataDir,
+                        file ->
+                                !file.getName().endsWith(".pid")
+                                        && !file.getName().endsWith(".sock"));
+            } catch (IOException e) {
+                throw new ManagedProcessException(
+                        "Could not copy " + templateDataDir + " to " + dataDir, e);
+            }
+        }
+    }
+
+    /**
+     * Runs a task for every DB concurrently, and waits for all of them.
+     *
+     * @throws ManagedProcessException with message, if any task failed; with the first failure as
+     *     its cause, and the others suppressed
+     */
+    static void forEach(List<DB> dbs, String threadName, String message, Task task)
+            throws ManagedProcessException {
+        ExecutorService executor =
+                Executors.newFixedThreadPool(
+                        Math.max(1, dbs.size()), Util.newThreadFactory(threadName));
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (DB db : dbs) {
+                futures.add(
+                        executor.submit(
+                                () -> {
+                                    task.run(db);
+                                    return null;
+                                }));
+            }
+            ManagedProcessException failure = null;
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = new ManagedProcessException(message, e.getCause());
+                    } else {
+                        failure.addSuppressed(e.getCause());
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ManagedProcessException(message + " (interrupted)", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Stops DBs one after the other.
+     *
+     * @throws ManagedProcessException if any DB could not be stopped; the others are stopped
+     *     nevertheless
+     */
+    static void stop(List<DB> dbs) throws ManagedProcessException {
+        ManagedProcessException failure = null;
+        for (DB db : dbs) {
+            try {
+                db.stop();
+            } catch (ManagedProcessException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,329 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j;
+
+import ch.vorburger.exec.ManagedProcessException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Independent DBs acting as shards of one logical database, all running on this host from the same
+ * binaries, e.g. for testing horizontal scaling.
+ *
+ * <p>Only the first shard is installed; the others start from copies of its freshly installed data
+ * directory, and all of them start concurrently. Keys are routed to shards through a consistent
+ * hash ring, so that tests (and applications) agree on where e.g. a tenant lives, and changing the
+ * number of shards only moves about 1/n of the keys.
+ *
+ * <p>Typical usage:
+ *
+ * <pre>
+ * DBShards shards = DBShards.newBuilder().setShards(4).build();
+ * shards.start();
+ * shards.source("schema.sql", "app"); // on every shard
+ * String url = shards.getURL("tenant42", "app");
+ * ...
+ * shards.stop();
+ * </pre>
+ */
+public class DBShards {
+
+    private static final Logger logger = LoggerFactory.getLogger(DBShards.class);
+
+    private final List<DB> shards;
+    private final ConsistentHashRing ring;
+
+    DBShards(List<DB> shards, ConsistentHashRing ring) {
+        this.shards = List.copyOf(shards);
+        this.ring = ring;
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /** Builder of {@link DBShards}. */
+    public static class Builder {
+
+        private int shards = 2;
+        private int port;
+        private int virtualNodes = ConsistentHashRing.DEFAULT_VIRTUAL_NODES;
+        private final List<String> args = new ArrayList<>();
+        private Consumer<DBConfigurationBuilder> customizer = configurationBuilder -> {};
+
+        /**
+         * Sets the number of shards; defaults to 2.
+         *
+         * @param shards the number of shards
+         * @return this
+         */
+        public Builder setShards(int shards) {
+            if (shards < 1) {
+                throw new IllegalArgumentException("shards must be at least 1: " + shards);
+            }
+            this.shards = shards;
+            return this;
+        }
+
+        /**
+         * Sets the port of the first shard; shard i then uses port + i. Defaults to 0, which uses
+         * free ports.
+         *
+         * @param port the port of the first shard, or 0
+         * @return this
+         */
+        public Builder setPort(int port) {
+            this.port = port;
+            return this;
+        }
+
+        /**
+         * Sets how many points each shard has on the hash ring; more spread the keys more evenly.
+         * Defaults to 160.
+         *
+         * @param virtualNodes points per shard
+         * @return this
+         */
+        public Builder setVirtualNodes(int virtualNodes) {
+            this.virtualNodes = virtualNodes;
+            return this;
+        }
+
+        /**
+         * Adds an argument for mysqld, for every shard.
+         *
+         * @param arg the argument
+         * @return this
+         */
+        public Builder addArg(String arg) {
+            args.add(arg);
+            return this;
+        }
+
+        /**
+         * Sets a callback which configures every shard, e.g. to set its base directory or character
+         * set. It must not set the port, data directory or socket, which differ per shard.
+         *
+         * @param customizer called with the configuration builder of every shard
+         * @return this
+         */
+        public Builder setCustomizer(Consumer<DBConfigurationBuilder> customizer) {
+            this.customizer = customizer;
+            return this;
+        }
+
+        /**
+         * Builds the shards, which are not started yet.
+         *
+         * @return new DBShards
+         */
+        public DBShards build() {
+            ConsistentHashRing ring = new ConsistentHashRing(shards, virtualNodes);
+            List<DB> dbs = new ArrayList<>();
+            for (int i = 0; i < shards; i++) {
+                DBConfigurationBuilder configurationBuilder = DBConfigurationBuilder.newBuilder();
+                customizer.accept(configurationBuilder);
+                configurationBuilder.setPort(port == 0 ? 0 : port + i);
+                for (String arg : args) {
+                    configurationBuilder.addArg(arg);
+                }
+                dbs.add(new DB(configurationBuilder.build()));
+            }
+            return new DBShards(dbs, ring);
+        }
+    }
+
+    /**
+     * Installs the first shard, seeds the others with copies of its data directory, and starts all
+     * of them concurrently.
+     *
+     * @throws ManagedProcessException if any shard could not be installed or started; the shards
+     *     which did start are stopped again
+     */
+    public synchronized void start() throws ManagedProcessException {
+        long startNanos = System.nanoTime();
+        DBNodes.installAndCopy(shards.get(0), shards.subList(1, shards.size()));
+        try {
+            DBNodes.forEach(
+                    shards, "MariaDB4j-shards-start", "Could not start the shards", DB::start);
+        } catch (ManagedProcessException e) {
+            try {
+                stop();
+            } catch (ManagedProcessException stopFailure) {
+                e.addSuppressed(stopFailure);
+            }
+            throw e;
+        }
+        logger.info(
+                "Started {} shards in {}ms",
+                shards.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+    }
+
+    /**
+     * Stops all shards.
+     *
+     * @throws ManagedProcessException if any shard could not be stopped; the others are stopped
+     *     nevertheless
+     */
+    public synchronized void stop() throws ManagedProcessException {
+        DBNodes.stop(shards);
+    }
+
+    /**
+     * Gets the index of the shard which a key is routed to.
+     *
+     * @param shardKey e.g. a tenant or customer ID
+     * @return the index of the shard, from 0
+     */
+    public int getShardIndex(String shardKey) {
+        return ring.shard(shardKey);
+    }
+
+    /**
+     * Gets the shard which a key is routed to.
+     *
+     * @param shardKey e.g. a tenant or customer ID
+     * @return the shard
+     */
+    public DB getShardFor(String shardKey) {
+        return shards.get(getShardIndex(shardKey));
+    }
+
+    /**
+     * Gets the JDBC URL of a database on the shard which a key is routed to.
+     *
+     * @param shardKey e.g. a tenant or customer ID
+     * @param databaseName the name of the database
+     * @return the URL
+     */
+    public String getURL(String shardKey, String databaseName) {
+        return getShardFor(shardKey).getConfiguration().getURL(databaseName);
+    }
+
+    /**
+     * Gets a shard by index.
+     *
+     * @param index the index of the shard, from 0
+     * @return the shard
+     */
+    public DB getShard(int index) {
+        return shards.get(index);
+    }
+
+    public List<DB> getShards() {
+        return shards;
+    }
+
+    /**
+     * Creates a database on every shard, concurrently.
+     *
+     * @param dbName the name of the database
+     * @throws ManagedProcessException if it could not be created on any shard
+     */
+    public void createDB(String dbName) throws ManagedProcessException {
+        DBNodes.forEach(
+                shards,
+                "MariaDB4j-shards-createDB",
+                "Could not create " + dbName + " on all shards",
+                db -> db.createDB(dbName));
+    }
+
+    /**
+     * Runs SQL on every shard, concurrently.
+     *
+     * @param command the SQL statement(s)
+     * @param username the username used to login to the database
+     * @param password the password used to login to the database
+     * @param dbName the name of the database (schema) to run the command in
+     * @throws ManagedProcessException if any statement failed on any shard; unlike {@link
+     *     DB#run(String, String, String, String)}, which only logs such failures
+     */
+    public void run(String command, String username, String password, String dbName)
+            throws ManagedProcessException {
+        sourceAll(command.getBytes(StandardCharsets.UTF_8), username, password, dbName);
+    }
+
+    /**
+     * Runs SQL on every shard, concurrently.
+     *
+     * @param command the SQL statement(s)
+     * @throws ManagedProcessException if any statement failed on any shard
+     */
+    public void run(String command) throws ManagedProcessException {
+        run(command, null, null, null);
+    }
+
+    /**
+     * Sources a SQL script from the classpath into every shard, concurrently.
+     *
+     * @param resource the path of a UTF-8 script on the classpath
+     * @param username the username used to login to the database
+     * @param password the password used to login to the database
+     * @param dbName the name of the database (schema) to source the script into
+     * @throws ManagedProcessException if any statement failed on any shard
+     * @throws IOException if the script could not be read
+     */
+    public void source(String resource, String username, String password, String dbName)
+            throws ManagedProcessException, IOException {
+        byte[] script;
+        try (InputStream from = getClass().getClassLoader().getResourceAsStream(resource)) {
+            if (from == null) {
+                throw new IllegalArgumentException(
+                        "Could not find script file on the classpath at: " + resource);
+            }
+            script = from.readAllBytes();
+        }
+        sourceAll(script, username, password, dbName);
+    }
+
+    /**
+     * Sources a SQL script from the classpath into every shard, concurrently.
+     *
+     * @param resource the path of a UTF-8 script on the classpath
+     * @param dbName the name of the database (schema) to source the script into
+     * @throws ManagedProcessException if any statement failed on any shard
+     * @throws IOException if the script could not be read
+     */
+    public void source(String resource, String dbName) throws ManagedProcessException, IOException {
+        source(resource, null, null, dbName);
+    }
+
+    private void sourceAll(byte[] script, String username, String password, String dbName)
+            throws ManagedProcessException {
+        DBNodes.forEach(
+                shards,
+                "MariaDB4j-shards-source",
+                "Could not run the script on all shards",
+                db ->
+                        db.sourceOrFail(
+                                new ByteArrayInputStream(script), username, password, dbName));
+    }
+}
@@ -319,6 +319,8 @@ class DBShutdownHook extends Thread implements FileVisitor<Path> {
                     "cleanupOnExit() ShutdownHook: An error occurred while stopping the database",
                     e);
         }
+        // Also if mysqld died by itself; stop() already removed it otherwise
+        db.removeCgroup();
 
         File dataDir = dataDirSupplier.get();
         if (dataDir.exists()
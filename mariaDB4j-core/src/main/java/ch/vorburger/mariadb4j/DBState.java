@@ -0,0 +1,63 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j;
+
+/**
+ * The lifecycle state of a {@link DB}, see {@link DB#getState()}.
+ *
+ * <pre>
+ * NEW -&gt; INSTALLED -&gt; STARTING -&gt; RUNNING -&gt; STOPPING -&gt; STOPPED -&gt; STARTING ...
+ *                        |  \                                 ^
+ *                        |   +--- stop() -&gt; STOPPING --------+
+ *                        +--&gt; FAILED -&gt; STARTING ...
+ * </pre>
+ */
+public enum DBState {
+
+    /** Created, but not installed yet (or installed by someone else, e.g. from a copy). */
+    NEW,
+
+    /** mysql_install_db ran successfully. */
+    INSTALLED,
+
+    /** {@link DB#start()} launched mysqld, and waits for it to accept connections. */
+    STARTING,
+
+    /** mysqld accepts connections. */
+    RUNNING,
+
+    /** {@link DB#stop()} is stopping mysqld, or cancelling a start in progress. */
+    STOPPING,
+
+    /** mysqld was stopped, and may be started again. */
+    STOPPED,
+
+    /** Installing or starting failed; the DB may be started again. */
+    FAILED;
+
+    /**
+     * Whether {@link DB#start()} may be called in this state.
+     *
+     * @return false while starting, running or stopping
+     */
+    public boolean isStartable() {
+        return this == NEW || this == INSTALLED || this == STOPPED || this == FAILED;
+    }
+}
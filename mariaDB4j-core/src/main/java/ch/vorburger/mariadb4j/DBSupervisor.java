@@ -0,0 +1,146 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j;
+
+import ch.vorburger.exec.ManagedProcessException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Restarts the mysqld of a {@link DB} after it crashed, with exponential backoff, see {@link
+ * DBConfigurationBuilder#setRestartOnCrash(int, Duration)}.
+ */
+class DBSupervisor {
+
+    private static final Logger logger = LoggerFactory.getLogger(DBSupervisor.class);
+
+    static final Duration MAX_BACKOFF = Duration.ofMinutes(1);
+
+    /** A crash after mysqld ran this long is not counted as part of a crash loop. */
+    static final Duration STABLE_AFTER = Duration.ofMinutes(1);
+
+    private final DB db;
+    private final int maxRestarts;
+    private final Duration backoff;
+
+    private ScheduledThreadPoolExecutor executor;
+    private long startedNanos = System.nanoTime();
+    private int restartsInARow;
+
+    DBSupervisor(DB db, int maxRestarts, Duration backoff) {
+        this.db = db;
+        this.maxRestarts = maxRestarts;
+        this.backoff = backoff;
+    }
+
+    /**
+     * Called when the DB started.
+     *
+     * @param restart false if started by the user, which ends a crash loop
+     */
+    synchronized void onStarted(boolean restart) {
+        startedNanos = System.nanoTime();
+        if (!restart) {
+            restartsInARow = 0;
+        }
+    }
+
+    /** Called when mysqld exited by itself while the DB was running, which is now FAILED. */
+    synchronized void onCrash() {
+        long crashNanos = System.nanoTime();
+        if (crashNanos - startedNanos >= STABLE_AFTER.toNanos()) {
+            restartsInARow = 0;
+        }
+        scheduleRestart(crashNanos);
+    }
+
+    private synchronized void scheduleRestart(long crashNanos) {
+        if (restartsInARow >= maxRestarts) {
+            logger.error(
+                    "mysqld on port {} crashed or failed to restart {} times in a row, giving up",
+                    db.getConfiguration().getPort(),
+                    restartsInARow + 1);
+            return;
+        }
+        int attempt = ++restartsInARow;
+        Duration delay = backoff(attempt);
+        logger.warn(
+                "Restarting mysqld on port {} in {}ms (attempt {} of {})",
+                db.getConfiguration().getPort(),
+                delay.toMillis(),
+                attempt,
+                maxRestarts);
+        if (executor == null) {
+            executor =
+                    new ScheduledThreadPoolExecutor(
+                            1,
+                            Util.newThreadFactory(
+                                    "MariaDB4j-supervisor-" + db.getConfiguration().getPort()));
+            executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        }
+        Future<?> unused =
+                executor.schedule(
+                        () -> restart(attempt, crashNanos), delay.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    Duration backoff(int attempt) {
+        Duration delay = backoff;
+        for (int i = 1; i < attempt && delay.compareTo(MAX_BACKOFF) < 0; i++) {
+            delay = delay.multipliedBy(2);
+        }
+        return delay.compareTo(MAX_BACKOFF) < 0 ? delay : MAX_BACKOFF;
+    }
+
+    private void restart(int attempt, long crashNanos) {
+        try {
+            // Only if still FAILED, i.e. not stopped (or restarted) by the user meanwhile
+            db.start(DBState.FAILED);
+        } catch (ManagedProcessException e) {
+            if (db.getState() != DBState.FAILED) {
+                logger.info("Not restarting mysqld, because the DB is now {}", db.getState());
+                return;
+            }
+            logger.error("Restarting mysqld failed", e);
+            db.notifyListeners(l -> l.onRestart(db, attempt, since(crashNanos), false));
+            scheduleRestart(crashNanos);
+            return;
+        }
+        logger.info("Restarted mysqld after it crashed (attempt {})", attempt);
+        db.notifyListeners(l -> l.onRestart(db, attempt, since(crashNanos), true));
+    }
+
+    /** Cancels a pending restart; called by {@link DB#stop()}. */
+    synchronized void cancel() {
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    private static Duration since(long startNanos) {
+        return Duration.ofNanos(System.nanoTime() - startNanos);
+    }
+}
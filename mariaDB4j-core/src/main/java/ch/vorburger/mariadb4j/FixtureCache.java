@@ -0,0 +1,275 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j;
+
+import ch.vorburger.exec.ManagedProcessException;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.SystemUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Cache of data directories with fixtures loaded, to skip sourcing the same SQL scripts again.
+ *
+ * <p>The first {@link #start(DB, String, Loader)} with a given key starts the DB, loads the
+ * fixtures, stops it to copy its (consistent) data directory into this cache, and starts it again.
+ * Later starts with the same key, also in other JVMs, restore that copy into the data directory
+ * before starting the DB, instead of executing any SQL. The {@link #key(DBConfiguration, String,
+ * List)} is a hash of the scripts' content, so changing a script simply misses the cache.
+ *
+ * <p>When the cache grows beyond its maximum size, the least recently used entries are deleted.
+ */
+public class FixtureCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(FixtureCache.class);
+
+    public static final long DEFAULT_MAX_SIZE = 1024L * 1024 * 1024;
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    /** Loads fixtures into a started DB, e.g. by creating a database and sourcing scripts. */
+    @FunctionalInterface
+    public interface Loader {
+        void load(DB db) throws ManagedProcessException, IOException;
+    }
+
+    private final File directory;
+    private final long maxSize;
+
+    /**
+     * Constructor.
+     *
+     * @param directory where to store the data directories; may be shared by many JVMs
+     * @param maxSize maximum total size of all entries, in bytes
+     */
+    public FixtureCache(File directory, long maxSize) {
+        this.directory = directory;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * FixtureCache in <code>java.io.tmpdir/MariaDB4j/fixtures</code>, of {@link #DEFAULT_MAX_SIZE}.
+     *
+     * @return a new FixtureCache
+     */
+    public static FixtureCache newDefault() {
+        return new FixtureCache(
+                new File(SystemUtils.JAVA_IO_TMPDIR, "MariaDB4j/fixtures"), DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Computes the key for loading scripts into a database.
+     *
+     * @param configuration the configuration of the DB, as its binaries and args affect the data
+     *     directory
+     * @param dbName name of the database the scripts are loaded into
+     * @param scripts content of the scripts, in the order in which they are run
+     * @return a hex SHA-256 hash
+     */
+    public static String key(DBConfiguration configuration, String dbName, List<byte[]> scripts) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        update(digest, configuration.getBinariesClassPathLocation());
+        update(digest, configuration.getBaseDir());
+        update(digest, configuration.getArgs());
+        update(digest, configuration.getServerOptions());
+        update(digest, configuration.getDefaultCharacterSet());
+        update(digest, dbName);
+        for (byte[] script : scripts) {
+            update(digest, script.length);
+            digest.update(script);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void update(MessageDigest digest, Object value) {
+        digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    /**
+     * Starts the DB with fixtures loaded, either restored from this cache, or by the loader (and
+     * then stored in this cache).
+     *
+     * @param db the DB, which must not be running
+     * @param key the key of the fixtures, see {@link #key(DBConfiguration, String, List)}
+     * @param loader loads the fixtures if they are not in this cache yet
+     * @throws ManagedProcessException if starting the DB or loading the fixtures failed
+     * @throws IOException if reading the scripts failed
+     */
+    public void start(DB db, String key, Loader loader)
+            throws ManagedProcessException, IOException {
+        File dataDir = db.getConfiguration().getDataDir();
+        if (restore(key, dataDir)) {
+            logger.info("Restored fixtures {} from {} into {}", key, directory, dataDir);
+            db.start();
+            return;
+        }
+        load(db, key, loader);
+    }
+
+    /**
+     * Creates and starts a DB with fixtures loaded, like {@link DB#newEmbeddedDB(DBConfiguration)}
+     * followed by {@link #start(DB, String, Loader)}; but if the fixtures are in this cache, this
+     * also skips installing the DB, as the restored data directory replaces the installed one.
+     *
+     * @param configuration the configuration of the DB
+     * @param key the key of the fixtures, see {@link #key(DBConfiguration, String, List)}
+     * @param loader loads the fixtures if they are not in this cache yet
+     * @return the started DB
+     * @throws ManagedProcessException if starting the DB or loading the fixtures failed
+     * @throws IOException if reading the scripts failed
+     */
+    public DB startEmbeddedDB(DBConfiguration configuration, String key, Loader loader)
+            throws ManagedProcessException, IOException {
+        DB db = new DB(configuration);
+        db.prepareDirectories();
+        db.unpackEmbeddedDb();
+        File dataDir = configuration.getDataDir();
+        if (restore(key, dataDir)) {
+            logger.info("Restored fixtures {} from {} into {}", key, directory, dataDir);
+            db.start();
+            return db;
+        }
+        db.install();
+        load(db, key, loader);
+        return db;
+    }
+
+    private void load(DB db, String key, Loader loader)
+            throws ManagedProcessException, IOException {
+        db.start();
+        try {
+            loader.load(db);
+        } finally {
+            db.stop();
+        }
+        try {
+            store(key, db.getConfiguration().getDataDir());
+        } catch (IOException e) {
+            // The cache only makes things faster, so don't fail
+            logger.warn("Could not store fixtures {} in {}", key, directory, e);
+        }
+        db.start();
+    }
+
+    /**
+     * Replaces dataDir with the entry for key, if there is one.
+     *
+     * @return false if there was no entry for key (or it just got evicted)
+     */
+    synchronized boolean restore(String key, File dataDir) throws IOException {
+        File entry = new File(directory, key);
+        if (!entry.isDirectory()) {
+            return false;
+        }
+        // Copy next to dataDir first, so that a failed copy leaves dataDir as it was
+        File staging = new File(dataDir.getPath() + "." + System.nanoTime() + TEMP_SUFFIX);
+        try {
+            FileUtils.copyDirectory(entry, staging);
+        } catch (IOException e) {
+            logger.warn("Could not restore fixtures {} from {}", key, directory, e);
+            FileUtils.deleteQuietly(staging);
+            return false;
+        }
+        FileUtils.deleteDirectory(dataDir);
+        Files.move(staging.toPath(), dataDir.toPath());
+        if (!entry.setLastModified(System.currentTimeMillis())) {
+            logger.debug("Could not touch {}", entry);
+        }
+        return true;
+    }
+
+    /** Copies dataDir of a stopped DB as the entry for key, and evicts entries if needed. */
+    synchronized void store(String key, File dataDir) throws IOException {
+        File entry = new File(directory, key);
+        File temp = new File(directory, key + "." + System.nanoTime() + TEMP_SUFFIX);
+        FileUtils.copyDirectory(
+                dataDir,
+                temp,
+                file ->
+                        !file.getName().endsWith(".pid")
+                                && !file.getName().endsWith(".sock")
+                                && !file.getName().equals(DB.OPTION_FILE));
+        try {
+            Files.move(temp.toPath(), entry.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            logger.info("Stored fixtures {} in {}", key, directory);
+        } catch (IOException e) {
+            FileUtils.deleteDirectory(temp);
+            if (!entry.isDirectory()) {
+                throw e;
+            }
+            // Else another JVM stored the same fixtures concurrently
+        }
+        evict(entry);
+    }
+
+    private void evict(File keep) {
+        File[] files =
+                directory.listFiles(f -> f.isDirectory() && !f.getName().endsWith(TEMP_SUFFIX));
+        if (files == null) {
+            return;
+        }
+        List<File> entries = new ArrayList<>(List.of(files));
+        entries.sort(Comparator.comparingLong(File::lastModified));
+        long total = 0;
+        for (File entry : entries) {
+            total += FileUtils.sizeOfDirectory(entry);
+        }
+        for (File entry : entries) {
+            if (total <= maxSize) {
+                break;
+            }
+            if (entry.equals(keep)) {
+                continue;
+            }
+            long size = FileUtils.sizeOfDirectory(entry);
+            if (FileUtils.deleteQuietly(entry)) {
+                logger.info("Evicted fixtures {} from {}", entry.getName(), directory);
+                total -= size;
+            }
+        }
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+}
@@ -0,0 +1,330 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j;
+
+import ch.vorburger.exec.ManagedProcessException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies SQL scripts to a {@link DB} incrementally, similar to (but much simpler than) Flyway.
+ *
+ * <p>Each schema has a <code>mariadb4j_history</code> table with the SHA-256 checksum of every
+ * script applied to it. {@link #run()} only applies scripts which are new, or whose content changed
+ * since they were applied, so re-running it on a persistent data directory is a near no-op.
+ *
+ * <p>Scripts of one schema are applied in the order in which they were added. Schemas are
+ * independent of each other, and migrated in parallel, unless declared otherwise with {@link
+ * #dependsOn(String, String...)}.
+ */
+public class MigrationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(MigrationRunner.class);
+
+    static final String HISTORY_TABLE = "mariadb4j_history";
+
+    private static final class Script {
+        final String name;
+        final byte[] content;
+
+        Script(String name, byte[] content) {
+            this.name = name;
+            this.content = content;
+        }
+    }
+
+    private final DB db;
+    private final Map<String, List<Script>> scripts = new LinkedHashMap<>();
+    private final Map<String, Set<String>> dependencies = new HashMap<>();
+    private String username;
+    private String password;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    public MigrationRunner(DB db) {
+        this.db = db;
+    }
+
+    /**
+     * Sets the credentials used to apply the scripts; not needed if security is disabled.
+     *
+     * @param username the username used to login to the database
+     * @param password the password used to login to the database
+     * @return this
+     */
+    public MigrationRunner setCredentials(String username, String password) {
+        this.username = username;
+        this.password = password;
+        return this;
+    }
+
+    /**
+     * Sets how many schemas are migrated concurrently; defaults to the number of processors.
+     *
+     * @param parallelism the maximum number of concurrently running mysql clients
+     * @return this
+     */
+    public MigrationRunner setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Adds a script.
+     *
+     * @param schema the database (schema) to apply the script to, which is created if needed
+     * @param name identifies the script in the history table
+     * @param content the SQL, in UTF-8
+     * @return this
+     */
+    public MigrationRunner addScript(String schema, String name, byte[] content) {
+        scripts.computeIfAbsent(schema, k -> new ArrayList<>()).add(new Script(name, content));
+        return this;
+    }
+
+    /**
+     * Adds a script from the classpath, identified by its path.
+     *
+     * @param schema the database (schema) to apply the script to, which is created if needed
+     * @param resource the path of a UTF-8 resource on the classpath
+     * @return this
+     * @throws IOException if the resource could not be read
+     */
+    public MigrationRunner addResource(String schema, String resource) throws IOException {
+        try (InputStream is = getClass().getClassLoader().getResourceAsStream(resource)) {
+            if (is == null) {
+                throw new IllegalArgumentException(
+                        "Could not find script file on the classpath at: " + resource);
+            }
+            return addScript(schema, resource, is.readAllBytes());
+        }
+    }
+
+    /**
+     * Adds a script file, identified by its name (without directory).
+     *
+     * @param schema the database (schema) to apply the script to, which is created if needed
+     * @param file a UTF-8 SQL file
+     * @return this
+     * @throws IOException if the file could not be read
+     */
+    public MigrationRunner addFile(String schema, File file) throws IOException {
+        return addScript(schema, file.getName(), Files.readAllBytes(file.toPath()));
+    }
+
+    /**
+     * Declares that the scripts of a schema may only run after those of other schemas, e.g. because
+     * they create views or foreign keys across schemas.
+     *
+     * @param schema the dependent schema
+     * @param otherSchemas the schemas which must be migrated first
+     * @return this
+     */
+    public MigrationRunner dependsOn(String schema, String... otherSchemas) {
+        Collections.addAll(
+                dependencies.computeIfAbsent(schema, k -> new LinkedHashSet<>()), otherSchemas);
+        return this;
+    }
+
+    /**
+     * Applies all new and changed scripts.
+     *
+     * @return names of the scripts which were applied, as schema/name
+     * @throws ManagedProcessException if a script failed; scripts of schemas depending on its
+     *     schema are then not applied, while those of other schemas still are
+     */
+    public List<String> run() throws ManagedProcessException {
+        Map<String, CompletableFuture<List<String>>> futures = new HashMap<>();
+        ExecutorService executor =
+                Executors.newFixedThreadPool(
+                        parallelism, Util.newThreadFactory("MariaDB4j-migration"));
+        try {
+            for (String schema : scripts.keySet()) {
+                // Collected from futures below
+                CompletableFuture<List<String>> unused =
+                        schedule(schema, futures, executor, new LinkedHashSet<>());
+            }
+            List<String> applied = new ArrayList<>();
+            ManagedProcessException failure = null;
+            for (String schema : scripts.keySet()) {
+                try {
+                    applied.addAll(futures.get(schema).join());
+                } catch (CompletionException e) {
+                    // Skip the failures of dependents, which just repeat their dependency's
+                    if (e.getCause() instanceof DependencyFailedException) {
+                        continue;
+                    }
+                    if (failure == null) {
+                        failure = new ManagedProcessException("Migration failed", e.getCause());
+                    } else {
+                        failure.addSuppressed(e.getCause());
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return applied;
+        } finally {
+            executor.shutdown();
+            try {
+                if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                    executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private CompletableFuture<List<String>> schedule(
+            String schema,
+            Map<String, CompletableFuture<List<String>>> futures,
+            ExecutorService executor,
+            Set<String> path) {
+        CompletableFuture<List<String>> future = futures.get(schema);
+        if (future != null) {
+            return future;
+        }
+        if (!path.add(schema)) {
+            throw new IllegalArgumentException("Cyclic schema dependencies: " + path);
+        }
+        List<CompletableFuture<?>> before = new ArrayList<>();
+        for (String dependency : dependencies.getOrDefault(schema, Set.of())) {
+            if (!scripts.containsKey(dependency)) {
+                throw new IllegalArgumentException(
+                        schema + " depends on " + dependency + ", which has no scripts");
+            }
+            before.add(schedule(dependency, futures, executor, path));
+        }
+        path.remove(schema);
+        future =
+                CompletableFuture.allOf(before.toArray(new CompletableFuture<?>[0]))
+                        .handle(
+                                (ignored, e) -> {
+                                    if (e != null) {
+                                        throw new DependencyFailedException(e);
+                                    }
+                                    return null;
+                                })
+                        .thenApplyAsync(
+                                ignored -> {
+                                    try {
+                                        return migrate(schema);
+                                    } catch (ManagedProcessException e) {
+                                        throw new CompletionException(e);
+                                    }
+                                },
+                                executor);
+        futures.put(schema, future);
+        return future;
+    }
+
+    private List<String> migrate(String schema) throws ManagedProcessException {
+        db.createDB(schema, username, password);
+        Map<String, String> history = new HashMap<>();
+        for (String[] row :
+                db.query(
+                        "CREATE TABLE IF NOT EXISTS "
+                                + HISTORY_TABLE
+                                + " (script VARCHAR(255) PRIMARY KEY, checksum CHAR(64) NOT NULL,"
+                                + " applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,"
+                                + " duration_ms BIGINT) ENGINE=InnoDB;"
+                                + " SELECT script, checksum FROM "
+                                + HISTORY_TABLE,
+                        username,
+                        password,
+                        schema)) {
+            history.put(row[0], row[1]);
+        }
+        List<String> applied = new ArrayList<>();
+        for (Script script : scripts.get(schema)) {
+            String checksum = checksum(script.content);
+            String previous = history.get(script.name);
+            if (checksum.equals(previous)) {
+                logger.debug("Skipping {}/{}, already applied", schema, script.name);
+                continue;
+            }
+            if (previous != null) {
+                logger.info("Re-applying {}/{}, which changed", schema, script.name);
+            }
+            long startNanos = System.nanoTime();
+            db.sourceOrFail(new ByteArrayInputStream(script.content), username, password, schema);
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            db.query(
+                    "REPLACE INTO "
+                            + HISTORY_TABLE
+                            + " (script, checksum, duration_ms) VALUES ('"
+                            + script.name.replace("\\", "\\\\").replace("'", "''")
+                            + "', '"
+                            + checksum
+                            + "', "
+                            + millis
+                            + ")",
+                    username,
+                    password,
+                    schema);
+            applied.add(schema + "/" + script.name);
+        }
+        return applied;
+    }
+
+    static String checksum(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class DependencyFailedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        DependencyFailedException(Throwable cause) {
+            super(cause);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.stream.Stream;
+
+/**
+ * Resource usage of the mysqld process, as read from Linux's /proc file system.
+ *
+ * <p>Values which could not be read (e.g. /proc/&lt;pid&gt;/io is not readable in some containers)
+ * are -1.
+ *
+ * @see DB#getProcessStats()
+ */
+public final class ProcessStats {
+
+    // USER_HZ; this is 100 on all Linux architectures that MariaDB4j supports
+    private static final long CLOCK_TICKS_PER_SECOND = 100;
+
+    private final long pid;
+    private final long rssBytes;
+    private final long peakRssBytes;
+    private final Duration cpuTime;
+    private final long openFileDescriptors;
+    private final long readBytes;
+    private final long writeBytes;
+
+    ProcessStats(
+            long pid,
+            long rssBytes,
+            long peakRssBytes,
+            Duration cpuTime,
+            long openFileDescriptors,
+            long readBytes,
+            long writeBytes) {
+        this.pid = pid;
+        this.rssBytes = rssBytes;
+        this.peakRssBytes = peakRssBytes;
+        this.cpuTime = cpuTime;
+        this.openFileDescriptors = openFileDescriptors;
+        this.readBytes = readBytes;
+        this.writeBytes = writeBytes;
+    }
+
+    /**
+     * Reads the current resource usage of a process.
+     *
+     * @param pid the process ID
+     * @return the ProcessStats
+     * @throws IOException if /proc/&lt;pid&gt; could not be read, e.g. because the process is gone
+     */
+    static ProcessStats read(long pid) throws IOException {
+        Path proc = Paths.get("/proc", Long.toString(pid));
+        String status = Files.readString(proc.resolve("status"), StandardCharsets.UTF_8);
+        String stat = Files.readString(proc.resolve("stat"), StandardCharsets.UTF_8);
+        String io;
+        try {
+            io = Files.readString(proc.resolve("io"), StandardCharsets.UTF_8);
+        } catch (NoSuchFileException e) {
+            throw e;
+        } catch (IOException e) {
+            // e.g. AccessDeniedException without CAP_SYS_PTRACE in some containers
+            io = "";
+        }
+        long fds;
+        try (Stream<Path> list = Files.list(proc.resolve("fd"))) {
+            fds = list.count();
+        } catch (NoSuchFileException e) {
+            throw e;
+        } catch (IOException e) {
+            fds = -1;
+        }
+        return parse(pid, status, stat, io, fds);
+    }
+
+    static ProcessStats parse(long pid, String status, String stat, String io, long fds) {
+        // Fields after the command name in parentheses (which may contain spaces)
+        String[] fields = stat.substring(stat.lastIndexOf(')') + 2).trim().split(" ", -1);
+        // utime and stime are the 14th and 15th fields, which is 11 and 12 after the ')'
+        long ticks = Long.parseLong(fields[11]) + Long.parseLong(fields[12]);
+        return new ProcessStats(
+                pid,
+                kiloBytesField(status, "VmRSS:"),
+                kiloBytesField(status, "VmHWM:"),
+                Duration.ofMillis(ticks * 1000 / CLOCK_TICKS_PER_SECOND),
+                fds,
+                field(io, "read_bytes:"),
+                field(io, "write_bytes:"));
+    }
+
+    private static long kiloBytesField(String text, String name) {
+        long kiloBytes = field(text, name);
+        return kiloBytes == -1 ? -1 : kiloBytes * 1024;
+    }
+
+    private static long field(String text, String name) {
+        for (String line : text.split("\n", -1)) {
+            if (line.startsWith(name)) {
+                String value = line.substring(name.length()).trim();
+                int space = value.indexOf(' ');
+                return Long.parseLong(space == -1 ? value : value.substring(0, space));
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Process ID.
+     *
+     * @return the PID of mysqld
+     */
+    public long getPid() {
+        return pid;
+    }
+
+    /**
+     * Current resident set size (VmRSS).
+     *
+     * @return bytes
+     */
+    public long getRssBytes() {
+        return rssBytes;
+    }
+
+    /**
+     * Peak resident set size since the process started (VmHWM).
+     *
+     * @return bytes
+     */
+    public long getPeakRssBytes() {
+        return peakRssBytes;
+    }
+
+    /**
+     * CPU time (user and system) used since the process started.
+     *
+     * @return CPU time
+     */
+    public Duration getCpuTime() {
+        return cpuTime;
+    }
+
+    /**
+     * Number of currently open file descriptors.
+     *
+     * @return count
+     */
+    public long getOpenFileDescriptors() {
+        return openFileDescriptors;
+    }
+
+    /**
+     * Bytes which this process caused to be read from storage (read_bytes).
+     *
+     * @return bytes
+     */
+    public long getReadBytes() {
+        return readBytes;
+    }
+
+    /**
+     * Bytes which this process caused to be written to storage (write_bytes).
+     *
+     * @return bytes
+     */
+    public long getWriteBytes() {
+        return writeBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "ProcessStats{pid="
+                + pid
+                + ", rss="
+                + rssBytes
+                + ", peakRss="
+                + peakRssBytes
+                + ", cpuTime="
+                + cpuTime
+                + ", openFds="
+                + openFileDescriptors
+                + ", readBytes="
+                + readBytes
+                + ", writeBytes="
+                + writeBytes
+                + "}";
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * How far a replica of a {@link DBCluster} is behind its primary.
+ *
+ * <p>Values which are unknown (e.g. seconds behind while the replica is not replicating) are -1.
+ *
+ * @see DBCluster#getLag(int)
+ */
+public final class ReplicaLag {
+
+    private final boolean running;
+    private final long secondsBehindPrimary;
+    private final long transactionsBehind;
+    private final String primaryPosition;
+    private final String replicaPosition;
+    private final String lastError;
+
+    ReplicaLag(
+            boolean running,
+            long secondsBehindPrimary,
+            long transactionsBehind,
+            String primaryPosition,
+            String replicaPosition,
+            String lastError) {
+        this.running = running;
+        this.secondsBehindPrimary = secondsBehindPrimary;
+        this.transactionsBehind = transactionsBehind;
+        this.primaryPosition = primaryPosition;
+        this.replicaPosition = replicaPosition;
+        this.lastError = lastError;
+    }
+
+    /**
+     * Parses the result of SHOW SLAVE STATUS.
+     *
+     * @param primaryPosition the primary's @@gtid_binlog_pos
+     * @param replicaPosition the replica's @@gtid_slave_pos
+     * @param slaveStatus the column names, followed by the row of the replica (if it is configured)
+     */
+    static ReplicaLag parse(
+            String primaryPosition, String replicaPosition, List<String[]> slaveStatus) {
+        Map<String, String> status = new HashMap<>();
+        if (slaveStatus.size() > 1) {
+            String[] names = slaveStatus.get(0);
+            String[] values = slaveStatus.get(1);
+            for (int i = 0; i < names.length && i < values.length; i++) {
+                status.put(names[i], values[i]);
+            }
+        }
+        String seconds = status.getOrDefault("Seconds_Behind_Master", "NULL");
+        String lastError = status.getOrDefault("Last_IO_Error", "");
+        if (lastError.isEmpty()) {
+            lastError = status.getOrDefault("Last_SQL_Error", "");
+        }
+        return new ReplicaLag(
+                "Yes".equals(status.get("Slave_IO_Running"))
+                        && "Yes".equals(status.get("Slave_SQL_Running")),
+                "NULL".equals(seconds) ? -1 : Long.parseLong(seconds),
+                transactionsBehind(primaryPosition, replicaPosition),
+                primaryPosition,
+                replicaPosition,
+                lastError);
+    }
+
+    /**
+     * Counts the transactions in one GTID position which are not in another, per replication
+     * domain.
+     *
+     * @param primaryPosition e.g. "0-1-42,1-1-7"
+     * @param replicaPosition e.g. "0-1-40"
+     * @return the number of transactions which the replica still has to apply
+     */
+    static long transactionsBehind(String primaryPosition, String replicaPosition) {
+        Map<Long, Long> applied = sequenceNumbers(replicaPosition);
+        long behind = 0;
+        for (Map.Entry<Long, Long> domain : sequenceNumbers(primaryPosition).entrySet()) {
+            behind += Math.max(0, domain.getValue() - applied.getOrDefault(domain.getKey(), 0L));
+        }
+        return behind;
+    }
+
+    /** Parses a GTID position into the sequence number per domain ID. */
+    static Map<Long, Long> sequenceNumbers(String position) {
+        Map<Long, Long> sequenceNumbers = new HashMap<>();
+        for (String gtid : position.split(",", -1)) {
+            String[] parts = gtid.trim().split("-", -1);
+            if (parts.length == 3) {
+                sequenceNumbers.put(Long.parseLong(parts[0]), Long.parseLong(parts[2]));
+            }
+        }
+        return sequenceNumbers;
+    }
+
+    /**
+     * Whether both the IO and the SQL thread of the replica are running.
+     *
+     * @return true if the replica is replicating
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Seconds_Behind_Master, i.e. the age of the event which the replica is applying.
+     *
+     * @return seconds, or -1 if unknown
+     */
+    public long getSecondsBehindPrimary() {
+        return secondsBehindPrimary;
+    }
+
+    /**
+     * Transactions which the primary committed, but the replica did not apply yet.
+     *
+     * @return count
+     */
+    public long getTransactionsBehind() {
+        return transactionsBehind;
+    }
+
+    /**
+     * The primary's @@gtid_binlog_pos.
+     *
+     * @return GTID position, which is empty before the first transaction
+     */
+    public String getPrimaryPosition() {
+        return primaryPosition;
+    }
+
+    /**
+     * The replica's @@gtid_slave_pos.
+     *
+     * @return GTID position, which is empty before the first transaction
+     */
+    public String getReplicaPosition() {
+        return replicaPosition;
+    }
+
+    /**
+     * The last error of the IO thread, or else of the SQL thread.
+     *
+     * @return the error, or an empty String
+     */
+    public String getLastError() {
+        return lastError;
+    }
+
+    @Override
+    public String toString() {
+        return "ReplicaLag{running="
+                + running
+                + ", secondsBehindPrimary="
+                + secondsBehindPrimary
+                + ", transactionsBehind="
+                + transactionsBehind
+                + ", primaryPosition="
+                + primaryPosition
+                + ", replicaPosition="
+                + replicaPosition
+                + (lastError.isEmpty() ? "" : ", lastError=" + lastError)
+                + "}";
+    }
+}
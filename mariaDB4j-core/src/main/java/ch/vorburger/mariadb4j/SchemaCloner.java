@@ -0,0 +1,391 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j;
+
+import ch.vorburger.exec.ManagedProcessBuilder;
+import ch.vorburger.exec.ManagedProcessException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Copies the tables and views of a schema into a new schema, see {@link DB#cloneSchema(String,
+ * String)}.
+ */
+class SchemaCloner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchemaCloner.class);
+
+    /** Default for the size from which InnoDB tables are copied as files, see constructor. */
+    static final long TRANSPORT_MIN_SIZE = 32L * 1024 * 1024;
+
+    // Only such schema and table names map 1:1 to directory and .ibd file names, others are encoded
+    private static final Pattern PLAIN_NAME = Pattern.compile("[A-Za-z0-9_]+");
+
+    private static final String EXPORTED = "mariadb4j-exported";
+
+    // Upper bound for how long the source tables stay locked, should this JVM die while copying
+    private static final int MAX_EXPORT_SECONDS = 600;
+
+    private final DB db;
+    private final String username;
+    private final String password;
+    private final File dataDir;
+    private final long transportMinSize;
+
+    SchemaCloner(DB db, String username, String password) {
+        this(db, username, password, TRANSPORT_MIN_SIZE);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param transportMinSize InnoDB tables at least this large (in bytes) are copied as files
+     *     instead of by INSERT ... SELECT
+     */
+    SchemaCloner(DB db, String username, String password, long transportMinSize) {
+        this.db = db;
+        this.username = username;
+        this.password = password;
+        this.dataDir = db.getConfiguration().getDataDir();
+        this.transportMinSize = transportMinSize;
+    }
+
+    void cloneSchema(String source, String target) throws ManagedProcessException {
+        long startNanos = System.nanoTime();
+        List<String> copied = new ArrayList<>();
+        List<String> transported = new ArrayList<>();
+        List<String> views = new ArrayList<>();
+        for (String[] row :
+                query(
+                        "SELECT TABLE_NAME, TABLE_TYPE, ENGINE,"
+                                + " DATA_LENGTH + INDEX_LENGTH, CREATE_OPTIONS"
+                                + " FROM information_schema.TABLES WHERE TABLE_SCHEMA = "
+                                + literal(source))) {
+            if ("VIEW".equals(row[1])) {
+                views.add(row[0]);
+            } else if (isTransportable(source, target, row)) {
+                transported.add(row[0]);
+            } else {
+                copied.add(row[0]);
+            }
+        }
+
+        StringBuilder ddl = new StringBuilder("CREATE DATABASE " + quote(target) + ";");
+        for (String table : concat(copied, transported)) {
+            ddl.append("CREATE TABLE ").append(quote(target, table));
+            ddl.append(" LIKE ").append(quote(source, table)).append(';');
+        }
+        query(ddl.toString());
+
+        ExecutorService executor =
+                Executors.newFixedThreadPool(
+                        Math.max(1, Math.min(copied.size() + 1, cpus())),
+                        Util.newThreadFactory("MariaDB4j-clone"));
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            if (!transported.isEmpty()) {
+                futures.add(executor.submit(() -> transport(source, target, transported)));
+            }
+            for (String table : copied) {
+                futures.add(executor.submit(() -> copy(source, target, table)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw new ManagedProcessException(
+                    "Cloning " + source + " into " + target + " failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ManagedProcessException("Interrupted while cloning " + source, e);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        createViews(source, target, views);
+        logger.info(
+                "Cloned {} into {} in {}ms ({} tables copied, {} transported, {} views)",
+                source,
+                target,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos),
+                copied.size(),
+                transported.size(),
+                views.size());
+    }
+
+    /**
+     * Whether a table (a row of TABLE_NAME, TABLE_TYPE, ENGINE, DATA_LENGTH + INDEX_LENGTH and
+     * CREATE_OPTIONS from information_schema.TABLES) is copied as files from the source to the
+     * target schema.
+     */
+    boolean isTransportable(String source, String target, String[] table) {
+        long size;
+        try {
+            size = Long.parseLong(table[3]);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        return size >= transportMinSize
+                && "InnoDB".equalsIgnoreCase(table[2])
+                && !table[4].toLowerCase(Locale.ROOT).contains("partitioned")
+                && PLAIN_NAME.matcher(table[0]).matches()
+                && PLAIN_NAME.matcher(source).matches()
+                && PLAIN_NAME.matcher(target).matches();
+    }
+
+    private Void copy(String source, String target, String table) throws ManagedProcessException {
+        List<String> columns = new ArrayList<>();
+        for (String[] row :
+                query(
+                        "SELECT COLUMN_NAME FROM information_schema.COLUMNS"
+                                + " WHERE TABLE_SCHEMA = "
+                                + literal(source)
+                                + " AND TABLE_NAME = "
+                                + literal(table)
+                                + " AND IS_GENERATED = 'NEVER' ORDER BY ORDINAL_POSITION")) {
+            columns.add(quote(row[0]));
+        }
+        String list = String.join(", ", columns);
+        query(
+                "SET SESSION foreign_key_checks = 0, unique_checks = 0;"
+                        + " INSERT INTO "
+                        + quote(target, table)
+                        + " ("
+                        + list
+                        + ") SELECT "
+                        + list
+                        + " FROM "
+                        + quote(source, table));
+        return null;
+    }
+
+    /**
+     * Copies the tablespace files of InnoDB tables while they are locked by FLUSH TABLES ... FOR
+     * EXPORT, which only lasts as long as that client session; so that session sleeps until the
+     * files are copied.
+     */
+    private Void transport(String source, String target, List<String> tables)
+            throws ManagedProcessException, IOException, InterruptedException {
+        StringBuilder discard = new StringBuilder();
+        StringBuilder flush = new StringBuilder("FLUSH TABLES ");
+        StringBuilder importTablespaces = new StringBuilder();
+        for (int i = 0; i < tables.size(); i++) {
+            String table = tables.get(i);
+            discard.append("ALTER TABLE ").append(quote(target, table));
+            discard.append(" DISCARD TABLESPACE;");
+            flush.append(i == 0 ? "" : ", ").append(quote(source, table));
+            importTablespaces.append("ALTER TABLE ").append(quote(target, table));
+            importTablespaces.append(" IMPORT TABLESPACE;");
+        }
+        flush.append(" FOR EXPORT;");
+        query(discard.toString());
+
+        ManagedProcessBuilder builder = db.newClientProcessBuilder(username, password, null);
+        builder.addArgument("--batch");
+        builder.addArgument("--skip-column-names");
+        builder.addArgument("--unbuffered");
+        String input =
+                flush
+                        + "SELECT '"
+                        + EXPORTED
+                        + "', CONNECTION_ID(); DO SLEEP("
+                        + MAX_EXPORT_SECONDS
+                        + ");";
+        String connectionId = null;
+        try (ClientProcess session =
+                ClientProcess.start(
+                        builder,
+                        new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)))) {
+            try {
+                // The marker line is followed by the connection ID, needed to end the session
+                String output = session.getStdout();
+                while (!output.contains(EXPORTED + "\t") || !output.endsWith("\n")) {
+                    if (!session.isAlive()) {
+                        throw new ManagedProcessException(flush + " failed");
+                    }
+                    Thread.sleep(100);
+                    output = session.getStdout();
+                }
+                connectionId =
+                        output.substring(output.indexOf(EXPORTED + "\t")).split("[\t\n]", -1)[1];
+                File from = new File(dataDir, source);
+                File to = new File(dataDir, target);
+                for (String table : tables) {
+                    for (String extension : new String[] {".ibd", ".cfg"}) {
+                        Files.copy(
+                                new File(from, table + extension).toPath(),
+                                new File(to, table + extension).toPath(),
+                                StandardCopyOption.REPLACE_EXISTING);
+                    }
+                }
+            } finally {
+                // Ends the sleep, so the session ends, which releases the locks of FLUSH TABLES FOR
+                // EXPORT
+                if (connectionId != null) {
+                    query("KILL QUERY " + Long.parseLong(connectionId.trim()));
+                } else {
+                    session.destroy();
+                }
+                session.waitForExit();
+            }
+        }
+        query(importTablespaces.toString());
+        for (String table : tables) {
+            Files.deleteIfExists(new File(new File(dataDir, target), table + ".cfg").toPath());
+        }
+        return null;
+    }
+
+    /** Creates views in dependency order, by retrying those which refer to missing views. */
+    private void createViews(String source, String target, List<String> views)
+            throws ManagedProcessException {
+        Map<String, String> definitions = new LinkedHashMap<>();
+        for (String view : views) {
+            String definition =
+                    query(
+                                    "SELECT VIEW_DEFINITION FROM information_schema.VIEWS"
+                                            + " WHERE TABLE_SCHEMA = "
+                                            + literal(source)
+                                            + " AND TABLE_NAME = "
+                                            + literal(view))
+                            .get(0)[0];
+            // Views are stored with qualified names, which must now refer to the target
+            definitions.put(view, requalify(definition, source, target));
+        }
+        ManagedProcessException lastFailure = null;
+        while (!definitions.isEmpty()) {
+            int before = definitions.size();
+            for (var it = definitions.entrySet().iterator(); it.hasNext(); ) {
+                var view = it.next();
+                try {
+                    query("CREATE VIEW " + quote(target, view.getKey()) + " AS " + view.getValue());
+                    it.remove();
+                } catch (ManagedProcessException e) {
+                    lastFailure = e;
+                }
+            }
+            if (definitions.size() == before) {
+                throw new ManagedProcessException(
+                        "Could not create views " + definitions.keySet(), lastFailure);
+            }
+        }
+    }
+
+    /**
+     * Replaces the schema of the names qualified by the source schema with the target schema, in a
+     * view definition as returned by information_schema.VIEWS. Unlike a plain text replacement,
+     * this leaves string literals, comments and unrelated identifiers alone.
+     */
+    static String requalify(String definition, String source, String target) {
+        String from = quote(source);
+        StringBuilder requalified = new StringBuilder(definition.length());
+        int i = 0;
+        while (i < definition.length()) {
+            char c = definition.charAt(i);
+            int end;
+            if (c == '`' || c == '\'' || c == '"') {
+                end = endOfQuoted(definition, i);
+            } else if (definition.startsWith("/*", i)) {
+                end = definition.indexOf("*/", i + 2);
+                end = end < 0 ? definition.length() : end + 2;
+            } else if (c == '#' || definition.startsWith("-- ", i)) {
+                end = definition.indexOf('\n', i);
+                end = end < 0 ? definition.length() : end;
+            } else {
+                requalified.append(c);
+                i++;
+                continue;
+            }
+            String token = definition.substring(i, end);
+            if (token.equals(from) && definition.startsWith(".", end)) {
+                requalified.append(quote(target));
+            } else {
+                requalified.append(token);
+            }
+            i = end;
+        }
+        return requalified.toString();
+    }
+
+    /** Index after the identifier or string literal which starts (with its quote) at start. */
+    private static int endOfQuoted(String sql, int start) {
+        char quote = sql.charAt(start);
+        int i = start + 1;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (c == '\\' && quote != '`') {
+                i += 2;
+            } else if (c == quote && sql.startsWith(String.valueOf(quote), i + 1)) {
+                // A doubled quote is part of the identifier or literal
+                i += 2;
+            } else if (c == quote) {
+                return i + 1;
+            } else {
+                i++;
+            }
+        }
+        return sql.length();
+    }
+
+    private List<String[]> query(String sql) throws ManagedProcessException {
+        return db.query(sql, username, password, null);
+    }
+
+    private static int cpus() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    private static List<String> concat(List<String> a, List<String> b) {
+        List<String> all = new ArrayList<>(a);
+        all.addAll(b);
+        return all;
+    }
+
+    static String quote(String identifier) {
+        return '`' + identifier.replace("`", "``") + '`';
+    }
+
+    static String quote(String schema, String table) {
+        return quote(schema) + '.' + quote(table);
+    }
+
+    static String literal(String value) {
+        return "'" + value.replace("\\", "\\\\").replace("'", "\\'") + "'";
+    }
+}
@@ -0,0 +1,284 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Options of mysqld, such as server system variables, by name; rendered into the option file which
+ * the {@link DB} starts mysqld with (instead of passing them as command line arguments).
+ *
+ * <p>Names are given without the leading "--", and "_" is the same as "-" (as for mysqld), so
+ * max_allowed_packet and max-allowed-packet are the same option. A null value is a flag without
+ * value, e.g. skip-grant-tables. An option may have several values, e.g. plugin-load-add, which are
+ * written as several lines, so that mysqld applies them as if they were given repeatedly.
+ */
+public final class ServerOptions {
+
+    // Values which need no quotes in an option file
+    private static final Pattern PLAIN_VALUE = Pattern.compile("[A-Za-z0-9_./:,+@%-]*");
+
+    // Values which look like short options, but are not, e.g. "-1" or "-05:00"
+    private static final Pattern NEGATIVE_VALUE = Pattern.compile("-[0-9][0-9.:]*");
+
+    private final Map<String, List<String>> options = new LinkedHashMap<>();
+
+    public ServerOptions() {}
+
+    /**
+     * Copy constructor.
+     *
+     * @param other the options to copy
+     */
+    public ServerOptions(ServerOptions other) {
+        other.options.forEach((name, values) -> options.put(name, new ArrayList<>(values)));
+    }
+
+    /**
+     * Normalizes the name of an option.
+     *
+     * @param name e.g. "--max_allowed_packet"
+     * @return e.g. "max-allowed-packet"
+     */
+    public static String name(String name) {
+        String normalized = name.startsWith("--") ? name.substring(2) : name;
+        if (normalized.isEmpty()) {
+            throw new IllegalArgumentException("Empty option name: " + name);
+        }
+        return normalized.replace('_', '-');
+    }
+
+    /**
+     * Whether a command line argument is a long option, which can be given in an option file.
+     *
+     * @param arg e.g. "--port=3306"
+     * @return true for "--name" and "--name=value"
+     */
+    public static boolean isOption(String arg) {
+        return arg.startsWith("--") && arg.length() > 2 && arg.charAt(2) != '=';
+    }
+
+    /**
+     * Sets an option, replacing all of its previous values.
+     *
+     * @param name the name of the option
+     * @param value its value, or null for a flag
+     * @return this
+     */
+    public ServerOptions set(String name, String value) {
+        List<String> values = new ArrayList<>(1);
+        values.add(value);
+        options.put(name(name), values);
+        return this;
+    }
+
+    /**
+     * Sets an option, unless it is already set.
+     *
+     * @param name the name of the option
+     * @param value its value, or null for a flag
+     * @return this
+     */
+    public ServerOptions setIfAbsent(String name, String value) {
+        if (!contains(name)) {
+            set(name, value);
+        }
+        return this;
+    }
+
+    /**
+     * Adds a value to an option, keeping its previous values.
+     *
+     * @param name the name of the option
+     * @param value its value, or null for a flag
+     * @return this
+     */
+    public ServerOptions add(String name, String value) {
+        options.computeIfAbsent(name(name), k -> new ArrayList<>(1)).add(value);
+        return this;
+    }
+
+    /**
+     * Adds command line arguments, like {@link #add(String, String)}. As on the command line, the
+     * value of an option can also be the next argument, e.g. "--character-set-server", "utf8mb4";
+     * an argument which does not start with "-" (or is a negative number or time zone offset, such
+     * as "-05:00") is taken as the value of a long option without "=" just before it.
+     *
+     * @param args e.g. "--port=3306", "--skip-grant-tables" or "--default-time-zone", "+00:00"
+     * @return the arguments which are not long options or their values, e.g. short options, which
+     *     cannot be given in an option file
+     */
+    public List<String> addArgs(List<String> args) {
+        List<String> others = new ArrayList<>();
+        for (int i = 0; i < args.size(); i++) {
+            String arg = args.get(i);
+            if (!isOption(arg)) {
+                others.add(arg);
+                continue;
+            }
+            int equals = arg.indexOf('=');
+            if (equals != -1) {
+                add(arg.substring(0, equals), arg.substring(equals + 1));
+            } else if (i + 1 < args.size() && isValue(args.get(i + 1))) {
+                add(arg, args.get(++i));
+            } else {
+                add(arg, null);
+            }
+        }
+        return others;
+    }
+
+    private static boolean isValue(String arg) {
+        return !arg.startsWith("-") || NEGATIVE_VALUE.matcher(arg).matches();
+    }
+
+    /**
+     * Sets all options of others, replacing all previous values of those options.
+     *
+     * @param others the options to set
+     * @return this
+     */
+    public ServerOptions setAll(ServerOptions others) {
+        others.options.forEach((name, values) -> options.put(name, new ArrayList<>(values)));
+        return this;
+    }
+
+    public boolean contains(String name) {
+        return options.containsKey(name(name));
+    }
+
+    /**
+     * The value of an option; if it has several, the last one, which is the one that mysqld uses
+     * (unless the option accumulates them).
+     *
+     * @param name the name of the option
+     * @return its value, or null if it is a flag or not set
+     */
+    public String get(String name) {
+        List<String> values = options.get(name(name));
+        return values == null ? null : values.get(values.size() - 1);
+    }
+
+    /**
+     * All values of an option.
+     *
+     * @param name the name of the option
+     * @return its values, or an empty list if it is not set
+     */
+    public List<String> getAll(String name) {
+        return Collections.unmodifiableList(options.getOrDefault(name(name), List.of()));
+    }
+
+    public ServerOptions remove(String name) {
+        options.remove(name(name));
+        return this;
+    }
+
+    /**
+     * The (normalized) names of all options, in the order in which they were first set.
+     *
+     * @return an unmodifiable set
+     */
+    public Set<String> names() {
+        return Collections.unmodifiableSet(options.keySet());
+    }
+
+    public boolean isEmpty() {
+        return options.isEmpty();
+    }
+
+    /**
+     * Renders these options as the [mysqld] group of an option file.
+     *
+     * @return the content of the option file
+     */
+    public String render() {
+        StringBuilder sb = new StringBuilder("# Generated by MariaDB4j\n[mysqld]\n");
+        options.forEach(
+                (name, values) -> {
+                    for (String value : values) {
+                        sb.append(name);
+                        if (value != null) {
+                            sb.append('=').append(quote(value));
+                        }
+                        sb.append('\n');
+                    }
+                });
+        return sb.toString();
+    }
+
+    /**
+     * Writes the {@link #render()} option file.
+     *
+     * @param file the option file, which is replaced if it exists
+     * @throws IOException if writing failed
+     */
+    public void write(File file) throws IOException {
+        Files.writeString(file.toPath(), render(), StandardCharsets.UTF_8);
+    }
+
+    /** Quotes a value with the escapes which mysqld unescapes when reading option files. */
+    static String quote(String value) {
+        if (!value.isEmpty() && PLAIN_VALUE.matcher(value).matches()) {
+            return value;
+        }
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '"') {
+                sb.append('\\').append(c);
+            } else if (c == '\n') {
+                sb.append("\\n");
+            } else if (c == '\r') {
+                sb.append("\\r");
+            } else if (c == '\t') {
+                sb.append("\\t");
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof ServerOptions other && options.equals(other.options);
+    }
+
+    @Override
+    public int hashCode() {
+        return options.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return render();
+    }
+}
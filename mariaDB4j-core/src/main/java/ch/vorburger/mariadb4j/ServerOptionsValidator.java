@@ -0,0 +1,223 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j;
+
+import ch.vorburger.exec.ManagedProcessBuilder;
+import ch.vorburger.exec.ManagedProcessException;
+import ch.vorburger.exec.OutputStreamLogDispatcher;
+import ch.vorburger.exec.OutputStreamType;
+
+import org.apache.commons.lang3.SystemUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.event.Level;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Checks {@link ServerOptions} against the options which mysqld lists in its <code>
+ * --verbose --help</code>, so that a typo fails right away, instead of mysqld failing to start.
+ *
+ * <p>That list is cached per mysqld binary, in memory and in <code>
+ * java.io.tmpdir/MariaDB4j/options</code>, so it is only read once per version.
+ */
+/* Intentionally package private, not public */
+final class ServerOptionsValidator {
+
+    private static final Logger logger = LoggerFactory.getLogger(ServerOptionsValidator.class);
+
+    // e.g. "  --max-allowed-packet=#" or "  -a, --ansi"
+    private static final Pattern HELP_OPTION =
+            Pattern.compile("^  (?:-\\S, )?--([A-Za-z0-9_-]+)", Pattern.MULTILINE);
+
+    // Prefixes which mysqld accepts for any option, see my_getopt.c
+    private static final String[] PREFIXES = {"skip-", "enable-", "disable-", "maximum-"};
+
+    // Options which (only) exist once a plugin is loaded, and are thus not in the help
+    private static final Set<String> PLUGIN_LOADS = Set.of("plugin-load", "plugin-load-add");
+
+    private static final Map<String, Set<String>> cache = new ConcurrentHashMap<>();
+
+    private ServerOptionsValidator() {}
+
+    /**
+     * Fails if there are options which mysqld does not know. If plugins are loaded, their options
+     * cannot be known, so unknown options are then only logged. Options with the loose- prefix are
+     * never checked, as mysqld itself ignores them if it does not know them.
+     *
+     * @param options the options to check
+     * @param executable the mysqld binary
+     * @param environment the environment to run it in, e.g. with its library path
+     * @throws ManagedProcessException if an option is unknown
+     */
+    static void validate(ServerOptions options, File executable, Map<String, String> environment)
+            throws ManagedProcessException {
+        Set<String> known = knownOptions(executable, environment);
+        if (known.isEmpty()) {
+            return;
+        }
+        List<String> unknown = unknown(options, known);
+        if (unknown.isEmpty()) {
+            return;
+        }
+        String message = "Unknown mysqld options " + unknown + " (see mysqld --verbose --help)";
+        if (options.names().stream().anyMatch(PLUGIN_LOADS::contains)) {
+            logger.warn("{}; they may be options of the loaded plugins", message);
+            return;
+        }
+        throw new ManagedProcessException(message);
+    }
+
+    static List<String> unknown(ServerOptions options, Set<String> known) {
+        List<String> unknown = new ArrayList<>();
+        for (String name : options.names()) {
+            if (!isKnown(name, known)) {
+                unknown.add(name);
+            }
+        }
+        return unknown;
+    }
+
+    private static boolean isKnown(String name, Set<String> known) {
+        if (name.startsWith("loose-") || known.contains(name)) {
+            return true;
+        }
+        for (String prefix : PREFIXES) {
+            if (name.startsWith(prefix) && known.contains(name.substring(prefix.length()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The options which a mysqld binary knows.
+     *
+     * @return the normalized option names, or an empty set if they could not be read
+     */
+    static Set<String> knownOptions(File executable, Map<String, String> environment) {
+        String key;
+        try {
+            key = key(executable);
+        } catch (IOException e) {
+            logger.warn("Cannot validate mysqld options, as {} is not readable", executable, e);
+            return Set.of();
+        }
+        Set<String> known = cache.get(key);
+        if (known != null) {
+            return known;
+        }
+        File cacheFile = new File(SystemUtils.JAVA_IO_TMPDIR, "MariaDB4j/options/" + key + ".txt");
+        try {
+            if (cacheFile.isFile()) {
+                known = Set.copyOf(Files.readAllLines(cacheFile.toPath()));
+            } else {
+                known = parseHelp(help(executable, environment));
+                store(cacheFile, known);
+            }
+        } catch (IOException e) {
+            // Including a ManagedProcessException of mysqld --help
+            logger.warn("Cannot validate mysqld options, as reading them failed", e);
+            return Set.of();
+        }
+        cache.put(key, known);
+        return known;
+    }
+
+    static Set<String> parseHelp(String help) {
+        Set<String> names = new TreeSet<>();
+        Matcher matcher = HELP_OPTION.matcher(help);
+        while (matcher.find()) {
+            names.add(ServerOptions.name(matcher.group(1)));
+        }
+        return Set.copyOf(names);
+    }
+
+    private static String help(File executable, Map<String, String> environment)
+            throws IOException {
+        ManagedProcessBuilder builder = new ManagedProcessBuilder(executable);
+        builder.getEnvironment().putAll(environment);
+        builder.addArgument("--no-defaults");
+        builder.addArgument("--verbose");
+        builder.addArgument("--help");
+        builder.setOutputStreamLogDispatcher(
+                new OutputStreamLogDispatcher() {
+                    @Override
+                    public Level dispatch(OutputStreamType type, String line) {
+                        return Level.TRACE;
+                    }
+                });
+        try (ClientProcess process = ClientProcess.start(builder, null)) {
+            int exitValue = process.waitForExit();
+            if (exitValue != 0) {
+                throw new ManagedProcessException(executable + " --help exited with " + exitValue);
+            }
+            return process.getStdout();
+        }
+    }
+
+    /** Identifies a binary by its path, size and modification time. */
+    private static String key(File executable) throws IOException {
+        File file = executable.getCanonicalFile();
+        if (!file.isFile()) {
+            throw new IOException(file + " does not exist");
+        }
+        String id = file.getPath() + '\0' + file.length() + '\0' + file.lastModified();
+        try {
+            return HexFormat.of()
+                    .formatHex(
+                            MessageDigest.getInstance("SHA-256")
+                                    .digest(id.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void store(File cacheFile, Set<String> known) {
+        try {
+            Files.createDirectories(cacheFile.getParentFile().toPath());
+            File temp = new File(cacheFile.getPath() + "." + System.nanoTime() + ".tmp");
+            Files.write(temp.toPath(), new TreeSet<>(known), StandardCharsets.UTF_8);
+            Files.move(
+                    temp.toPath(),
+                    cacheFile.toPath(),
+                    StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            // The cache only makes things faster, so don't fail
+            logger.debug("Could not store mysqld options in {}", cacheFile, e);
+        }
+    }
+}
@@ -29,7 +29,10 @@ import org.springframework.core.io.support.ResourcePatternResolver;
 
 import java.io.File;
 import java.io.IOException;
+import java.lang.reflect.Method;
 import java.net.URL;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * File utilities.
@@ -110,13 +113,16 @@ public class Util {
     /**
      * Extract files from a package on the classpath into a directory.
      *
+     * <p>This is synchronized, so that DBs which are started concurrently with the same base
+     * directory don't write its files at the same time; only the first one copies them.
+     *
      * @param packagePath e.g. "com/stuff" (always forward slash not backslash, never dot)
      * @param toDir directory to extract to
      * @return int the number of files copied
      * @throws java.io.IOException if something goes wrong, including if nothing was found on
      *     classpath
      */
-    public static int extractFromClasspathToFile(String packagePath, File toDir)
+    public static synchronized int extractFromClasspathToFile(String packagePath, File toDir)
             throws IOException {
         String locationPattern = "classpath*:" + packagePath + "/**";
         ResourcePatternResolver resourcePatternResolver = new PathMatchingResourcePatternResolver();
@@ -148,6 +154,43 @@ public class Util {
         return counter;
     }
 
+    /**
+     * Create a ThreadFactory for MariaDB4j's own background work. This uses virtual threads when
+     * running on Java 21 or later, and falls back to daemon platform threads on Java 17.
+     *
+     * @param name prefix of the name of the threads created by the returned factory
+     * @return a ThreadFactory
+     */
+    public static ThreadFactory newThreadFactory(String name) {
+        ThreadFactory virtualThreadFactory = newVirtualThreadFactory(name);
+        if (virtualThreadFactory != null) {
+            return virtualThreadFactory;
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static ThreadFactory newVirtualThreadFactory(String name) {
+        // Using reflection because we still compile with --release 17
+        try {
+            Method ofVirtual = Thread.class.getMethod("ofVirtual");
+            Object builder = ofVirtual.invoke(null);
+            Class<?> builderClass = ofVirtual.getReturnType();
+            builder =
+                    builderClass
+                            .getMethod("name", String.class, long.class)
+                            .invoke(builder, name + "-", 1L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            logger.debug("Virtual threads are not available, using platform threads", e);
+            return null;
+        }
+    }
+
     @SuppressWarnings("null")
     private static void tryN(int n, long msToWait, Procedure<IOException> procedure)
             throws IOException {
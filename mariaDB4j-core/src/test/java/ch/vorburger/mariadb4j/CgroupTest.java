@@ -0,0 +1,188 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j;
+
+import static ch.vorburger.mariadb4j.DBConfiguration.Executable.Server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+import ch.vorburger.exec.ManagedProcessBuilder;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+public class CgroupTest {
+
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path root;
+    private Path procSelfCgroup;
+    private Path own;
+
+    @Before
+    public void fakeCgroupFileSystem() throws Exception {
+        root = folder.newFolder("cgroup").toPath();
+        Files.writeString(root.resolve("cgroup.controllers"), "cpu io memory pids\n");
+        own = Files.createDirectories(root.resolve("app.slice/app.service"));
+        Files.writeString(own.resolve("cgroup.subtree_control"), "cpu\n");
+        procSelfCgroup = folder.newFile("proc-self-cgroup").toPath();
+        Files.writeString(procSelfCgroup, "0::/app.slice/app.service\n");
+    }
+
+    private DBConfigurationBuilder limited() {
+        return DBConfigurationBuilder.newBuilder()
+                .setPort(3307)
+                .setCgroupMemoryMax("512M")
+                .setCgroupCpuMax("50000 100000")
+                .setCgroupIoMax("8:0 wbps=1048576");
+    }
+
+    @Test
+    public void createsCgroupBelowOwnWithLimits() throws Exception {
+        Cgroup cgroup = Cgroup.create(limited().build(), root, procSelfCgroup).orElseThrow();
+        Path path = own.resolve("mariadb4j-3307");
+        assertEquals(path.toString(), cgroup.toString());
+        assertEquals(path.resolve("cgroup.procs").toFile(), cgroup.getProcsFile());
+        assertEquals("512M", Files.readString(path.resolve("memory.max"), US_ASCII));
+        assertEquals("50000 100000", Files.readString(path.resolve("cpu.max"), US_ASCII));
+        assertEquals("8:0 wbps=1048576", Files.readString(path.resolve("io.max"), US_ASCII));
+        // cpu was already enabled, so only the others are added
+        assertEquals(
+                "+memory +io", Files.readString(own.resolve("cgroup.subtree_control"), US_ASCII));
+    }
+
+    @Test
+    public void createsCgroupBelowConfiguredParent() throws Exception {
+        Path parent = Files.createDirectories(root.resolve("delegated"));
+        Files.writeString(parent.resolve("cgroup.subtree_control"), "cpu io memory\n");
+        DBConfiguration config =
+                DBConfigurationBuilder.newBuilder()
+                        .setPort(3308)
+                        .setCgroupMemoryMax("1G")
+                        .setCgroupParent(parent.toFile())
+                        .build();
+        Cgroup cgroup = Cgroup.create(config, root, procSelfCgroup).orElseThrow();
+        assertEquals(parent.resolve("mariadb4j-3308").toString(), cgroup.toString());
+        assertEquals("1G", Files.readString(parent.resolve("mariadb4j-3308/memory.max"), US_ASCII));
+        assertFalse(Files.exists(parent.resolve("mariadb4j-3308/cpu.max")));
+        // All controllers were already enabled, so nothing was written
+        assertEquals(
+                "cpu io memory\n",
+                Files.readString(parent.resolve("cgroup.subtree_control"), US_ASCII));
+        assertFalse(Files.exists(own.resolve("mariadb4j-3308")));
+    }
+
+    @Test
+    public void noCgroupWithoutLimits() {
+        DBConfiguration config = DBConfigurationBuilder.newBuilder().setPort(3307).build();
+        assertEquals(Optional.empty(), Cgroup.create(config, root, procSelfCgroup));
+        assertEquals(Optional.empty(), Cgroup.create(config));
+        assertFalse(Files.exists(own.resolve("mariadb4j-3307")));
+    }
+
+    @Test
+    public void fallsBackWithoutCgroupV2() throws Exception {
+        Files.delete(root.resolve("cgroup.controllers"));
+        assertEquals(Optional.empty(), Cgroup.create(limited().build(), root, procSelfCgroup));
+        assertFalse(Files.exists(own.resolve("mariadb4j-3307")));
+    }
+
+    @Test
+    public void fallsBackWithoutOwnCgroupV2() throws Exception {
+        // A cgroup v1 only /proc/self/cgroup, without the "0::" line
+        Files.writeString(procSelfCgroup, "4:memory:/app.slice\n");
+        assertEquals(Optional.empty(), Cgroup.create(limited().build(), root, procSelfCgroup));
+        assertFalse(Files.exists(own.resolve("mariadb4j-3307")));
+    }
+
+    @Test
+    public void reusesEmptyLeftoverCgroup() throws Exception {
+        Path leftover = Files.createDirectory(own.resolve("mariadb4j-3307"));
+        // Without cgroup.procs, as only on a real cgroupfs rmdir works despite interface files
+        assertTrue(Cgroup.create(limited().build(), root, procSelfCgroup).isPresent());
+        assertEquals("512M", Files.readString(leftover.resolve("memory.max"), US_ASCII));
+    }
+
+    @Test
+    public void keepsLeftoverCgroupWhichIsInUse() throws Exception {
+        Path inUse = Files.createDirectory(own.resolve("mariadb4j-3307"));
+        Files.writeString(inUse.resolve("cgroup.procs"), "4242\n4243\n");
+        assertEquals(Optional.empty(), Cgroup.create(limited().build(), root, procSelfCgroup));
+        assertEquals("4242\n4243\n", Files.readString(inUse.resolve("cgroup.procs"), US_ASCII));
+        assertFalse(Files.exists(inUse.resolve("memory.max")));
+    }
+
+    @Test
+    public void launchesThroughWrapperScript() throws Exception {
+        Cgroup cgroup = Cgroup.create(limited().build(), root, procSelfCgroup).orElseThrow();
+        DB db = new DB(limited().setExecutable(Server, "/usr/sbin/mariadbd").build());
+        ManagedProcessBuilder builder = db.newProcessBuilder(Server, cgroup);
+        assertEquals("/bin/sh", builder.getExecutable());
+        assertEquals(
+                List.of(
+                        "-c",
+                        Cgroup.LAUNCH_SCRIPT,
+                        "mysqld",
+                        cgroup.getProcsFile().getCanonicalPath(),
+                        new File("/usr/sbin/mariadbd").getCanonicalPath()),
+                builder.getArguments());
+
+        // Without a cgroup (nor CPU affinity) it is launched directly
+        assertEquals(
+                new File("/usr/sbin/mariadbd").getAbsolutePath(),
+                db.newProcessBuilder(Server, null).getExecutable());
+    }
+
+    @Test
+    public void wrapperScriptMovesItselfIntoCgroupAndExecs() throws Exception {
+        assumeTrue(new File("/bin/sh").canExecute());
+        File procs = folder.newFile("cgroup.procs");
+        File executable = new File("/bin/true");
+        assumeTrue(executable.canExecute());
+        List<String> command = new ArrayList<>();
+        command.add("/bin/sh");
+        command.add("-c");
+        command.add(Cgroup.LAUNCH_SCRIPT);
+        command.add("mysqld");
+        command.add(procs.getPath());
+        command.add(executable.getPath());
+        Process process = new ProcessBuilder(command).start();
+        assertTrue(process.waitFor(10, TimeUnit.SECONDS));
+        assertEquals(0, process.exitValue());
+        // The PID written by the shell is the one of the exec'd process
+        assertEquals(
+                Long.toString(process.pid()), Files.readString(procs.toPath(), US_ASCII).trim());
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import ch.vorburger.exec.ManagedProcess;
+import ch.vorburger.exec.ManagedProcessBuilder;
+import ch.vorburger.exec.ManagedProcessListener;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+public class ClientProcessTest {
+
+    @Before
+    public void needsShell() {
+        assumeTrue(new File("/bin/sh").canExecute());
+    }
+
+    private static ManagedProcessBuilder shell(String script) throws Exception {
+        ManagedProcessBuilder builder = new ManagedProcessBuilder("/bin/sh");
+        builder.addArgument("-c");
+        builder.addArgument(script, false);
+        return builder;
+    }
+
+    @Test
+    public void redirectsStreamsAndNotifiesListener() throws Exception {
+        List<String> events = new CopyOnWriteArrayList<>();
+        ManagedProcessBuilder builder = shell("cat; echo oops >&2; exit 3");
+        builder.setProcessListener(
+                new ManagedProcessListener() {
+                    @Override
+                    public void onProcessComplete(int exitValue) {
+                        events.add("complete " + exitValue);
+                    }
+
+                    @Override
+                    public void onProcessFailed(int exitValue, Throwable throwable) {
+                        events.add("failed " + exitValue);
+                    }
+                });
+        try (ClientProcess process =
+                ClientProcess.start(builder, new ByteArrayInputStream("hello\n".getBytes(UTF_8)))) {
+            assertEquals(3, process.waitForExit());
+            assertEquals(3, process.waitForExit());
+            assertEquals("hello\n", process.getStdout());
+        }
+        assertEquals(List.of("failed 3"), events);
+
+        ManagedProcessBuilder env = shell("echo $MARIADB4J_TEST");
+        env.getEnvironment().put("MARIADB4J_TEST", "x");
+        try (ClientProcess process = ClientProcess.start(env, null)) {
+            assertEquals(0, process.waitForExit());
+            assertEquals("x\n", process.getStdout());
+        }
+        // Without input, stdin is at its end right away
+        try (ClientProcess process = ClientProcess.start(builder, null)) {
+            assertEquals(3, process.waitForExit());
+            assertEquals("", process.getStdout());
+        }
+    }
+
+    @Test
+    public void needsNoThreadsOfItsOwn() throws Exception {
+        Set<Thread> before = Thread.getAllStackTraces().keySet();
+        try (ClientProcess process = ClientProcess.start(shell("sleep 1"), null)) {
+            assertTrue(process.isAlive());
+            // Only the JDK's reaper, which waits for each process anyway
+            assertEquals(Set.of(), newThreads(before));
+            assertEquals(0, process.waitForExit());
+        }
+
+        // Whereas a ManagedProcess pumps and waits on platform threads of commons-exec
+        ManagedProcess process = shell("sleep 1").build();
+        process.start();
+        try {
+            assertTrue(newThreads(before).toString(), newThreads(before).size() >= 2);
+        } finally {
+            process.waitForExit();
+        }
+    }
+
+    private static Set<String> newThreads(Set<Thread> before) {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> !before.contains(thread))
+                .map(Thread::getName)
+                .filter(name -> !name.startsWith("process reaper"))
+                .collect(Collectors.toSet());
+    }
+}
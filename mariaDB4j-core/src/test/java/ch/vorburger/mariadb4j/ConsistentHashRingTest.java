@@ -0,0 +1,70 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class ConsistentHashRingTest {
+
+    private static final int KEYS = 10_000;
+
+    @Test
+    public void routesKeysDeterministically() {
+        ConsistentHashRing ring = new ConsistentHashRing(4, 160);
+        ConsistentHashRing other = new ConsistentHashRing(4, 160);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(ring.shard("tenant" + i), other.shard("tenant" + i));
+        }
+        assertEquals(0, new ConsistentHashRing(1, 1).shard("anything"));
+    }
+
+    @Test
+    public void spreadsKeysEvenly() {
+        int[] counts = new int[4];
+        ConsistentHashRing ring = new ConsistentHashRing(counts.length, 160);
+        for (int i = 0; i < KEYS; i++) {
+            counts[ring.shard("tenant" + i)]++;
+        }
+        for (int count : counts) {
+            // Expected 2500 each
+            assertTrue("Uneven: " + count, count > 1800 && count < 3200);
+        }
+    }
+
+    @Test
+    public void addingShardOnlyMovesKeysToIt() {
+        ConsistentHashRing four = new ConsistentHashRing(4, 160);
+        ConsistentHashRing five = new ConsistentHashRing(5, 160);
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            int before = four.shard("tenant" + i);
+            int after = five.shard("tenant" + i);
+            if (before != after) {
+                assertEquals(4, after);
+                moved++;
+            }
+        }
+        // Expected 1/5 of the keys
+        assertTrue("Moved: " + moved, moved > 1400 && moved < 2600);
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.List;
+
+public class CpuSpreaderTest {
+
+    @Test
+    public void parseAndFormatCpuList() {
+        assertEquals(List.of(0, 1, 2, 3, 8, 10, 11), CpuAffinity.parse("0-3,8,10-11\n"));
+        assertEquals("0-3,8,10-11", CpuAffinity.format(List.of(0, 1, 2, 3, 8, 10, 11)));
+    }
+
+    @Test
+    public void spreadsAcrossNumaNodes() {
+        CpuSpreader spreader =
+                new CpuSpreader(
+                        List.of(CpuAffinity.parse("0-4"), List.of(), CpuAffinity.parse("8-11")), 2);
+        // The remaining CPU 4 goes to the last slot of node 0
+        assertEquals(List.of("0-1", "8-9", "2-4", "10-11"), spreader.getSlots());
+
+        DBConfiguration first = spreader.assign(DBConfigurationBuilder.newBuilder()).build();
+        assertEquals("0-1", first.getCpuAffinity());
+        assertEquals(0, first.getNumaNode());
+        DBConfiguration second = spreader.assign(DBConfigurationBuilder.newBuilder()).build();
+        assertEquals("8-9", second.getCpuAffinity());
+        assertEquals(2, second.getNumaNode());
+
+        spreader.release(first);
+        assertEquals("0-1", spreader.assign(DBConfigurationBuilder.newBuilder()).getCpuAffinity());
+    }
+}
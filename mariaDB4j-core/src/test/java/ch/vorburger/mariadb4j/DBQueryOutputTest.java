@@ -0,0 +1,50 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.List;
+
+public class DBQueryOutputTest {
+
+    @Test
+    public void parseBatchOutput() {
+        List<String[]> rows = DB.parseBatchOutput("Questions\t42\nVersion\t11.4.5-MariaDB\n");
+        assertEquals(2, rows.size());
+        assertArrayEquals(new String[] {"Questions", "42"}, rows.get(0));
+        assertArrayEquals(new String[] {"Version", "11.4.5-MariaDB"}, rows.get(1));
+    }
+
+    @Test
+    public void parseBatchOutputWithEscapesAndEmptyColumns() {
+        List<String[]> rows = DB.parseBatchOutput("a\\tb\t\tNULL\tc\\nd\\\\e\n");
+        assertEquals(1, rows.size());
+        assertArrayEquals(new String[] {"a\tb", "", "NULL", "c\nd\\e"}, rows.get(0));
+    }
+
+    @Test
+    public void parseEmptyBatchOutput() {
+        assertEquals(0, DB.parseBatchOutput("").size());
+    }
+}
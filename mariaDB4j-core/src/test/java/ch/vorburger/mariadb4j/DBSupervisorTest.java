@@ -0,0 +1,39 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.time.Duration;
+
+public class DBSupervisorTest {
+
+    @Test
+    public void backoffDoublesUpToMaximum() {
+        DBSupervisor supervisor = new DBSupervisor(null, 10, Duration.ofMillis(500));
+        assertEquals(Duration.ofMillis(500), supervisor.backoff(1));
+        assertEquals(Duration.ofSeconds(1), supervisor.backoff(2));
+        assertEquals(Duration.ofSeconds(4), supervisor.backoff(4));
+        assertEquals(DBSupervisor.MAX_BACKOFF, supervisor.backoff(8));
+        assertEquals(DBSupervisor.MAX_BACKOFF, supervisor.backoff(1000));
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+public class FixtureCacheTest {
+
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void keyDependsOnScriptContent() {
+        DBConfiguration config = DBConfigurationBuilder.newBuilder().build();
+        String key = FixtureCache.key(config, "db", List.of("a".getBytes(UTF_8)));
+        assertEquals(key, FixtureCache.key(config, "db", List.of("a".getBytes(UTF_8))));
+        assertNotEquals(key, FixtureCache.key(config, "db", List.of("b".getBytes(UTF_8))));
+        assertNotEquals(key, FixtureCache.key(config, "other", List.of("a".getBytes(UTF_8))));
+    }
+
+    @Test
+    public void restoresStoredDataDir() throws IOException {
+        FixtureCache cache = new FixtureCache(folder.newFolder("cache"), 1024);
+        File dataDir = folder.newFolder("data");
+        write(new File(dataDir, "ibdata1"), "fixtures");
+        write(new File(dataDir, "mysqld.pid"), "42");
+        assertFalse(cache.restore("k", dataDir));
+        cache.store("k", dataDir);
+
+        write(new File(dataDir, "ibdata1"), "changed");
+        assertTrue(cache.restore("k", dataDir));
+        assertEquals("fixtures", Files.readString(new File(dataDir, "ibdata1").toPath()));
+        assertFalse(new File(dataDir, "mysqld.pid").exists());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() throws IOException {
+        File directory = folder.newFolder("cache");
+        FixtureCache cache = new FixtureCache(directory, 150);
+        File dataDir = folder.newFolder("data");
+        write(new File(dataDir, "ibdata1"), "x".repeat(100));
+
+        cache.store("old", dataDir);
+        assertTrue(new File(directory, "old").setLastModified(1000));
+        cache.store("new", dataDir);
+
+        assertFalse(new File(directory, "old").exists());
+        assertTrue(new File(directory, "new").exists());
+    }
+
+    private static void write(File file, String content) throws IOException {
+        Files.writeString(file.toPath(), content);
+    }
+}
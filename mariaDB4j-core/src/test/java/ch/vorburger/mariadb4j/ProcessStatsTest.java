@@ -0,0 +1,67 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import org.apache.commons.lang3.SystemUtils;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+
+public class ProcessStatsTest {
+
+    @Test
+    public void parse() {
+        String status = "Name:\tmariadbd\nVmHWM:\t  204800 kB\nVmRSS:\t  102400 kB\nThreads:\t9\n";
+        String stat =
+                "4242 (mariadbd x) S 1 4242 4242 0 -1 4194560 9000 0 12 0 250 50 0 0 20 0 9 0";
+        String io = "rchar: 1\nwchar: 2\nread_bytes: 4096\nwrite_bytes: 8192\n";
+        ProcessStats stats = ProcessStats.parse(4242, status, stat, io, 17);
+        assertEquals(4242, stats.getPid());
+        assertEquals(102400L * 1024, stats.getRssBytes());
+        assertEquals(204800L * 1024, stats.getPeakRssBytes());
+        assertEquals(Duration.ofSeconds(3), stats.getCpuTime());
+        assertEquals(17, stats.getOpenFileDescriptors());
+        assertEquals(4096, stats.getReadBytes());
+        assertEquals(8192, stats.getWriteBytes());
+    }
+
+    @Test
+    public void parseWithoutIO() {
+        ProcessStats stats =
+                ProcessStats.parse(1, "VmRSS:\t1 kB\n", "1 (a) S 0 0 0 0 0 0 0 0 0 0 0 0", "", -1);
+        assertEquals(1024, stats.getRssBytes());
+        assertEquals(-1, stats.getPeakRssBytes());
+        assertEquals(-1, stats.getReadBytes());
+    }
+
+    @Test
+    public void readSelf() throws IOException {
+        assumeTrue(SystemUtils.IS_OS_LINUX);
+        ProcessStats stats = ProcessStats.read(ProcessHandle.current().pid());
+        assertTrue(stats.getRssBytes() > 0);
+        assertTrue(stats.getPeakRssBytes() >= stats.getRssBytes());
+        assertTrue(stats.getOpenFileDescriptors() > 0);
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.List;
+
+public class ReplicaLagTest {
+
+    @Test
+    public void transactionsBehindPerDomain() {
+        assertEquals(0, ReplicaLag.transactionsBehind("", ""));
+        assertEquals(42, ReplicaLag.transactionsBehind("0-1-42", ""));
+        assertEquals(2, ReplicaLag.transactionsBehind("0-1-42", "0-1-40"));
+        assertEquals(7, ReplicaLag.transactionsBehind("0-1-42,1-1-7", "0-1-42"));
+        assertEquals(0, ReplicaLag.transactionsBehind("0-1-40", "0-1-42"));
+    }
+
+    @Test
+    public void parseSlaveStatus() {
+        ReplicaLag lag =
+                ReplicaLag.parse(
+                        "0-1-5",
+                        "0-1-3",
+                        List.of(
+                                new String[] {
+                                    "Slave_IO_Running",
+                                    "Slave_SQL_Running",
+                                    "Last_IO_Error",
+                                    "Seconds_Behind_Master"
+                                },
+                                new String[] {"Yes", "Yes", "", "1"}));
+        assertTrue(lag.isRunning());
+        assertEquals(1, lag.getSecondsBehindPrimary());
+        assertEquals(2, lag.getTransactionsBehind());
+        assertEquals("", lag.getLastError());
+    }
+
+    @Test
+    public void parseMissingSlaveStatus() {
+        ReplicaLag lag = ReplicaLag.parse("", "", List.of());
+        assertFalse(lag.isRunning());
+        assertEquals(-1, lag.getSecondsBehindPrimary());
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class SchemaClonerTest {
+
+    @Test
+    public void requalifiesOnlyIdentifiers() {
+        assertEquals(
+                "select `copy`.`t`.`id` AS `id` from `copy`.`t`",
+                SchemaCloner.requalify(
+                        "select `golden`.`t`.`id` AS `id` from `golden`.`t`", "golden", "copy"));
+        // Neither in string literals, nor comments, nor other identifiers, nor without a dot
+        String untouched =
+                """
+                select '`golden`.x' AS `s`, 'it''s `golden`.' AS `q`, "\\"`golden`." AS `d`, \
+                `golden` AS `golden`, `x``golden`.`y` /* `golden`.t */ from `other`.`t` \
+                # `golden`.t
+                """;
+        assertEquals(untouched, SchemaCloner.requalify(untouched, "golden", "copy"));
+        assertEquals(
+                "select `we``ird`.`t`.`a` from `we``ird`.`t` where `s` = '`a``b`.'",
+                SchemaCloner.requalify(
+                        "select `a``b`.`t`.`a` from `a``b`.`t` where `s` = '`a``b`.'",
+                        "a`b",
+                        "we`ird"));
+    }
+
+    @Test
+    public void transportsLargeInnoDBTables() {
+        DB db = new DB(DBConfigurationBuilder.newBuilder().build());
+        SchemaCloner cloner = new SchemaCloner(db, null, null, 1000);
+        assertTrue(
+                cloner.isTransportable(
+                        "a", "b", new String[] {"t", "BASE TABLE", "InnoDB", "1000", ""}));
+        assertFalse(
+                cloner.isTransportable(
+                        "a", "b", new String[] {"t", "BASE TABLE", "InnoDB", "999", ""}));
+        assertFalse(
+                cloner.isTransportable(
+                        "a", "b", new String[] {"t", "BASE TABLE", "MyISAM", "1000", ""}));
+        assertFalse(
+                cloner.isTransportable(
+                        "a",
+                        "b",
+                        new String[] {"t", "BASE TABLE", "InnoDB", "1000", "partitioned"}));
+        assertFalse(
+                cloner.isTransportable(
+                        "a", "b", new String[] {"t-1", "BASE TABLE", "InnoDB", "1000", ""}));
+        assertFalse(
+                cloner.isTransportable(
+                        "a", "b", new String[] {"t", "BASE TABLE", "InnoDB", "NULL", ""}));
+        // Schema names like these are encoded in the names of their directories
+        assertFalse(
+                cloner.isTransportable(
+                        "a-1", "b", new String[] {"t", "BASE TABLE", "InnoDB", "1000", ""}));
+        assertFalse(
+                cloner.isTransportable(
+                        "a", "b-1", new String[] {"t", "BASE TABLE", "InnoDB", "1000", ""}));
+        assertFalse(
+                new SchemaCloner(db, null, null)
+                        .isTransportable(
+                                "a",
+                                "b",
+                                new String[] {"t", "BASE TABLE", "InnoDB", "1048576", ""}));
+    }
+}
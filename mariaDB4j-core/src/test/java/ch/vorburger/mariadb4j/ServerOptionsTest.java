@@ -0,0 +1,114 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.List;
+
+public class ServerOptionsTest {
+
+    @Test
+    public void namesAreNormalized() {
+        ServerOptions options = new ServerOptions();
+        assertEquals(
+                List.of("-u"),
+                options.addArgs(List.of("--max_allowed_packet=16M", "--skip-grant-tables", "-u")));
+        assertTrue(options.contains("max-allowed-packet"));
+        assertTrue(options.contains("--max_allowed_packet"));
+        assertEquals("16M", options.get("max_allowed_packet"));
+        assertNull(options.get("skip-grant-tables"));
+        assertTrue(options.contains("skip_grant_tables"));
+    }
+
+    @Test
+    public void valuesCanBeSeparateArgs() {
+        ServerOptions options = new ServerOptions();
+        List<String> others =
+                options.addArgs(
+                        List.of(
+                                "--character-set-server",
+                                "utf8mb4",
+                                "--default-time-zone",
+                                "-05:00",
+                                "--skip-grant-tables",
+                                "-v",
+                                "--port",
+                                "3307"));
+        assertEquals(List.of("-v"), others);
+        assertEquals("utf8mb4", options.get("character-set-server"));
+        assertEquals("-05:00", options.get("default-time-zone"));
+        assertNull(options.get("skip-grant-tables"));
+        assertTrue(options.contains("skip-grant-tables"));
+        assertEquals("3307", options.get("port"));
+        assertFalse(options.render().contains("character-set-server\n"));
+    }
+
+    @Test
+    public void repeatedArgsKeepAllValues() {
+        ServerOptions options = new ServerOptions();
+        options.addArgs(List.of("--plugin-load-add=a", "--plugin-load-add", "b"));
+        assertEquals(List.of("a", "b"), options.getAll("plugin-load-add"));
+        assertEquals("b", options.get("plugin-load-add"));
+        options.set("plugin-load-add", "c");
+        assertEquals(List.of("c"), options.getAll("plugin-load-add"));
+    }
+
+    @Test
+    public void rendersOptionFile() {
+        ServerOptions options =
+                new ServerOptions()
+                        .set("console", null)
+                        .set("port", "3307")
+                        .set("datadir", "C:\\My Data\\db")
+                        .set("init-connect", "SET NAMES utf8mb4 # \"x\"");
+        options.setAll(new ServerOptions().set("port", "3308"));
+        assertEquals(
+                """
+                # Generated by MariaDB4j
+                [mysqld]
+                console
+                port=3308
+                datadir="C:\\\\My Data\\\\db"
+                init-connect="SET NAMES utf8mb4 # \\\"x\\\""
+                """,
+                options.render());
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void hasArgumentSeesArgsAndServerOptions() {
+        DB db =
+                new DB(
+                        DBConfigurationBuilder.newBuilder()
+                                .addArg("--character-set-server=utf8mb4")
+                                .setServerOption("max_allowed_packet", "16M")
+                                .build()) {};
+        assertTrue(db.hasArgument("--character-set-server"));
+        assertTrue(db.hasArgument("--character-set-server="));
+        assertTrue(db.hasArgument("--max-allowed-packet"));
+        assertFalse(db.hasArgument("--skip-grant-tables"));
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Set;
+
+public class ServerOptionsValidatorTest {
+
+    private static final String HELP =
+            """
+            The following options may be given as the first argument:
+            --no-defaults             Don't read default options from any option file.
+
+              -a, --ansi          Use ANSI SQL syntax instead of MySQL syntax.
+              --innodb-buffer-pool-size=#
+                                  The size of the memory buffer InnoDB uses to cache
+                                  data and indexes of its tables.
+              --log-bin[=name]    Log update queries in binary format.
+
+            Variables (--variable-name=value)
+            innodb-buffer-pool-size                                      134217728
+            """;
+
+    @Test
+    public void parsesHelp() {
+        assertEquals(
+                Set.of("ansi", "innodb-buffer-pool-size", "log-bin"),
+                ServerOptionsValidator.parseHelp(HELP));
+    }
+
+    @Test
+    public void findsUnknownOptions() {
+        Set<String> known = ServerOptionsValidator.parseHelp(HELP);
+        ServerOptions options =
+                new ServerOptions()
+                        .set("innodb_buffer_pool_size", "16M")
+                        .set("skip-log-bin", null)
+                        .set("loose-rocksdb-block-size", "4096")
+                        .set("innodb-bufer-pool-size", "16M");
+        assertEquals(
+                List.of("innodb-bufer-pool-size"), ServerOptionsValidator.unknown(options, known));
+        assertTrue(ServerOptionsValidator.unknown(new ServerOptions(), known).isEmpty());
+    }
+}
@@ -19,20 +19,31 @@
  */
 package ch.vorburger.mariadb4j.junit;
 
+import ch.vorburger.exec.ManagedProcess;
 import ch.vorburger.exec.ManagedProcessException;
 import ch.vorburger.mariadb4j.DB;
 import ch.vorburger.mariadb4j.DBConfiguration;
 import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+import ch.vorburger.mariadb4j.FixtureCache;
 
 import org.apache.commons.lang3.StringUtils;
 import org.junit.rules.ExternalResource;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.List;
+
 public class MariaDB4jRule extends ExternalResource {
 
     private DB db;
     private final String dbName;
     private final String resource;
     private final DBConfiguration dbConfiguration;
+    private File snapshot;
+    private FixtureCache fixtureCache;
 
     public MariaDB4jRule(DBConfiguration dbConfiguration, String dbName, String resource) {
         this.dbConfiguration = dbConfiguration;
@@ -44,11 +55,49 @@ public class MariaDB4jRule extends ExternalResource {
         this(DBConfigurationBuilder.newBuilder().setPort(port).build(), "", null);
     }
 
+    /**
+     * Restores the database from a {@link FixtureCache} instead of sourcing the resource, if the
+     * same resource was sourced before. Subclasses which override {@link #initDB()} should not use
+     * this, as the cache key only covers the dbName and the content of the resource.
+     *
+     * @param fixtureCache the cache, e.g. {@link FixtureCache#newDefault()}
+     * @return this
+     */
+    public MariaDB4jRule setFixtureCache(FixtureCache fixtureCache) {
+        this.fixtureCache = fixtureCache;
+        return this;
+    }
+
     @Override
     protected void before() throws Throwable {
-        db = DB.newEmbeddedDB(dbConfiguration);
-        db.start();
-        initDB();
+        if (fixtureCache != null
+                && !StringUtils.isEmpty(dbName)
+                && !StringUtils.isEmpty(resource)) {
+            String key = FixtureCache.key(dbConfiguration, dbName, List.of(readResource()));
+            // On a hit, this also skips installing the DB
+            db =
+                    fixtureCache.startEmbeddedDB(
+                            dbConfiguration,
+                            key,
+                            started -> {
+                                db = started;
+                                initDB();
+                            });
+        } else {
+            db = DB.newEmbeddedDB(dbConfiguration);
+            db.start();
+            initDB();
+        }
+    }
+
+    private byte[] readResource() throws IOException {
+        try (InputStream is = getClass().getClassLoader().getResourceAsStream(resource)) {
+            if (is == null) {
+                throw new IllegalArgumentException(
+                        "Could not find script file on the classpath at: " + resource);
+            }
+            return is.readAllBytes();
+        }
     }
 
     protected void initDB() throws ManagedProcessException {
@@ -58,15 +107,72 @@ public class MariaDB4jRule extends ExternalResource {
         }
     }
 
+    /**
+     * Creates a rule which runs each test inside a transaction that is rolled back afterwards,
+     * instead of re-sourcing the fixtures for every test. Use this MariaDB4jRule as a @ClassRule,
+     * and the returned rule as a @Rule; tests must use its {@link
+     * MariaDB4jTransactionRule#getConnection()} or {@link
+     * MariaDB4jTransactionRule#getDataSource()}.
+     *
+     * @return a new MariaDB4jTransactionRule for the database of this rule
+     */
+    public MariaDB4jTransactionRule newTransactionRule() {
+        return new MariaDB4jTransactionRule(this);
+    }
+
+    /**
+     * Dumps the database, to later {@link #restoreSnapshot(String, String)}; does nothing if there
+     * already is a snapshot.
+     */
+    synchronized void snapshot(String username, String password)
+            throws IOException, ManagedProcessException {
+        if (snapshot != null) {
+            return;
+        }
+        File file = Files.createTempFile("mariaDB4j-snapshot-" + dbName, ".sql").toFile();
+        file.deleteOnExit();
+        ManagedProcess dump = db.dumpSQL(file, dbName, username, password);
+        dump.start();
+        if (dump.waitForExit() != 0) {
+            throw new ManagedProcessException("mysqldump of " + dbName + " failed");
+        }
+        snapshot = file;
+    }
+
+    /** Drops the database, and re-creates it from the {@link #snapshot(String, String)}. */
+    synchronized void restoreSnapshot(String username, String password)
+            throws IOException, ManagedProcessException {
+        db.run("DROP DATABASE IF EXISTS `" + dbName + "`", username, password);
+        db.createDB(dbName, username, password);
+        try (InputStream is = new FileInputStream(snapshot)) {
+            db.source(is, username, password, dbName);
+        }
+    }
+
     @Override
     protected void after() {
         try {
             db.stop();
         } catch (ManagedProcessException e) {
             throw new AssertionError("db.stop() failed", e);
+        } finally {
+            deleteSnapshot();
         }
     }
 
+    private synchronized void deleteSnapshot() {
+        if (snapshot != null) {
+            if (!snapshot.delete()) {
+                snapshot.deleteOnExit();
+            }
+            snapshot = null;
+        }
+    }
+
+    String getDBName() {
+        return dbName;
+    }
+
     public String getURL() {
         return dbConfiguration.getURL(dbName);
     }
@@ -0,0 +1,316 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j.junit;
+
+import org.junit.rules.ExternalResource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+/**
+ * Runs each test inside a transaction on the database of a {@link MariaDB4jRule}, and rolls it back
+ * after the test, so that the fixtures only have to be sourced once per test class.
+ *
+ * <pre>
+ * &#64;ClassRule public static MariaDB4jRule dbRule = new MariaDB4jRule(config, "db", "init.sql");
+ * &#64;Rule public MariaDB4jTransactionRule tx = dbRule.newTransactionRule();
+ * </pre>
+ *
+ * <p>Tests must use the {@link #getConnection()} or {@link #getDataSource()} of this rule; they
+ * hand out the same connection, on which commit(), setAutoCommit() and close() do nothing.
+ *
+ * <p>A rollback cannot undo DDL (which implicitly commits) nor changes to tables of
+ * non-transactional engines such as MyISAM, Aria or MEMORY. This rule therefore compares the
+ * schema, and the CHECKSUM TABLE of all non-InnoDB tables, before and after each test; if they
+ * differ, it restores the database from a dump taken before the first test, which is slower but
+ * still correct.
+ *
+ * <p>Statements can also commit the transaction bypassing the Connection, e.g. an SQL COMMIT, START
+ * TRANSACTION, LOCK TABLES, GRANT or SET autocommit=1. To notice that, each test's transaction
+ * begins with an insert into a temporary table of the rule's session, which only survives the
+ * rollback if something committed it; the database is then also restored.
+ */
+public class MariaDB4jTransactionRule extends ExternalResource {
+
+    private static final Logger logger = LoggerFactory.getLogger(MariaDB4jTransactionRule.class);
+
+    // InnoDB, so that its row is rolled back, or committed, with the test's changes
+    private static final String MARKER_TABLE = "mariadb4j_transaction_marker";
+
+    private final MariaDB4jRule dbRule;
+    private String username = "root";
+    private String password = "";
+
+    private Connection connection;
+    private Connection boundConnection;
+    private List<String> fingerprint;
+
+    MariaDB4jTransactionRule(MariaDB4jRule dbRule) {
+        this.dbRule = dbRule;
+    }
+
+    /**
+     * Sets the credentials used to connect; defaults to root without password.
+     *
+     * @param username the username used to login to the database
+     * @param password the password used to login to the database
+     * @return this
+     */
+    public MariaDB4jTransactionRule setCredentials(String username, String password) {
+        this.username = username;
+        this.password = password;
+        return this;
+    }
+
+    @Override
+    protected void before() throws Throwable {
+        dbRule.snapshot(username, password);
+        connection = DriverManager.getConnection(dbRule.getURL(), username, password);
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute(
+                    "CREATE TEMPORARY TABLE "
+                            + MARKER_TABLE
+                            + " (id INT PRIMARY KEY) ENGINE=InnoDB");
+        }
+        fingerprint = fingerprint(connection, dbRule.getDBName());
+        connection.setAutoCommit(false);
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("INSERT INTO " + MARKER_TABLE + " VALUES (1)");
+        }
+        boundConnection = bind(connection);
+    }
+
+    @Override
+    protected void after() {
+        try {
+            connection.rollback();
+            connection.setAutoCommit(true);
+            List<String> after = fingerprint(connection, dbRule.getDBName());
+            String committed = committed(connection);
+            connection.close();
+            if (committed != null) {
+                logger.info(
+                        "Test {} on {}, which a rollback cannot undo; restoring it from its"
+                                + " snapshot",
+                        committed,
+                        dbRule.getDBName());
+                dbRule.restoreSnapshot(username, password);
+            } else if (!after.equals(fingerprint)) {
+                logger.info(
+                        "Test changed the schema or a non-transactional table of {}, which a"
+                                + " rollback cannot undo; restoring it from its snapshot",
+                        dbRule.getDBName());
+                dbRule.restoreSnapshot(username, password);
+            }
+        } catch (Exception e) {
+            throw new AssertionError("Rolling back " + dbRule.getDBName() + " failed", e);
+        } finally {
+            connection = null;
+            boundConnection = null;
+        }
+    }
+
+    /**
+     * Connection in the transaction of the current test.
+     *
+     * @return a Connection on which commit(), setAutoCommit() and close() do nothing
+     */
+    public Connection getConnection() {
+        if (boundConnection == null) {
+            throw new IllegalStateException("Only available while a test is running");
+        }
+        return boundConnection;
+    }
+
+    /**
+     * DataSource for code under test which obtains its own connections.
+     *
+     * @return a DataSource which always returns {@link #getConnection()}
+     */
+    public DataSource getDataSource() {
+        return new BoundDataSource();
+    }
+
+    /**
+     * Checks whether the transaction of the test was committed, by a statement rather than the
+     * Connection, after the marker row was inserted.
+     *
+     * @return what happened, or null if the rollback undid the marker row
+     */
+    private static String committed(Connection connection) {
+        try (Statement stmt = connection.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + MARKER_TABLE)) {
+            rs.next();
+            return rs.getLong(1) == 0 ? null : "committed its transaction";
+        } catch (SQLException e) {
+            // e.g. if the test dropped it; then whether it committed cannot be verified
+            logger.debug("Could not read {}", MARKER_TABLE, e);
+            return "removed the transaction marker (" + e.getMessage() + ")";
+        }
+    }
+
+    /**
+     * Describes the tables and columns of the schema, and the checksums of its non-transactional
+     * tables, which a rollback would not restore.
+     */
+    static List<String> fingerprint(Connection connection, String dbName) throws SQLException {
+        List<String> rows = new ArrayList<>();
+        List<String> nonTransactional = new ArrayList<>();
+        try (PreparedStatement ps =
+                connection.prepareStatement(
+                        "SELECT t.TABLE_NAME, t.TABLE_TYPE, t.ENGINE, t.CREATE_TIME,"
+                                + " c.COLUMN_NAME, c.COLUMN_TYPE"
+                                + " FROM information_schema.TABLES t"
+                                + " LEFT JOIN information_schema.COLUMNS c"
+                                + " ON c.TABLE_SCHEMA = t.TABLE_SCHEMA AND c.TABLE_NAME = t.TABLE_NAME"
+                                + " WHERE t.TABLE_SCHEMA = ?"
+                                + " ORDER BY t.TABLE_NAME, c.ORDINAL_POSITION")) {
+            ps.setString(1, dbName);
+            try (ResultSet rs = ps.executeQuery()) {
+                String lastTable = null;
+                while (rs.next()) {
+                    String table = rs.getString(1);
+                    rows.add(
+                            table
+                                    + ' '
+                                    + rs.getString(3)
+                                    + ' '
+                                    + rs.getString(4)
+                                    + ' '
+                                    + rs.getString(5)
+                                    + ' '
+                                    + rs.getString(6));
+                    String engine = rs.getString(3);
+                    if (!table.equals(lastTable)
+                            && "BASE TABLE".equals(rs.getString(2))
+                            && engine != null
+                            && !"InnoDB".equalsIgnoreCase(engine)) {
+                        nonTransactional.add(table);
+                    }
+                    lastTable = table;
+                }
+            }
+        }
+        if (!nonTransactional.isEmpty()) {
+            StringBuilder sql = new StringBuilder("CHECKSUM TABLE ");
+            for (int i = 0; i < nonTransactional.size(); i++) {
+                sql.append(i == 0 ? "" : ", ").append(quote(dbName)).append('.');
+                sql.append(quote(nonTransactional.get(i)));
+            }
+            try (Statement stmt = connection.createStatement();
+                    ResultSet rs = stmt.executeQuery(sql.toString())) {
+                while (rs.next()) {
+                    rows.add("CHECKSUM " + rs.getString(1) + ' ' + rs.getString(2));
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static String quote(String identifier) {
+        return '`' + identifier.replace("`", "``") + '`';
+    }
+
+    private static Connection bind(Connection target) {
+        return (Connection)
+                Proxy.newProxyInstance(
+                        Connection.class.getClassLoader(),
+                        new Class<?>[] {Connection.class},
+                        (proxy, method, args) -> {
+                            String name = method.getName();
+                            if (name.equals("close")
+                                    || name.equals("commit")
+                                    || name.equals("setAutoCommit")) {
+                                // The transaction belongs to the rule, see after()
+                                return null;
+                            } else if (name.equals("equals")) {
+                                return proxy == args[0];
+                            } else if (name.equals("hashCode")) {
+                                return System.identityHashCode(proxy);
+                            }
+                            try {
+                                return method.invoke(target, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                        });
+    }
+
+    private class BoundDataSource implements DataSource {
+
+        @Override
+        public Connection getConnection() {
+            return MariaDB4jTransactionRule.this.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) {
+            return getConnection();
+        }
+
+        @Override
+        public PrintWriter getLogWriter() {
+            return null;
+        }
+
+        @Override
+        public void setLogWriter(PrintWriter out) {}
+
+        @Override
+        public void setLoginTimeout(int seconds) {}
+
+        @Override
+        public int getLoginTimeout() {
+            return 0;
+        }
+
+        @Override
+        public java.util.logging.Logger getParentLogger() throws SQLFeatureNotSupportedException {
+            throw new SQLFeatureNotSupportedException();
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> iface) throws SQLException {
+            if (iface.isInstance(this)) {
+                return iface.cast(this);
+            }
+            throw new SQLException("Not a wrapper for " + iface);
+        }
+
+        @Override
+        public boolean isWrapperFor(Class<?> iface) {
+            return iface.isInstance(this);
+        }
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j.junit5;
+
+import ch.vorburger.exec.ManagedProcessException;
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ExtensionContext.Namespace;
+import org.junit.jupiter.api.extension.ExtensionContext.Store;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolutionException;
+import org.junit.jupiter.api.extension.ParameterResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * JUnit 5 extension which provides each test class (or method) with its own schema on a DB that is
+ * shared by all tests of the JVM.
+ *
+ * <p>The DB is started on first use, kept in the root {@link ExtensionContext.Store} under a key
+ * derived from its configuration, and stopped at the end of the test run; so there is one server
+ * per configuration, for the whole test suite. Each test class (the default {@link Isolation}) or
+ * each test method gets its own new schema, which is dropped after it. This works with parallel
+ * test execution (<code>junit.jupiter.execution.parallel.enabled</code>).
+ *
+ * <p>The schema can be injected as a {@link MariaDB4jSchema} parameter:
+ *
+ * <pre>
+ * &#64;ExtendWith(MariaDB4jExtension.class)
+ * class MyTest {
+ *     &#64;Test
+ *     void test(MariaDB4jSchema schema) throws SQLException {
+ *         try (Connection conn = DriverManager.getConnection(schema.getURL(), "root", "")) {
+ *             ...
+ * </pre>
+ *
+ * <p>To customize the configuration or load a script into every new schema, register it in a static
+ * field instead:
+ *
+ * <pre>
+ * &#64;RegisterExtension
+ * static MariaDB4jExtension db = new MariaDB4jExtension(DBConfigurationBuilder.newBuilder())
+ *         .setResource("init.sql").setIsolation(Isolation.METHOD);
+ * </pre>
+ */
+public class MariaDB4jExtension
+        implements BeforeAllCallback, BeforeEachCallback, ParameterResolver {
+
+    private static final Logger logger = LoggerFactory.getLogger(MariaDB4jExtension.class);
+
+    private static final Namespace NAMESPACE = Namespace.create(MariaDB4jExtension.class);
+    private static final String SCHEMA = "schema";
+
+    /** MariaDB allows 64 characters, this leaves room for the counter suffix. */
+    private static final int MAX_SCHEMA_PREFIX_LENGTH = 50;
+
+    private static final AtomicInteger schemas = new AtomicInteger();
+
+    /** Whether each test class or each test method gets its own schema. */
+    public enum Isolation {
+        CLASS,
+        METHOD
+    }
+
+    private final DBConfigurationBuilder builder;
+    private final String key;
+    private Isolation isolation = Isolation.CLASS;
+    private String resource;
+
+    /** Constructor for <code>&#64;ExtendWith</code>, with the default configuration. */
+    public MariaDB4jExtension() {
+        this(null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param builder the configuration of the shared DB; it is built only if no DB with the same
+     *     port, directories, version, security, character set and arguments is running yet
+     */
+    public MariaDB4jExtension(DBConfigurationBuilder builder) {
+        this.builder = builder;
+        this.key = builder == null ? "default" : key(builder);
+    }
+
+    static String key(DBConfigurationBuilder builder) {
+        return String.join(
+                "|",
+                String.valueOf(builder.getPort()),
+                String.valueOf(builder.getBaseDir()),
+                String.valueOf(builder.getDataDir()),
+                String.valueOf(builder.getDatabaseVersion()),
+                String.valueOf(builder.isSecurityDisabled()),
+                String.valueOf(builder.getDefaultCharacterSet()),
+                String.valueOf(builder._getArgs()));
+    }
+
+    public MariaDB4jExtension setIsolation(Isolation isolation) {
+        this.isolation = Objects.requireNonNull(isolation, "isolation");
+        return this;
+    }
+
+    public Isolation getIsolation() {
+        return isolation;
+    }
+
+    /**
+     * Sets a classpath resource with SQL to source into every new schema.
+     *
+     * @param resource the resource, or null for empty schemas
+     * @return this
+     */
+    public MariaDB4jExtension setResource(String resource) {
+        this.resource = resource;
+        return this;
+    }
+
+    public String getResource() {
+        return resource;
+    }
+
+    @Override
+    public void beforeAll(ExtensionContext context) {
+        if (isolation == Isolation.CLASS) {
+            createSchema(context, context.getRequiredTestClass().getSimpleName());
+        }
+    }
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        if (isolation == Isolation.METHOD) {
+            createSchema(
+                    context,
+                    context.getRequiredTestClass().getSimpleName()
+                            + "_"
+                            + context.getRequiredTestMethod().getName());
+        }
+    }
+
+    private void createSchema(ExtensionContext context, String prefix) {
+        DB db = getDB(context);
+        String sanitized = prefix.replaceAll("[^A-Za-z0-9_]", "_");
+        if (sanitized.length() > MAX_SCHEMA_PREFIX_LENGTH) {
+            sanitized = sanitized.substring(0, MAX_SCHEMA_PREFIX_LENGTH);
+        }
+        String name = sanitized + "_" + schemas.incrementAndGet();
+        try {
+            db.createDB(name);
+            if (resource != null) {
+                db.source(resource, name);
+            }
+        } catch (ManagedProcessException e) {
+            throw new IllegalStateException("Could not create schema " + name, e);
+        }
+        // The Store drops it when the context of the class or method is closed
+        context.getStore(NAMESPACE).put(SCHEMA, new SchemaResource(new MariaDB4jSchema(db, name)));
+    }
+
+    /**
+     * The shared DB, started if this is its first use.
+     *
+     * @param context any ExtensionContext of the test run
+     * @return the running DB
+     */
+    public DB getDB(ExtensionContext context) {
+        return context.getRoot()
+                .getStore(NAMESPACE)
+                .getOrComputeIfAbsent(key, k -> new SharedServer(builder), SharedServer.class)
+                .db;
+    }
+
+    @Override
+    public boolean supportsParameter(
+            ParameterContext parameterContext, ExtensionContext extensionContext) {
+        return parameterContext.getParameter().getType() == MariaDB4jSchema.class;
+    }
+
+    @Override
+    public Object resolveParameter(
+            ParameterContext parameterContext, ExtensionContext extensionContext) {
+        // Store lookups fall back to the parent, i.e. from a method to its class
+        SchemaResource schema =
+                extensionContext.getStore(NAMESPACE).get(SCHEMA, SchemaResource.class);
+        if (schema == null) {
+            throw new ParameterResolutionException(
+                    "No MariaDB4jSchema available here with Isolation." + isolation);
+        }
+        return schema.schema;
+    }
+
+    private static final class SharedServer implements Store.CloseableResource {
+
+        final DB db;
+
+        SharedServer(DBConfigurationBuilder builder) {
+            try {
+                db =
+                        DB.newEmbeddedDB(
+                                (builder != null ? builder : DBConfigurationBuilder.newBuilder())
+                                        .build());
+                db.start();
+            } catch (ManagedProcessException e) {
+                throw new IllegalStateException("Could not start shared DB", e);
+            }
+        }
+
+        @Override
+        public void close() throws ManagedProcessException {
+            db.stop();
+        }
+    }
+
+    private static final class SchemaResource implements Store.CloseableResource {
+
+        final MariaDB4jSchema schema;
+
+        SchemaResource(MariaDB4jSchema schema) {
+            this.schema = schema;
+        }
+
+        @Override
+        public void close() {
+            try {
+                schema.getDB().run("DROP DATABASE IF EXISTS `" + schema.getName() + "`;");
+            } catch (ManagedProcessException e) {
+                logger.warn("Could not drop schema {}", schema.getName(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j.junit5;
+
+import ch.vorburger.mariadb4j.DB;
+
+/**
+ * The schema (database) which the {@link MariaDB4jExtension} created for a test class or method, on
+ * the shared DB. It can be injected as a parameter into test methods, lifecycle methods and
+ * constructors.
+ */
+public final class MariaDB4jSchema {
+
+    private final DB db;
+    private final String name;
+
+    MariaDB4jSchema(DB db, String name) {
+        this.db = db;
+        this.name = name;
+    }
+
+    /**
+     * The shared DB, which is also used by other test classes; prefer {@link #getURL()}.
+     *
+     * @return the running DB
+     */
+    public DB getDB() {
+        return db;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * The JDBC URL of this schema.
+     *
+     * @return e.g. "jdbc:mariadb://localhost:3306/MyTest_1"
+     */
+    public String getURL() {
+        return db.getConfiguration().getURL(name);
+    }
+
+    @Override
+    public String toString() {
+        return getURL();
+    }
+}
@@ -34,7 +34,9 @@ import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -85,6 +87,30 @@ public abstract class AbstractRunMojo extends AbstractMojo {
     /** Path to scripts to run on the database once started. */
     @Parameter private File[] scripts;
 
+    /**
+     * Only run scripts which are new or changed since they were last run, as recorded in a
+     * mariadb4j_history table; useful with a dataDir which persists between builds.
+     */
+    @Parameter(defaultValue = "false")
+    private boolean incrementalScripts;
+
+    /**
+     * If the same scripts were run before, restore the dataDir in which they ran from a cache,
+     * instead of installing the database and running them again. This replaces the content of the
+     * dataDir. The cache is keyed by a hash of the MariaDB version, args, databaseName and the
+     * content of the scripts.
+     */
+    @Parameter(property = "mariadb4j.fixtureCache", defaultValue = "false")
+    private boolean fixtureCache;
+
+    /** Directory of the fixture cache, which may be shared by several projects. */
+    @Parameter(defaultValue = "${project.build.directory}/mariadb4j-cache")
+    private File fixtureCacheDir;
+
+    /** Maximum size of the fixture cache in MB; least recently used entries are evicted. */
+    @Parameter(defaultValue = "1024")
+    private long fixtureCacheMaxSize;
+
     /** Skip the execution. */
     @Parameter(defaultValue = "false")
     private boolean skip;
@@ -145,12 +171,39 @@ public abstract class AbstractRunMojo extends AbstractMojo {
      * @throws java.io.IOException if any.
      */
     public void runScripts(DB db, String dbName) throws ManagedProcessException, IOException {
-        if (this.scripts != null) {
+        runScripts(db, dbName, this.scripts);
+    }
+
+    /**
+     * Runs scripts other than the configured ones, e.g. those of a named instance.
+     *
+     * @param db a {@link ch.vorburger.mariadb4j.DB} object
+     * @param dbName a {@link java.lang.String} object
+     * @param scripts the scripts, or null
+     * @throws ch.vorburger.exec.ManagedProcessException if any.
+     * @throws java.io.IOException if any.
+     */
+    protected void runScripts(DB db, String dbName, File[] scripts)
+            throws ManagedProcessException, IOException {
+        if (scripts != null) {
             if (getLog().isInfoEnabled()) {
-                getLog().info("Going to run scripts: " + Arrays.asList(this.scripts));
+                getLog().info("Going to run scripts: " + Arrays.asList(scripts));
             }
             Charset charset = getScriptCharset();
-            for (File scriptFile : this.scripts) {
+            if (incrementalScripts) {
+                MigrationRunner runner = new MigrationRunner(db);
+                for (File scriptFile : scripts) {
+                    String scriptText =
+                            new String(Files.readAllBytes(scriptFile.toPath()), charset);
+                    runner.addScript(
+                            dbName,
+                            scriptFile.getName(),
+                            scriptText.getBytes(StandardCharsets.UTF_8));
+                }
+                getLog().info("Successfully run new or changed scripts: " + runner.run());
+                return;
+            }
+            for (File scriptFile : scripts) {
                 // awesome http://www.adam-bien.com/roller/abien/entry/java_8_reading_a_file
                 // Though we should have in db to pass a file or inputstream so we don't overload
                 // memory. So
@@ -163,6 +216,72 @@ public abstract class AbstractRunMojo extends AbstractMojo {
         }
     }
 
+    /**
+     * Installs and starts the DB, and creates the database and runs the scripts; or restores the
+     * dataDir in which they ran from the fixture cache, and starts the DB.
+     *
+     * @param configuration a {@link ch.vorburger.mariadb4j.DBConfiguration} object
+     * @param dbName a {@link java.lang.String} object
+     * @param scripts the scripts to run, or null
+     * @return the started {@link ch.vorburger.mariadb4j.DB}
+     * @throws ch.vorburger.exec.ManagedProcessException if any.
+     * @throws java.io.IOException if any.
+     */
+    protected DB startAndRunScripts(DBConfiguration configuration, String dbName, File[] scripts)
+            throws ManagedProcessException, IOException {
+        if (!fixtureCache || scripts == null || scripts.length == 0) {
+            DB db = DB.newEmbeddedDB(configuration);
+            db.start();
+            initDB(db, dbName, scripts);
+            return db;
+        }
+        File cacheDir =
+                fixtureCacheDir != null
+                        ? fixtureCacheDir
+                        : FixtureCache.newDefault().getDirectory();
+        FixtureCache cache = new FixtureCache(cacheDir, fixtureCacheMaxSize * 1024 * 1024);
+        String key = FixtureCache.key(configuration, dbName, readScripts(scripts));
+        return cache.startEmbeddedDB(
+                configuration, key, started -> initDB(started, dbName, scripts));
+    }
+
+    /**
+     * Reads the scripts, e.g. to detect when they changed.
+     *
+     * @param scripts the scripts, or null
+     * @return the name of the script charset, followed by the content of every script
+     * @throws java.io.IOException if a script could not be read
+     */
+    protected List<byte[]> readScripts(File[] scripts) throws IOException {
+        List<byte[]> contents = new ArrayList<>();
+        contents.add(getScriptCharset().name().getBytes(StandardCharsets.UTF_8));
+        if (scripts != null) {
+            for (File scriptFile : scripts) {
+                contents.add(Files.readAllBytes(scriptFile.toPath()));
+            }
+        }
+        return contents;
+    }
+
+    /**
+     * Creates the database, and runs the scripts.
+     *
+     * @param db a {@link ch.vorburger.mariadb4j.DB} object which is started
+     * @param dbName a {@link java.lang.String} object
+     * @param scripts the scripts, or null
+     * @throws ch.vorburger.exec.ManagedProcessException if any.
+     * @throws java.io.IOException if any.
+     */
+    protected void initDB(DB db, String dbName, File[] scripts)
+            throws ManagedProcessException, IOException {
+        if (!"test".equals(dbName)) {
+            // mysqld out-of-the-box already has a DB named "test"
+            // in case we need another DB, here's how to create it first
+            db.createDB(dbName);
+        }
+        runScripts(db, dbName, scripts);
+    }
+
     /**
      * Run with the current VM, using the specified arguments.
      *
@@ -173,6 +292,15 @@ public abstract class AbstractRunMojo extends AbstractMojo {
     protected abstract void runWithMavenJvm(DBConfigurationBuilder configurationBuilder)
             throws MojoExecutionException, MojoFailureException;
 
+    /**
+     * The scripts to run on the (unnamed) database once started.
+     *
+     * @return the scripts, or null
+     */
+    protected final File[] getScripts() {
+        return scripts;
+    }
+
     public String getDatabaseName() {
         return databaseName;
     }
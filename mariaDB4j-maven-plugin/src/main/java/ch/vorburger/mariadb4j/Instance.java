@@ -0,0 +1,98 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j;
+
+import java.io.File;
+
+/**
+ * A named database of the {@link StartMojo start} goal, configured as an element of its <code>
+ * instances</code>. Its URL is published as the <code>mariadb4j.&lt;name&gt;.databaseurl
+ * </code> project property.
+ */
+public class Instance {
+
+    /** Name of the instance; required, and unique within the start goal. */
+    private String name;
+
+    /** Port of the instance; if unset, a free port is used. */
+    private int port;
+
+    /**
+     * If dataDir is set outside java.io.tmpdir, it won't be deleted. If it is unset, each instance
+     * gets its own dataDir, named after its port.
+     */
+    private File dataDir;
+
+    /** Arguments for mysqld, which are added to those of the start goal. */
+    private String[] args;
+
+    private String databaseName = "test";
+
+    /** Path to scripts to run on the database once started. */
+    private File[] scripts;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public void setPort(int port) {
+        this.port = port;
+    }
+
+    public File getDataDir() {
+        return dataDir;
+    }
+
+    public void setDataDir(File dataDir) {
+        this.dataDir = dataDir;
+    }
+
+    public String[] getArgs() {
+        return args;
+    }
+
+    public void setArgs(String[] args) {
+        this.args = args;
+    }
+
+    public String getDatabaseName() {
+        return databaseName;
+    }
+
+    public void setDatabaseName(String databaseName) {
+        this.databaseName = databaseName;
+    }
+
+    public File[] getScripts() {
+        return scripts;
+    }
+
+    public void setScripts(File[] scripts) {
+        this.scripts = scripts;
+    }
+}
@@ -20,14 +20,27 @@
 package ch.vorburger.mariadb4j;
 
 import ch.vorburger.exec.ManagedProcessException;
+import ch.vorburger.mariadb4j.utils.DBDaemon;
 import ch.vorburger.mariadb4j.utils.DBSingleton;
 
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.plugins.annotations.ResolutionScope;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Start a MariaDBj4 database. Contrary to the {@code run} goal, this does not block and allows
@@ -47,20 +60,53 @@ public class StartMojo extends AbstractRunMojo {
 
     private static final String PROPNAME_DATABASE_URL = "mariadb4j.databaseurl";
 
+    /**
+     * Keep the database running after the build, in a daemon process, which later start goals (of
+     * other modules and builds) with the same configuration and scripts attach to, instead of
+     * starting another database. The stop goal then only releases its lease on the daemon. The
+     * fixtureCache is not used with a daemon.
+     */
+    @Parameter(property = "mariadb4j.daemon", defaultValue = "false")
+    private boolean daemon;
+
+    /**
+     * Directory for the state of daemons, and their base and data directories, unless these are
+     * configured outside java.io.tmpdir.
+     */
+    @Parameter(property = "mariadb4j.daemonDir", defaultValue = "${user.home}/.m2/mariadb4j")
+    private File daemonDir;
+
+    /** Seconds after which a daemon stops, once no build uses it anymore. */
+    @Parameter(property = "mariadb4j.daemonIdleTimeout", defaultValue = "600")
+    private long daemonIdleTimeout;
+
+    /**
+     * Named databases to start concurrently, instead of the one configured directly on this goal;
+     * see {@link Instance}. They share its baseDir, libDir and args (to which their own args are
+     * added), the fixtureCache and scriptCharset. The URL of each is published as the
+     * mariadb4j.&lt;name&gt;.databaseurl property, and that of the first also as
+     * mariadb4j.databaseurl.
+     */
+    @Parameter private List<Instance> instances;
+
     @Override
     protected void runWithMavenJvm(DBConfigurationBuilder configurationBuilder)
             throws MojoExecutionException {
+        if (instances != null && !instances.isEmpty()) {
+            if (daemon) {
+                throw new MojoExecutionException("instances are not supported with daemon");
+            }
+            startInstances(configurationBuilder);
+            return;
+        }
         try {
-            DB db = DB.newEmbeddedDB(configurationBuilder.build());
-            DBSingleton.setDB(db);
-            db.start();
-
-            if (!"test".equals(databaseName)) {
-                // mysqld out-of-the-box already has a DB named "test"
-                // in case we need another DB, here's how to create it first
-                db.createDB(databaseName);
+            if (daemon) {
+                startOrAttachDaemon(configurationBuilder);
+            } else {
+                DBSingleton.setDB(
+                        startAndRunScripts(
+                                configurationBuilder.build(), databaseName, getScripts()));
             }
-            this.runScripts(db, databaseName);
 
             String databaseURL = DBSingleton.getConfigurationBuilder().getURL(databaseName);
             getProject().getProperties().setProperty(PROPNAME_DATABASE_URL, databaseURL);
@@ -72,4 +118,150 @@ public class StartMojo extends AbstractRunMojo {
             throw new MojoExecutionException("Could execute scripts after database started", ex);
         }
     }
+
+    private void startOrAttachDaemon(DBConfigurationBuilder configurationBuilder)
+            throws ManagedProcessException, IOException, MojoExecutionException {
+        if (Util.isTemporaryDirectory(daemonDir.getAbsoluteFile())) {
+            // Its data directory would be deleted by the next DB which starts
+            throw new MojoExecutionException("daemonDir must not be in java.io.tmpdir");
+        }
+        Properties configuration = new Properties();
+        if (configurationBuilder.getPort() != 0) {
+            configuration.setProperty(
+                    DBDaemon.PORT, Integer.toString(configurationBuilder.getPort()));
+        }
+        if (configurationBuilder.getSocket() != null) {
+            configuration.setProperty(DBDaemon.SOCKET, configurationBuilder.getSocket());
+        }
+        // Temporary directories are shared by, and deleted by, other DBs; the daemon uses its own
+        putIfNotTemporary(configuration, DBDaemon.BASE_DIR, configurationBuilder.getBaseDir());
+        putIfNotTemporary(configuration, DBDaemon.LIB_DIR, configurationBuilder.getLibDir());
+        putIfNotTemporary(configuration, DBDaemon.DATA_DIR, configurationBuilder.getDataDir());
+        List<String> args = configurationBuilder._getArgs();
+        for (int i = 0; i < args.size(); i++) {
+            configuration.setProperty(DBDaemon.ARG_PREFIX + i, args.get(i));
+        }
+        configuration.setProperty(DBDaemon.IDLE_TIMEOUT, Long.toString(daemonIdleTimeout));
+
+        List<byte[]> fixtures = new ArrayList<>(readScripts(getScripts()));
+        fixtures.add(databaseName.getBytes(StandardCharsets.UTF_8));
+        File directory = DBDaemon.directory(daemonDir, configuration, fixtures);
+        DBDaemon.Lease lease =
+                DBDaemon.acquire(
+                        directory,
+                        configuration,
+                        started -> initDB(openDaemonDB(started), databaseName, getScripts()));
+        DBSingleton.setLease(lease);
+        openDaemonDB(lease);
+        String action = lease.isStarted() ? "Started" : "Attached to";
+        getLog().info(action + " MariaDB4j daemon in " + directory);
+    }
+
+    private void startInstances(DBConfigurationBuilder defaults) throws MojoExecutionException {
+        Map<String, DBConfigurationBuilder> configurationBuilders = new LinkedHashMap<>();
+        for (Instance instance : instances) {
+            String name = instance.getName();
+            if (name == null || name.isEmpty()) {
+                throw new MojoExecutionException("Every instance needs a name");
+            }
+            if (configurationBuilders.put(name, newConfigurationBuilder(defaults, instance))
+                    != null) {
+                throw new MojoExecutionException("Duplicate instance name: " + name);
+            }
+        }
+        // Only the instances are started, not the DB configured directly on this goal
+        DBSingleton.setConfigurationBuilder(null);
+
+        ExecutorService executor =
+                Executors.newFixedThreadPool(
+                        instances.size(), Util.newThreadFactory("MariaDB4j-start"));
+        try {
+            Map<Instance, Future<DB>> futures = new LinkedHashMap<>();
+            for (Instance instance : instances) {
+                DBConfiguration configuration =
+                        configurationBuilders.get(instance.getName()).build();
+                futures.put(
+                        instance,
+                        executor.submit(
+                                () ->
+                                        startAndRunScripts(
+                                                configuration,
+                                                instance.getDatabaseName(),
+                                                instance.getScripts())));
+            }
+            MojoExecutionException failure = null;
+            for (Map.Entry<Instance, Future<DB>> entry : futures.entrySet()) {
+                String name = entry.getKey().getName();
+                try {
+                    DB db = entry.getValue().get();
+                    DBConfigurationBuilder configurationBuilder = configurationBuilders.get(name);
+                    DBSingleton.setDB(name, db);
+                    DBSingleton.setConfigurationBuilder(name, configurationBuilder);
+                    String databaseURL =
+                            configurationBuilder.getURL(entry.getKey().getDatabaseName());
+                    Properties properties = getProject().getProperties();
+                    properties.setProperty("mariadb4j." + name + ".databaseurl", databaseURL);
+                    properties.putIfAbsent(PROPNAME_DATABASE_URL, databaseURL);
+                    getLog().warn(
+                                    "Database "
+                                            + name
+                                            + " started and is configured on "
+                                            + databaseURL);
+                } catch (ExecutionException e) {
+                    MojoExecutionException ex =
+                            new MojoExecutionException(
+                                    "Could not setup, start database " + name, e.getCause());
+                    if (failure == null) {
+                        failure = ex;
+                    } else {
+                        failure.addSuppressed(ex);
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while starting databases", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static DBConfigurationBuilder newConfigurationBuilder(
+            DBConfigurationBuilder defaults, Instance instance) {
+        DBConfigurationBuilder configurationBuilder = DBConfigurationBuilder.newBuilder();
+        configurationBuilder.setBaseDir(defaults.getBaseDir());
+        configurationBuilder.setLibDir(defaults.getLibDir());
+        if (instance.getPort() > 0) {
+            configurationBuilder.setPort(instance.getPort());
+        }
+        if (instance.getDataDir() != null) {
+            configurationBuilder.setDataDir(instance.getDataDir());
+        }
+        for (String arg : defaults._getArgs()) {
+            configurationBuilder.addArg(arg);
+        }
+        if (instance.getArgs() != null) {
+            for (String arg : instance.getArgs()) {
+                configurationBuilder.addArg(arg);
+            }
+        }
+        return configurationBuilder;
+    }
+
+    private static DB openDaemonDB(DBDaemon.Lease lease) throws ManagedProcessException {
+        DBConfigurationBuilder configurationBuilder = lease.newConfigurationBuilder();
+        DB db = DB.openEmbeddedDB(configurationBuilder.build());
+        DBSingleton.setConfigurationBuilder(configurationBuilder);
+        DBSingleton.setDB(db);
+        return db;
+    }
+
+    private static void putIfNotTemporary(Properties configuration, String key, File directory) {
+        if (directory != null && !Util.isTemporaryDirectory(directory.getAbsoluteFile())) {
+            configuration.setProperty(key, directory.getAbsolutePath());
+        }
+    }
 }
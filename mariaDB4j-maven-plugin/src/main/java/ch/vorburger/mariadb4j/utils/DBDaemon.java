@@ -0,0 +1,479 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j.utils;
+
+import ch.vorburger.exec.ManagedProcessException;
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Properties;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A MariaDB4j DB running in its own JVM, so that it outlives the Maven build which started it, and
+ * can be shared by later goals, modules and builds.
+ *
+ * <p>Every daemon has a directory, named after the hash of its configuration. Goals {@link
+ * #acquire(File, Properties, Initializer)} a lease on the daemon with the same configuration,
+ * starting it if there is none yet. The daemon stops itself when it had no leases for its idle
+ * timeout. Leases of JVMs which died without releasing them are ignored.
+ *
+ * <p>The files in the directory of a daemon are:
+ *
+ * <ul>
+ *   <li><code>daemon.lock</code> serializes starting, attaching to and stopping the daemon
+ *   <li><code>config.properties</code> the configuration, written by the goal starting the daemon
+ *   <li><code>daemon.properties</code> the actual port, socket and directories, written by the
+ *       daemon once the DB is started, and deleted when it stops
+ *   <li><code>leases/</code> one file per lease, named after the PID of the JVM holding it
+ *   <li><code>daemon.log</code> the output of the daemon
+ *   <li><code>base/</code> and <code>data/</code> unless configured outside java.io.tmpdir
+ * </ul>
+ *
+ * @since 3.2.0
+ */
+public final class DBDaemon {
+
+    public static final String PORT = "port";
+    public static final String SOCKET = "socket";
+    public static final String BASE_DIR = "baseDir";
+    public static final String LIB_DIR = "libDir";
+    public static final String DATA_DIR = "dataDir";
+    public static final String TMP_DIR = "tmpDir";
+    public static final String ARG_PREFIX = "arg.";
+    public static final String IDLE_TIMEOUT = "idleTimeout";
+
+    private static final String PID = "pid";
+    private static final String CONFIG_FILE = "config.properties";
+    private static final String STATE_FILE = "daemon.properties";
+    private static final String LOCK_FILE = "daemon.lock";
+    private static final String LOG_FILE = "daemon.log";
+    private static final String LEASES_DIR = "leases";
+
+    private static final long POLL_INTERVAL_MS = 1000;
+    private static final long START_TIMEOUT_MS = TimeUnit.MINUTES.toMillis(2);
+
+    private DBDaemon() {
+        // static utility class, and main
+    }
+
+    /** A lease on a running daemon, which keeps it from stopping until released. */
+    public static final class Lease {
+        private final File directory;
+        private final File file;
+        private final Properties state;
+        private final boolean started;
+
+        Lease(File directory, File file, Properties state, boolean started) {
+            this.directory = directory;
+            this.file = file;
+            this.state = state;
+            this.started = started;
+        }
+
+        /**
+         * Whether the daemon was started by this lease, instead of attached to; i.e. whether the
+         * database still has to be initialized.
+         */
+        public boolean isStarted() {
+            return started;
+        }
+
+        public File getDirectory() {
+            return directory;
+        }
+
+        /**
+         * A configuration to connect to the daemon, and to run clients against it; but not to start
+         * it.
+         */
+        public DBConfigurationBuilder newConfigurationBuilder() {
+            DBConfigurationBuilder builder = DBConfigurationBuilder.newBuilder();
+            builder.setPort(Integer.parseInt(state.getProperty(PORT)));
+            builder.setSocket(state.getProperty(SOCKET));
+            builder.setBaseDir(new File(state.getProperty(BASE_DIR)));
+            builder.setLibDir(new File(state.getProperty(LIB_DIR)));
+            builder.setDataDir(new File(state.getProperty(DATA_DIR)));
+            builder.setTmpDir(state.getProperty(TMP_DIR));
+            return builder;
+        }
+
+        /**
+         * Releases this lease; the daemon stops after its idle timeout, if it has no others.
+         *
+         * @return false if the lease file could not be deleted, which the daemon ignores once this
+         *     JVM is gone
+         */
+        public boolean release() {
+            return file.delete() || !file.exists();
+        }
+    }
+
+    /** Initializes the DB of a daemon which was just started, e.g. by running scripts. */
+    @FunctionalInterface
+    public interface Initializer {
+        void initialize(Lease lease) throws ManagedProcessException, IOException;
+    }
+
+    /**
+     * Returns the directory of the daemon with a given configuration.
+     *
+     * @param daemonsDir directory containing the directories of all daemons
+     * @param configuration how to start the daemon, see the constants of this class
+     * @param fixtures anything else which makes a daemon unsuitable for another configuration, e.g.
+     *     the scripts it was initialized with
+     * @return a directory in daemonsDir, which may not exist yet
+     */
+    public static File directory(File daemonsDir, Properties configuration, List<byte[]> fixtures) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        // Different versions of MariaDB4j or its binaries must not share a daemon
+        update(digest, classpath().getBytes(StandardCharsets.UTF_8));
+        for (String name : new TreeSet<>(configuration.stringPropertyNames())) {
+            if (!IDLE_TIMEOUT.equals(name)) {
+                update(
+                        digest,
+                        (name + "=" + configuration.getProperty(name))
+                                .getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        for (byte[] fixture : fixtures) {
+            update(digest, fixture);
+        }
+        // Short, as the default socket is in there, and its path must not be too long
+        return new File(daemonsDir, HexFormat.of().formatHex(digest.digest(), 0, 8));
+    }
+
+    private static void update(MessageDigest digest, byte[] value) {
+        digest.update(Integer.toString(value.length).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(value);
+    }
+
+    /**
+     * Acquires a lease on the daemon in a directory, starting and initializing it if it is not
+     * running. Other goals only attach to it once it is initialized.
+     *
+     * @param directory the directory of the daemon, see {@link #directory(File, Properties, List)}
+     * @param configuration how to start the daemon, see the constants of this class
+     * @param initializer initializes the DB, if the daemon was started; if this fails, the daemon
+     *     is stopped again
+     * @return the Lease, which must be released
+     * @throws IOException if the daemon could not be started
+     * @throws ManagedProcessException if the initializer failed
+     */
+    @SuppressWarnings("try") // the lock is only closed
+    public static synchronized Lease acquire(
+            File directory, Properties configuration, Initializer initializer)
+            throws IOException, ManagedProcessException {
+        File leases = new File(directory, LEASES_DIR);
+        FileUtils.forceMkdir(leases);
+        // Within a JVM, this is synchronized; across JVMs, this lock
+        try (FileChannel lock = lock(directory)) {
+            Properties state = readRunningState(directory);
+            boolean started = state == null;
+            if (started) {
+                store(configuration, new File(directory, CONFIG_FILE));
+                state = launch(directory);
+            }
+            File file = new File(leases, ProcessHandle.current().pid() + "-" + UUID.randomUUID());
+            Files.createFile(file.toPath());
+            Lease lease = new Lease(directory, file, state, started);
+            if (started) {
+                try {
+                    initializer.initialize(lease);
+                } catch (IOException | RuntimeException e) {
+                    lease.release();
+                    try {
+                        stop(directory, state);
+                    } catch (IOException stopFailure) {
+                        e.addSuppressed(stopFailure);
+                    }
+                    throw e;
+                }
+            }
+            return lease;
+        }
+    }
+
+    /** Stops a daemon; the caller must hold the lock. */
+    private static void stop(File directory, Properties state) throws IOException {
+        Files.deleteIfExists(new File(directory, STATE_FILE).toPath());
+        // Its shutdown hook stops the DB; wait for that, so that the next goal does not start
+        // another daemon on the same port and directories while this one is still stopping
+        ProcessHandle daemon =
+                ProcessHandle.of(Long.parseLong(state.getProperty(PID))).orElse(null);
+        try {
+            if (daemon != null && daemon.destroy()) {
+                daemon.onExit().get(1, TimeUnit.MINUTES);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while stopping the MariaDB4j daemon", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IOException("Could not stop the MariaDB4j daemon", e);
+        }
+    }
+
+    private static Properties launch(File directory) throws IOException {
+        List<String> command = new ArrayList<>();
+        // Without its own session, the daemon would get the Ctrl-C meant for the Maven build
+        if (new File("/usr/bin/setsid").canExecute()) {
+            command.add("/usr/bin/setsid");
+        }
+        command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+        command.add("-cp");
+        command.add(classpath());
+        command.add(DBDaemon.class.getName());
+        command.add(directory.getAbsolutePath());
+        File log = new File(directory, LOG_FILE);
+        Process process =
+                new ProcessBuilder(command)
+                        .redirectErrorStream(true)
+                        .redirectOutput(ProcessBuilder.Redirect.appendTo(log))
+                        .start();
+        process.getOutputStream().close();
+        long deadline = System.currentTimeMillis() + START_TIMEOUT_MS;
+        while (System.currentTimeMillis() < deadline) {
+            Properties state = readRunningState(directory);
+            if (state != null) {
+                return state;
+            }
+            if (!process.isAlive()) {
+                throw new IOException("MariaDB4j daemon failed to start, see " + log);
+            }
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                process.destroy();
+                throw new IOException("Interrupted while starting the MariaDB4j daemon", e);
+            }
+        }
+        process.destroy();
+        throw new IOException("MariaDB4j daemon did not start within " + START_TIMEOUT_MS + "ms");
+    }
+
+    /**
+     * Runs a daemon; see {@link #acquire(File, Properties, Initializer)}.
+     *
+     * @param args the directory of the daemon
+     */
+    public static void main(String[] args) throws Exception {
+        File directory = new File(args[0]);
+        Properties configuration = load(new File(directory, CONFIG_FILE));
+        DBConfigurationBuilder builder = DBConfigurationBuilder.newBuilder();
+        int port = Integer.parseInt(configuration.getProperty(PORT, "0"));
+        if (port > 0) {
+            builder.setPort(port);
+        }
+        builder.setSocket(
+                configuration.getProperty(
+                        SOCKET, new File(directory, "mysqld.sock").getAbsolutePath()));
+        File baseDir = new File(directory, "base");
+        if (configuration.containsKey(BASE_DIR)) {
+            baseDir = new File(configuration.getProperty(BASE_DIR));
+        }
+        builder.setBaseDir(baseDir);
+        if (configuration.containsKey(LIB_DIR)) {
+            builder.setLibDir(new File(configuration.getProperty(LIB_DIR)));
+        }
+        File dataDir = new File(directory, "data");
+        if (configuration.containsKey(DATA_DIR)) {
+            dataDir = new File(configuration.getProperty(DATA_DIR));
+        } else {
+            // Left over by a previous daemon, with scripts already run
+            FileUtils.deleteDirectory(dataDir);
+        }
+        builder.setDataDir(dataDir);
+        builder.setTmpDir(new File(directory, "tmp").getAbsolutePath());
+        for (int i = 0; configuration.containsKey(ARG_PREFIX + i); i++) {
+            builder.addArg(configuration.getProperty(ARG_PREFIX + i));
+        }
+        long idleTimeoutMs =
+                TimeUnit.SECONDS.toMillis(
+                        Long.parseLong(configuration.getProperty(IDLE_TIMEOUT, "600")));
+
+        DB db = DB.newEmbeddedDB(builder.build());
+        db.start();
+        try {
+            Properties state = new Properties();
+            state.setProperty(PID, Long.toString(ProcessHandle.current().pid()));
+            state.setProperty(PORT, Integer.toString(db.getConfiguration().getPort()));
+            state.setProperty(SOCKET, db.getConfiguration().getSocket());
+            state.setProperty(BASE_DIR, db.getConfiguration().getBaseDir().getAbsolutePath());
+            state.setProperty(LIB_DIR, db.getConfiguration().getLibDir().getAbsolutePath());
+            state.setProperty(DATA_DIR, db.getConfiguration().getDataDir().getAbsolutePath());
+            state.setProperty(TMP_DIR, db.getConfiguration().getTmpDir().getAbsolutePath());
+            store(state, new File(directory, STATE_FILE));
+            System.out.println(
+                    "MariaDB4j daemon started on port " + db.getConfiguration().getPort());
+            awaitIdle(directory, db, idleTimeoutMs);
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            Files.deleteIfExists(new File(directory, STATE_FILE).toPath());
+            db.stop();
+            throw e;
+        }
+        System.out.println("MariaDB4j daemon stopped after being idle");
+    }
+
+    /** Stops the DB once it had no leases for idleTimeoutMs. */
+    @SuppressWarnings("try") // the lock is only closed
+    private static void awaitIdle(File directory, DB db, long idleTimeoutMs)
+            throws IOException, InterruptedException {
+        long idleSince = System.currentTimeMillis();
+        while (true) {
+            Thread.sleep(POLL_INTERVAL_MS);
+            if (countLeases(directory) > 0) {
+                idleSince = System.currentTimeMillis();
+            } else if (System.currentTimeMillis() - idleSince >= idleTimeoutMs) {
+                // Under the lock, so that no goal attaches, or starts another daemon on the same
+                // port and directories, while this stops
+                try (FileChannel lock = lock(directory)) {
+                    if (countLeases(directory) == 0) {
+                        Files.deleteIfExists(new File(directory, STATE_FILE).toPath());
+                        db.stop();
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    /** Counts the leases of JVMs which are still running, and deletes those of others. */
+    static int countLeases(File directory) {
+        File[] leases = new File(directory, LEASES_DIR).listFiles();
+        if (leases == null) {
+            return 0;
+        }
+        int count = 0;
+        for (File lease : leases) {
+            if (isAlive(lease.getName().split("-", 2)[0])) {
+                count++;
+            } else if (!lease.delete()) {
+                System.err.println("Could not delete stale lease " + lease);
+            }
+        }
+        return count;
+    }
+
+    private static Properties readRunningState(File directory) throws IOException {
+        File file = new File(directory, STATE_FILE);
+        if (!file.exists()) {
+            return null;
+        }
+        Properties state = load(file);
+        if (!isAlive(state.getProperty(PID))) {
+            // The daemon was killed
+            Files.deleteIfExists(file.toPath());
+            return null;
+        }
+        return state;
+    }
+
+    private static boolean isAlive(String pid) {
+        try {
+            return ProcessHandle.of(Long.parseLong(pid)).map(ProcessHandle::isAlive).orElse(false);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /** Locks the directory of a daemon, until the returned channel is closed. */
+    private static FileChannel lock(File directory) throws IOException {
+        FileChannel channel =
+                FileChannel.open(
+                        new File(directory, LOCK_FILE).toPath(),
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE);
+        try {
+            channel.lock();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return channel;
+    }
+
+    private static Properties load(File file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        return properties;
+    }
+
+    /** Writes to a temporary file first, so that readers never see a partial file. */
+    private static void store(Properties properties, File file) throws IOException {
+        File temp = new File(file.getPath() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp.toPath(), StandardCharsets.UTF_8)) {
+            properties.store(writer, "MariaDB4j daemon");
+        }
+        Files.move(
+                temp.toPath(),
+                file.toPath(),
+                StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** The classpath of this plugin, which is all the daemon needs. */
+    private static String classpath() {
+        if (DBDaemon.class.getClassLoader() instanceof URLClassLoader loader) {
+            List<String> paths = new ArrayList<>();
+            for (URL url : loader.getURLs()) {
+                try {
+                    paths.add(new File(url.toURI()).getPath());
+                } catch (URISyntaxException | IllegalArgumentException e) {
+                    // Not a file, so not usable in a classpath
+                }
+            }
+            return String.join(File.pathSeparator, paths);
+        }
+        // E.g. in tests, which do not run in a Maven plugin ClassRealm
+        return System.getProperty("java.class.path");
+    }
+}
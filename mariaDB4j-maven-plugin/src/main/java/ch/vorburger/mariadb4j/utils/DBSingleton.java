@@ -24,49 +24,160 @@ import ch.vorburger.exec.ManagedProcessException;
 import ch.vorburger.mariadb4j.DB;
 import ch.vorburger.mariadb4j.DBConfigurationBuilder;
 
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
 /**
- * Holds the database and configuration data for MariaDB4j.
+ * Holds the databases and configuration data for MariaDB4j, keyed by the name of the instance; the
+ * methods without a name refer to the {@link #DEFAULT_NAME unnamed} instance.
  *
- * <p>Future option: If possible change serialized data and pid pointer to db and store in
- * target/MariaDB4j/MariaDB4j.state so database can be started with maven exiting and after some
- * time mariaDB4j:stop can be called in a new process to shut it down
+ * <p>For a database which keeps running after Maven exits, see {@link DBDaemon}.
  *
  * @author William Dutton
  * @since 1.0.0
  */
 public final class DBSingleton {
 
-    private static DB db;
-    private static DBConfigurationBuilder configurationBuilder;
+    /** Name of the database configured directly on the start goal, instead of as an instance. */
+    public static final String DEFAULT_NAME = "";
+
+    private static final Map<String, DB> dbs = new LinkedHashMap<>();
+    private static final Map<String, DBConfigurationBuilder> configurationBuilders =
+            new LinkedHashMap<>();
+    private static DBDaemon.Lease lease;
 
     private DBSingleton() {
         // static final singleton utility class
     }
 
     public static DB getDB() {
-        if (db == null) throw new IllegalStateException("db not set");
+        return getDB(DEFAULT_NAME);
+    }
+
+    /**
+     * Gets a database by name.
+     *
+     * @param name the name of the instance
+     * @return the database
+     * @throws IllegalStateException if there is no database of that name
+     */
+    public static synchronized DB getDB(String name) {
+        DB db = dbs.get(name);
+        if (db == null) throw new IllegalStateException("db not set: " + name);
         return db;
     }
 
-    public static void shutdownDB() throws ManagedProcessException {
-        if (db != null) {
-            db.stop();
-            db = null;
-            configurationBuilder = null;
+    /**
+     * Gets the names of all databases, in the order in which they were set.
+     *
+     * @return the names, including {@link #DEFAULT_NAME} if the unnamed database is set
+     */
+    public static synchronized Set<String> getNames() {
+        return new LinkedHashSet<>(dbs.keySet());
+    }
+
+    /**
+     * Stops all databases, or releases the lease on the daemon which the unnamed one runs in.
+     *
+     * @throws ManagedProcessException if any database could not be stopped; the others are stopped
+     *     nevertheless
+     */
+    public static synchronized void shutdownDB() throws ManagedProcessException {
+        ManagedProcessException failure = null;
+        if (lease != null) {
+            // The daemon keeps running, for the next start to attach to
+            DBDaemon.Lease released = lease;
+            lease = null;
+            dbs.remove(DEFAULT_NAME);
+            if (!released.release()) {
+                failure =
+                        new ManagedProcessException(
+                                "Could not release lease on MariaDB4j daemon in "
+                                        + released.getDirectory());
+            }
+        }
+        for (DB db : dbs.values()) {
+            try {
+                db.stop();
+            } catch (ManagedProcessException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        dbs.clear();
+        configurationBuilders.clear();
+        if (failure != null) {
+            throw failure;
         }
     }
 
     public static void setDB(DB db) {
-        DBSingleton.db = db;
+        setDB(DEFAULT_NAME, db);
+    }
+
+    /**
+     * Sets a database by name.
+     *
+     * @param name the name of the instance
+     * @param db the database, or null to remove it
+     */
+    public static synchronized void setDB(String name, DB db) {
+        if (db == null) {
+            dbs.remove(name);
+        } else {
+            dbs.put(name, db);
+        }
+    }
+
+    /**
+     * Sets the lease on the daemon which the unnamed DB runs in, if it does not run in this JVM;
+     * {@link #shutdownDB()} then releases it, instead of stopping the DB.
+     *
+     * @param lease the lease, or null
+     */
+    public static synchronized void setLease(DBDaemon.Lease lease) {
+        DBSingleton.lease = lease;
     }
 
     public static DBConfigurationBuilder getConfigurationBuilder() {
+        return getConfigurationBuilder(DEFAULT_NAME);
+    }
+
+    /**
+     * Gets the configuration builder of a database by name.
+     *
+     * @param name the name of the instance
+     * @return the configuration builder
+     * @throws IllegalStateException if there is no configuration builder of that name
+     */
+    public static synchronized DBConfigurationBuilder getConfigurationBuilder(String name) {
+        DBConfigurationBuilder configurationBuilder = configurationBuilders.get(name);
         if (configurationBuilder == null)
-            throw new IllegalStateException("configuration builder not set");
+            throw new IllegalStateException("configuration builder not set: " + name);
         return configurationBuilder;
     }
 
     public static void setConfigurationBuilder(DBConfigurationBuilder configurationBuilder) {
-        DBSingleton.configurationBuilder = configurationBuilder;
+        setConfigurationBuilder(DEFAULT_NAME, configurationBuilder);
+    }
+
+    /**
+     * Sets the configuration builder of a database by name.
+     *
+     * @param name the name of the instance
+     * @param configurationBuilder the configuration builder, or null to remove it
+     */
+    public static synchronized void setConfigurationBuilder(
+            String name, DBConfigurationBuilder configurationBuilder) {
+        if (configurationBuilder == null) {
+            configurationBuilders.remove(name);
+        } else {
+            configurationBuilders.put(name, configurationBuilder);
+        }
     }
 }
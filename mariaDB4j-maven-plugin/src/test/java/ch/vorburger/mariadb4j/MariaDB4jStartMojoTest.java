@@ -140,6 +140,31 @@ public class MariaDB4jStartMojoTest {
                 .isEqualTo(ImmutableSet.of("a", "b"));
     }
 
+    @Test
+    public void instances() throws Exception {
+        File pom = new File(getClass().getResource("/instances/pom.xml").toURI());
+        StartMojo mojo = (StartMojo) mojoRule.lookupConfiguredMojo(pom.getParentFile(), "start");
+        assertThat(mojo).isNotNull();
+        mojoRule.configureMojo(mojo, "mariaDB4j-maven-plugin", pom);
+        mojo.execute();
+
+        assertThat(DBSingleton.getNames()).containsExactly("primary", "auxiliary");
+        DB primary = DBSingleton.getDB("primary");
+        DB auxiliary = DBSingleton.getDB("auxiliary");
+        assertThat(primary.getConfiguration().getPort())
+                .isNotEqualTo(auxiliary.getConfiguration().getPort());
+        assertThat(mojo.getProject().getProperties().getProperty("mariadb4j.primary.databaseurl"))
+                .isEqualTo(DBSingleton.getConfigurationBuilder("primary").getURL(BASIC_DB_NAME));
+        assertThat(mojo.getProject().getProperties().getProperty("mariadb4j.auxiliary.databaseurl"))
+                .isEqualTo(DBSingleton.getConfigurationBuilder("auxiliary").getURL("test"));
+        try (Connection conn = openConnection(primary, BASIC_DB_NAME)) {
+            assertThat(DbUtils.selectAll(conn, BASIC_TABLE_NAME).isEmpty()).isTrue();
+        }
+        try (Connection conn = openConnection(auxiliary, "test")) {
+            assertThat(DbUtils.showVariables(conn, "version")).hasSize(1);
+        }
+    }
+
     private DB getDb() {
         try {
             return DBSingleton.getDB();
@@ -0,0 +1,71 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Properties;
+
+public class DBDaemonTest {
+
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void directoryDependsOnConfigurationButNotIdleTimeout() {
+        File daemonsDir = folder.getRoot();
+        Properties configuration = new Properties();
+        configuration.setProperty(DBDaemon.PORT, "3306");
+        File directory = DBDaemon.directory(daemonsDir, configuration, List.of());
+        assertEquals(daemonsDir, directory.getParentFile());
+
+        configuration.setProperty(DBDaemon.IDLE_TIMEOUT, "1");
+        assertEquals(directory, DBDaemon.directory(daemonsDir, configuration, List.of()));
+        assertNotEquals(
+                directory,
+                DBDaemon.directory(daemonsDir, configuration, List.of("x".getBytes(UTF_8))));
+        configuration.setProperty(DBDaemon.PORT, "3307");
+        assertNotEquals(directory, DBDaemon.directory(daemonsDir, configuration, List.of()));
+    }
+
+    @Test
+    public void leasesOfExitedJvmsAreDeleted() throws IOException {
+        File leases = folder.newFolder("leases");
+        File own = new File(leases, ProcessHandle.current().pid() + "-a");
+        File stale = new File(leases, Long.MAX_VALUE + "-b");
+        assertTrue(own.createNewFile());
+        assertTrue(stale.createNewFile());
+
+        assertEquals(1, DBDaemon.countLeases(folder.getRoot()));
+        assertTrue(own.exists());
+        assertFalse(stale.exists());
+    }
+}
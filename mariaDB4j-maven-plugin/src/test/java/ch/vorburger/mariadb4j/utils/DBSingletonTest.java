@@ -0,0 +1,82 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import ch.vorburger.exec.ManagedProcessException;
+import ch.vorburger.mariadb4j.DB;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+
+public class DBSingletonTest {
+
+    @After
+    public void tearDown() throws ManagedProcessException {
+        DBSingleton.shutdownDB();
+    }
+
+    @Test
+    public void holdsDatabasesByName() {
+        DB unnamed = mock(DB.class);
+        DB primary = mock(DB.class);
+        DBSingleton.setDB(unnamed);
+        DBSingleton.setDB("primary", primary);
+
+        assertSame(unnamed, DBSingleton.getDB());
+        assertSame(primary, DBSingleton.getDB("primary"));
+        assertEquals(
+                List.of(DBSingleton.DEFAULT_NAME, "primary"), List.copyOf(DBSingleton.getNames()));
+        try {
+            DBSingleton.getDB("other");
+            fail("there is no database named other");
+        } catch (IllegalStateException e) {
+            // pass
+        }
+    }
+
+    @Test
+    public void shutdownStopsAllDatabasesDespiteFailures() throws ManagedProcessException {
+        DB failing = mock(DB.class);
+        DB other = mock(DB.class);
+        doThrow(new ManagedProcessException("error")).when(failing).stop();
+        DBSingleton.setDB("failing", failing);
+        DBSingleton.setDB("other", other);
+
+        try {
+            DBSingleton.shutdownDB();
+            fail("Should have thrown exception");
+        } catch (ManagedProcessException e) {
+            assertEquals("error", e.getMessage());
+        }
+        verify(failing).stop();
+        verify(other).stop();
+        assertTrue(DBSingleton.getNames().isEmpty());
+    }
+}
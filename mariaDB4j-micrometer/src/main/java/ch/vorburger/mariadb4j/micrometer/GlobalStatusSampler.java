@@ -0,0 +1,238 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j.micrometer;
+
+import ch.vorburger.exec.ManagedProcessException;
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.ProcessStats;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.BaseUnits;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.function.ToLongFunction;
+
+/**
+ * Periodically samples SHOW GLOBAL STATUS and the {@link ProcessStats} of one DB, and exposes them
+ * as meters.
+ */
+class GlobalStatusSampler {
+
+    private static final Logger logger = LoggerFactory.getLogger(GlobalStatusSampler.class);
+
+    private static final String[] ROW_OPERATIONS = {"read", "inserted", "updated", "deleted"};
+
+    private final DB db;
+    private final Tags tags;
+    private final String username;
+    private final String password;
+    private final List<Meter> meters = new ArrayList<>();
+
+    ScheduledFuture<?> future;
+
+    private volatile Map<String, Double> status = Map.of();
+    private volatile double queriesPerSecond = Double.NaN;
+    private volatile ProcessStats processStats;
+    private double lastQuestions = Double.NaN;
+    private long lastNanos;
+    private boolean failedBefore;
+
+    GlobalStatusSampler(DB db, Tags tags, String username, String password) {
+        this.db = db;
+        this.tags = tags;
+        this.username = username;
+        this.password = password;
+    }
+
+    void sample() {
+        processStats = db.getProcessStats().orElse(null);
+        try {
+            Map<String, Double> newStatus =
+                    parse(db.query("SHOW GLOBAL STATUS", username, password, null));
+            long nowNanos = System.nanoTime();
+            double questions = newStatus.getOrDefault("Questions", Double.NaN);
+            if (!Double.isNaN(lastQuestions) && questions >= lastQuestions) {
+                queriesPerSecond = (questions - lastQuestions) * 1e9 / (nowNanos - lastNanos);
+            }
+            lastQuestions = questions;
+            lastNanos = nowNanos;
+            status = newStatus;
+            failedBefore = false;
+        } catch (ManagedProcessException | RuntimeException e) {
+            // Only warn once, to not flood the log if the DB went away without stop()
+            if (!failedBefore) {
+                logger.warn("Sampling SHOW GLOBAL STATUS failed", e);
+                failedBefore = true;
+            } else {
+                logger.debug("Sampling SHOW GLOBAL STATUS failed again", e);
+            }
+        }
+    }
+
+    static Map<String, Double> parse(List<String[]> rows) {
+        Map<String, Double> values = new HashMap<>();
+        for (String[] row : rows) {
+            if (row.length < 2) {
+                continue;
+            }
+            try {
+                values.put(row[0], Double.parseDouble(row[1]));
+            } catch (NumberFormatException e) {
+                // Skip non-numeric status variables, such as Rpl_status
+            }
+        }
+        return values;
+    }
+
+    double value(String name) {
+        return status.getOrDefault(name, Double.NaN);
+    }
+
+    private double process(ToLongFunction<ProcessStats> getter) {
+        ProcessStats stats = processStats;
+        if (stats == null) {
+            return Double.NaN;
+        }
+        long value = getter.applyAsLong(stats);
+        return value == -1 ? Double.NaN : (double) value;
+    }
+
+    double bufferPoolHitRatio() {
+        double requests = value("Innodb_buffer_pool_read_requests");
+        double reads = value("Innodb_buffer_pool_reads");
+        if (Double.isNaN(requests) || Double.isNaN(reads) || requests == 0) {
+            return Double.NaN;
+        }
+        return 1 - reads / requests;
+    }
+
+    synchronized void register(MeterRegistry registry) {
+        meters.add(
+                Gauge.builder("mariadb4j.status.queries.per.second", this, s -> s.queriesPerSecond)
+                        .description("Statements executed by clients per second (Questions)")
+                        .tags(tags)
+                        .register(registry));
+        meters.add(
+                FunctionCounter.builder("mariadb4j.status.queries", this, s -> s.value("Questions"))
+                        .description("Statements executed by clients (Questions)")
+                        .tags(tags)
+                        .register(registry));
+        meters.add(
+                Gauge.builder(
+                                "mariadb4j.status.threads.connected",
+                                this,
+                                s -> s.value("Threads_connected"))
+                        .description("Currently open connections")
+                        .tags(tags)
+                        .register(registry));
+        meters.add(
+                Gauge.builder(
+                                "mariadb4j.status.innodb.buffer.pool.hit.ratio",
+                                this,
+                                GlobalStatusSampler::bufferPoolHitRatio)
+                        .description("Ratio of InnoDB buffer pool reads served from memory")
+                        .tags(tags)
+                        .register(registry));
+        for (String operation : ROW_OPERATIONS) {
+            String variable = "Innodb_rows_" + operation;
+            meters.add(
+                    FunctionCounter.builder(
+                                    "mariadb4j.status.innodb.rows", this, s -> s.value(variable))
+                            .description("InnoDB row operations")
+                            .tags(tags)
+                            .tag("operation", operation)
+                            .register(registry));
+        }
+        registerProcessMeters(registry);
+    }
+
+    private void registerProcessMeters(MeterRegistry registry) {
+        meters.add(
+                Gauge.builder(
+                                "mariadb4j.process.memory.rss",
+                                this,
+                                s -> s.process(ProcessStats::getRssBytes))
+                        .description("Resident set size of mysqld")
+                        .baseUnit(BaseUnits.BYTES)
+                        .tags(tags)
+                        .register(registry));
+        meters.add(
+                Gauge.builder(
+                                "mariadb4j.process.memory.rss.peak",
+                                this,
+                                s -> s.process(ProcessStats::getPeakRssBytes))
+                        .description("Peak resident set size of mysqld")
+                        .baseUnit(BaseUnits.BYTES)
+                        .tags(tags)
+                        .register(registry));
+        meters.add(
+                FunctionCounter.builder(
+                                "mariadb4j.process.cpu.time",
+                                this,
+                                s -> s.process(p -> p.getCpuTime().toMillis()) / 1000)
+                        .description("CPU time used by mysqld")
+                        .baseUnit("seconds")
+                        .tags(tags)
+                        .register(registry));
+        meters.add(
+                Gauge.builder(
+                                "mariadb4j.process.open.fds",
+                                this,
+                                s -> s.process(ProcessStats::getOpenFileDescriptors))
+                        .description("Open file descriptors of mysqld")
+                        .baseUnit(BaseUnits.FILES)
+                        .tags(tags)
+                        .register(registry));
+        meters.add(
+                FunctionCounter.builder(
+                                "mariadb4j.process.io.read",
+                                this,
+                                s -> s.process(ProcessStats::getReadBytes))
+                        .description("Bytes read from storage by mysqld")
+                        .baseUnit(BaseUnits.BYTES)
+                        .tags(tags)
+                        .register(registry));
+        meters.add(
+                FunctionCounter.builder(
+                                "mariadb4j.process.io.write",
+                                this,
+                                s -> s.process(ProcessStats::getWriteBytes))
+                        .description("Bytes written to storage by mysqld")
+                        .baseUnit(BaseUnits.BYTES)
+                        .tags(tags)
+                        .register(registry));
+    }
+
+    synchronized void unregister(MeterRegistry registry) {
+        meters.forEach(registry::remove);
+        meters.clear();
+    }
+}
@@ -0,0 +1,291 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j.micrometer;
+
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBListener;
+import ch.vorburger.mariadb4j.Util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Micrometer {@link MeterBinder} for embedded {@link DB} instances.
+ *
+ * <p>Records lifecycle timers (install, start, stop), run and source timers, and dump sizes, as
+ * reported to it as a {@link DBListener}, as well as a histogram of how long replicas took to catch
+ * up in {@link ch.vorburger.mariadb4j.DBCluster#waitForReplication(DB, DB, Duration)}, and counts
+ * crashes of mysqld, with the downtime until each restart. While a DB is running, it also
+ * periodically samples <code>SHOW GLOBAL STATUS</code> on a background (virtual, on Java 21+)
+ * thread, and exposes queries per second, connected threads, the InnoDB buffer pool hit ratio and
+ * InnoDB row operations. On Linux, it also exposes the RSS, CPU time, open file descriptors and I/O
+ * of the mysqld process, see {@link DB#getProcessStats()}.
+ *
+ * <p>All meters are tagged with the <code>port</code> of the DB, so one instance of this class can
+ * be used for many DBs. Events which happen before {@link #bindTo(MeterRegistry)} are recorded once
+ * bound, so it is fine to register this as a listener on a {@link
+ * ch.vorburger.mariadb4j.DBConfigurationBuilder} before the registry is available.
+ */
+public class MariaDB4jMetrics implements MeterBinder, DBListener, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(MariaDB4jMetrics.class);
+
+    public static final Duration DEFAULT_STATUS_INTERVAL = Duration.ofSeconds(10);
+
+    // Bounds memory if this is used as a listener but never bound to a registry
+    private static final int MAX_PENDING = 1_000;
+
+    private final Duration statusInterval;
+    private final Iterable<Tag> tags;
+    private final List<Consumer<MeterRegistry>> pending = new ArrayList<>();
+    private final Map<DB, GlobalStatusSampler> samplers = new ConcurrentHashMap<>();
+
+    private MeterRegistry registry;
+    private ScheduledExecutorService scheduler;
+    private String username;
+    private String password;
+
+    public MariaDB4jMetrics() {
+        this(DEFAULT_STATUS_INTERVAL, Tags.empty());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param statusInterval how often to sample SHOW GLOBAL STATUS, or Duration.ZERO to not sample
+     * @param tags additional tags for all meters
+     */
+    public MariaDB4jMetrics(Duration statusInterval, Iterable<Tag> tags) {
+        this.statusInterval = statusInterval;
+        this.tags = tags;
+    }
+
+    /**
+     * Convenience to monitor a single DB. This should be called before {@link DB#start()}.
+     *
+     * @param registry the MeterRegistry to bind to
+     * @param db the DB to monitor
+     * @param tags additional tags for all meters
+     * @return the bound MariaDB4jMetrics, which should be closed when no longer needed
+     */
+    public static MariaDB4jMetrics monitor(MeterRegistry registry, DB db, Tag... tags) {
+        MariaDB4jMetrics metrics = new MariaDB4jMetrics(DEFAULT_STATUS_INTERVAL, Tags.of(tags));
+        metrics.bindTo(registry);
+        db.addListener(metrics);
+        return metrics;
+    }
+
+    /**
+     * Sets the credentials used to sample SHOW GLOBAL STATUS; not needed if security is disabled.
+     *
+     * @param username the username used to login to the database
+     * @param password the password used to login to the database
+     * @return this
+     */
+    public MariaDB4jMetrics setCredentials(String username, String password) {
+        this.username = username;
+        this.password = password;
+        return this;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        List<Consumer<MeterRegistry>> replay;
+        synchronized (this) {
+            this.registry = registry;
+            replay = new ArrayList<>(pending);
+            pending.clear();
+        }
+        replay.forEach(event -> event.accept(registry));
+    }
+
+    private void record(Consumer<MeterRegistry> event) {
+        MeterRegistry bound;
+        synchronized (this) {
+            bound = registry;
+            if (bound == null) {
+                if (pending.size() < MAX_PENDING) {
+                    pending.add(event);
+                }
+                return;
+            }
+        }
+        event.accept(bound);
+    }
+
+    private Tags tags(DB db) {
+        return Tags.of(tags).and("port", Integer.toString(db.getConfiguration().getPort()));
+    }
+
+    private Timer timer(MeterRegistry registry, String name, DB db, boolean success) {
+        return Timer.builder(name)
+                .tags(tags(db))
+                .tag("outcome", success ? "success" : "failure")
+                .register(registry);
+    }
+
+    private void lifecycle(DB db, String phase, Duration duration, boolean success) {
+        record(
+                r ->
+                        Timer.builder("mariadb4j.lifecycle")
+                                .description("Time taken to install, start or stop the database")
+                                .tags(tags(db))
+                                .tag("phase", phase)
+                                .tag("outcome", success ? "success" : "failure")
+                                .register(r)
+                                .record(duration));
+    }
+
+    @Override
+    public void onInstall(DB db, Duration duration, boolean success) {
+        lifecycle(db, "install", duration, success);
+    }
+
+    @Override
+    public void onStart(DB db, Duration duration, boolean success) {
+        lifecycle(db, "start", duration, success);
+        if (success) {
+            startSampling(db);
+        }
+    }
+
+    @Override
+    public void onStop(DB db, Duration duration) {
+        stopSampling(db);
+        lifecycle(db, "stop", duration, true);
+    }
+
+    @Override
+    public void onCrash(DB db, int exitValue) {
+        stopSampling(db);
+        record(
+                r ->
+                        Counter.builder("mariadb4j.crashes")
+                                .description("Times mysqld exited while the database was running")
+                                .tags(tags(db))
+                                .register(r)
+                                .increment());
+    }
+
+    @Override
+    public void onRestart(DB db, int attempt, Duration downtime, boolean success) {
+        record(
+                r ->
+                        Timer.builder("mariadb4j.restart")
+                                .description("Downtime from a crash until mysqld was restarted")
+                                .tags(tags(db))
+                                .tag("outcome", success ? "success" : "failure")
+                                .register(r)
+                                .record(downtime));
+    }
+
+    @Override
+    public void onRun(DB db, Duration duration, boolean success) {
+        record(r -> timer(r, "mariadb4j.run", db, success).record(duration));
+    }
+
+    @Override
+    public void onSource(DB db, Duration duration, boolean success) {
+        record(r -> timer(r, "mariadb4j.source", db, success).record(duration));
+    }
+
+    @Override
+    public void onDump(DB db, File outputFile, long bytes, boolean success) {
+        record(
+                r ->
+                        DistributionSummary.builder("mariadb4j.dump")
+                                .description("Size of database dumps")
+                                .baseUnit(BaseUnits.BYTES)
+                                .tags(tags(db))
+                                .tag("outcome", success ? "success" : "failure")
+                                .register(r)
+                                .record((double) bytes));
+    }
+
+    @Override
+    public void onReplicationWait(DB replica, Duration duration, boolean success) {
+        record(
+                r ->
+                        Timer.builder("mariadb4j.replication.wait")
+                                .description("Time taken by replicas to catch up with the primary")
+                                .publishPercentileHistogram()
+                                .tags(tags(replica))
+                                .tag("outcome", success ? "success" : "failure")
+                                .register(r)
+                                .record(duration));
+    }
+
+    private synchronized void startSampling(DB db) {
+        if (statusInterval.isZero() || samplers.containsKey(db)) {
+            return;
+        }
+        if (scheduler == null) {
+            scheduler =
+                    Executors.newSingleThreadScheduledExecutor(
+                            Util.newThreadFactory("MariaDB4j-status-sampler"));
+        }
+        GlobalStatusSampler sampler = new GlobalStatusSampler(db, tags(db), username, password);
+        sampler.future =
+                scheduler.scheduleWithFixedDelay(
+                        sampler::sample, 0, statusInterval.toMillis(), TimeUnit.MILLISECONDS);
+        samplers.put(db, sampler);
+        record(sampler::register);
+    }
+
+    private void stopSampling(DB db) {
+        GlobalStatusSampler sampler = samplers.remove(db);
+        if (sampler != null) {
+            sampler.future.cancel(false);
+            record(sampler::unregister);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        for (DB db : new ArrayList<>(samplers.keySet())) {
+            stopSampling(db);
+        }
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        logger.debug("Closed");
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j.micrometer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class MariaDB4jMetricsTest {
+
+    private final DB db = new DB(DBConfigurationBuilder.newBuilder().setPort(13306).build()) {};
+
+    @Test
+    public void eventsBeforeBindToAreRecorded() {
+        MariaDB4jMetrics metrics = new MariaDB4jMetrics(Duration.ZERO, Tags.of("app", "test"));
+        metrics.onInstall(db, Duration.ofMillis(300), true);
+        metrics.onRun(db, Duration.ofMillis(5), true);
+        metrics.onRun(db, Duration.ofMillis(7), false);
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        metrics.bindTo(registry);
+        metrics.onSource(db, Duration.ofMillis(11), true);
+        metrics.onDump(db, new File("dump.sql"), 1_024, true);
+
+        assertEquals(
+                1,
+                registry.get("mariadb4j.lifecycle")
+                        .tags("phase", "install", "port", "13306", "app", "test")
+                        .timer()
+                        .count());
+        assertEquals(1, registry.get("mariadb4j.run").tag("outcome", "success").timer().count());
+        assertEquals(1, registry.get("mariadb4j.run").tag("outcome", "failure").timer().count());
+        assertEquals(1, registry.get("mariadb4j.source").timer().count());
+        assertEquals(1_024.0, registry.get("mariadb4j.dump").summary().totalAmount(), 0.0);
+        metrics.close();
+    }
+
+    @Test
+    public void replicationWaitHistogram() {
+        MariaDB4jMetrics metrics = new MariaDB4jMetrics(Duration.ZERO, Tags.empty());
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        metrics.bindTo(registry);
+        metrics.onReplicationWait(db, Duration.ofMillis(3), true);
+        metrics.onReplicationWait(db, Duration.ofMillis(40), true);
+
+        Timer timer = registry.get("mariadb4j.replication.wait").tag("port", "13306").timer();
+        assertEquals(2, timer.count());
+        assertEquals(40.0, timer.max(TimeUnit.MILLISECONDS), 0.0);
+        metrics.close();
+    }
+
+    @Test
+    public void crashesAndRestarts() {
+        MariaDB4jMetrics metrics = new MariaDB4jMetrics(Duration.ZERO, Tags.empty());
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        metrics.bindTo(registry);
+        metrics.onCrash(db, 137);
+        metrics.onRestart(db, 1, Duration.ofMillis(1500), false);
+        metrics.onRestart(db, 2, Duration.ofSeconds(4), true);
+
+        assertEquals(1.0, registry.get("mariadb4j.crashes").counter().count(), 0.0);
+        Timer restarts =
+                registry.get("mariadb4j.restart")
+                        .tag("outcome", "success")
+                        .tag("port", "13306")
+                        .timer();
+        assertEquals(1, restarts.count());
+        assertEquals(4000.0, restarts.totalTime(TimeUnit.MILLISECONDS), 0.0);
+        metrics.close();
+    }
+
+    @Test
+    public void statusParsingAndBufferPoolHitRatio() {
+        GlobalStatusSampler sampler = new GlobalStatusSampler(db, Tags.empty(), null, null);
+        Map<String, Double> status =
+                GlobalStatusSampler.parse(
+                        List.of(
+                                new String[] {"Innodb_buffer_pool_read_requests", "1000"},
+                                new String[] {"Innodb_buffer_pool_reads", "50"},
+                                new String[] {"Rpl_status", "AUTH_MASTER"}));
+        assertEquals(2, status.size());
+        assertNull(status.get("Rpl_status"));
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        sampler.register(registry);
+        assertNotNull(
+                registry.get("mariadb4j.status.innodb.rows")
+                        .tag("operation", "read")
+                        .functionCounter());
+        assertEquals(
+                Double.NaN,
+                registry.get("mariadb4j.status.innodb.buffer.pool.hit.ratio").gauge().value(),
+                0.0);
+        sampler.unregister(registry);
+        assertEquals(0, registry.getMeters().size());
+    }
+}
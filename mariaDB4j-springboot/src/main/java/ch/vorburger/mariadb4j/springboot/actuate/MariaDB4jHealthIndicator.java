@@ -0,0 +1,180 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j.springboot.actuate;
+
+import ch.vorburger.exec.ManagedProcessException;
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfiguration;
+import ch.vorburger.mariadb4j.springframework.MariaDB4jSpringService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * {@link HealthIndicator} for the DB of a {@link MariaDB4jSpringService}.
+ *
+ * <p>It pings the server through its socket, which is cheap, and reports the latency of that, and
+ * the server version; as well as the uptime and connection counts from SHOW GLOBAL STATUS, and the
+ * size of the data directory. The result is cached for a short time to live, so that frequent
+ * health probes do not add load. A {@link MariaDB4jSpringService#LAZY} DB which was not used yet is
+ * reported as up, without starting it.
+ */
+public class MariaDB4jHealthIndicator implements HealthIndicator {
+
+    private static final Logger logger = LoggerFactory.getLogger(MariaDB4jHealthIndicator.class);
+
+    public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofSeconds(5);
+
+    private final MariaDB4jSpringService service;
+    private final Duration timeToLive;
+
+    private Health cached;
+    private long cachedAtNanos;
+    private volatile String version;
+
+    public MariaDB4jHealthIndicator(MariaDB4jSpringService service) {
+        this(service, DEFAULT_TIME_TO_LIVE);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param service the MariaDB4jSpringService to check
+     * @param timeToLive how long to cache the result for, or Duration.ZERO to not cache it
+     */
+    public MariaDB4jHealthIndicator(MariaDB4jSpringService service, Duration timeToLive) {
+        this.service = service;
+        this.timeToLive = timeToLive;
+    }
+
+    @Override
+    public synchronized Health health() {
+        long now = System.nanoTime();
+        if (cached == null || now - cachedAtNanos >= timeToLive.toNanos()) {
+            cached = check();
+            cachedAtNanos = now;
+        }
+        return cached;
+    }
+
+    /**
+     * The server version, as reported by the last successful ping.
+     *
+     * @return e.g. "11.4.5-MariaDB", or null if not yet known
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    private Health check() {
+        if (!service.isStarted()) {
+            if (service.isLazy() && !service.isStartRequested()) {
+                // Not needed yet, but can be started on demand
+                return Health.up().withDetail("state", "lazy").build();
+            }
+            ManagedProcessException lastException = service.getLastException();
+            if (lastException != null) {
+                return Health.down(lastException).build();
+            }
+            return Health.outOfService().withDetail("state", "starting").build();
+        }
+        DBConfiguration configuration = service.getConfiguration();
+        ServerPing ping;
+        try {
+            ping = ServerPing.ping(configuration);
+        } catch (IOException e) {
+            return Health.down(e).withDetail("port", configuration.getPort()).build();
+        }
+        version = ping.version;
+        Health.Builder health =
+                Health.up()
+                        .withDetail("port", configuration.getPort())
+                        .withDetail("version", ping.version)
+                        .withDetail("latency", ping.latency.toNanos() / 1_000_000.0 + "ms")
+                        .withDetail(
+                                "dataDirSize", dataDirSize(configuration.getDataDir().toPath()));
+        if (service.getSchema() != null) {
+            health.withDetail("schema", service.getSchema());
+        }
+        addStatus(health);
+        return health.build();
+    }
+
+    private void addStatus(Health.Builder health) {
+        try {
+            DB db = service.awaitStarted();
+            for (String[] row :
+                    db.query(
+                            "SELECT VARIABLE_NAME, VARIABLE_VALUE FROM information_schema.GLOBAL_STATUS"
+                                    + " WHERE VARIABLE_NAME IN"
+                                    + " ('UPTIME', 'THREADS_CONNECTED', 'MAX_USED_CONNECTIONS')"
+                                    + " UNION SELECT 'MAX_CONNECTIONS', @@max_connections")) {
+                String name = row[0].toLowerCase(Locale.ROOT);
+                switch (name) {
+                    case "uptime" -> health.withDetail("uptime", row[1] + "s");
+                    case "threads_connected" -> health.withDetail("connections", toLong(row[1]));
+                    case "max_used_connections" ->
+                            health.withDetail("maxUsedConnections", toLong(row[1]));
+                    case "max_connections" -> health.withDetail("maxConnections", toLong(row[1]));
+                    default -> {}
+                }
+            }
+        } catch (ManagedProcessException | RuntimeException e) {
+            // The ping already showed that it's up; e.g. security may be enabled
+            logger.debug("Could not read GLOBAL_STATUS for health details", e);
+        }
+    }
+
+    private static Object toLong(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return value;
+        }
+    }
+
+    static long dataDirSize(Path dataDir) {
+        try (Stream<Path> files = Files.walk(dataDir)) {
+            return files.filter(Files::isRegularFile)
+                    .mapToLong(
+                            file -> {
+                                try {
+                                    return Files.size(file);
+                                } catch (IOException e) {
+                                    // e.g. deleted while walking
+                                    return 0;
+                                }
+                            })
+                    .sum();
+        } catch (IOException | RuntimeException e) {
+            logger.debug("Could not compute size of {}", dataDir, e);
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j.springboot.actuate;
+
+import ch.vorburger.mariadb4j.DBConfiguration;
+import ch.vorburger.mariadb4j.springframework.MariaDB4jSpringService;
+
+import org.springframework.boot.actuate.info.Info;
+import org.springframework.boot.actuate.info.InfoContributor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@link InfoContributor} with the binaries and the configuration of the DB of a {@link
+ * MariaDB4jSpringService}, and the server version if the {@link MariaDB4jHealthIndicator} already
+ * pinged it.
+ */
+public class MariaDB4jInfoContributor implements InfoContributor {
+
+    private final MariaDB4jSpringService service;
+    private final MariaDB4jHealthIndicator healthIndicator;
+
+    /**
+     * Constructor.
+     *
+     * @param service the MariaDB4jSpringService to describe
+     * @param healthIndicator the MariaDB4jHealthIndicator for the version, or null
+     */
+    public MariaDB4jInfoContributor(
+            MariaDB4jSpringService service, MariaDB4jHealthIndicator healthIndicator) {
+        this.service = service;
+        this.healthIndicator = healthIndicator;
+    }
+
+    @Override
+    public void contribute(Info.Builder builder) {
+        Map<String, Object> info = new LinkedHashMap<>();
+        DBConfiguration configuration;
+        try {
+            configuration = service.getConfiguration();
+        } catch (IllegalStateException e) {
+            info.put("state", "not started");
+            builder.withDetail("mariaDB4j", info);
+            return;
+        }
+        if (healthIndicator != null && healthIndicator.getVersion() != null) {
+            info.put("version", healthIndicator.getVersion());
+        }
+        if (configuration.getBinariesClassPathLocation() != null) {
+            info.put("binaries", configuration.getBinariesClassPathLocation());
+        }
+        info.put("port", configuration.getPort());
+        if (!configuration.isWindows()) {
+            info.put("socket", configuration.getSocket());
+        }
+        info.put("baseDir", configuration.getBaseDir().toString());
+        info.put("dataDir", configuration.getDataDir().toString());
+        info.put("tmpDir", configuration.getTmpDir().toString());
+        info.put("args", configuration.getArgs());
+        info.put("securityDisabled", configuration.isSecurityDisabled());
+        info.put("shared", service.isShared());
+        if (service.getSchema() != null) {
+            info.put("schema", service.getSchema());
+        }
+        builder.withDetail("mariaDB4j", info);
+    }
+}
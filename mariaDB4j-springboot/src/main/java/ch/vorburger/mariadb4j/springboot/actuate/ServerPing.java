@@ -0,0 +1,96 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j.springboot.actuate;
+
+import ch.vorburger.mariadb4j.DBConfiguration;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * Cheap check whether the server accepts connections: it connects, reads the initial handshake
+ * packet which the server sends to every new client (which contains its version), and disconnects,
+ * without authenticating. The server counts this in its Aborted_connects status.
+ */
+/* Intentionally package private, not public */
+final class ServerPing {
+
+    /** Prefix which MariaDB adds to its version in the handshake, for old MySQL clients. */
+    private static final String RPL_VERSION_HACK = "5.5.5-";
+
+    private static final int TIMEOUT_MS = 1000;
+
+    final String version;
+    final Duration latency;
+
+    private ServerPing(String version, Duration latency) {
+        this.version = version;
+        this.latency = latency;
+    }
+
+    /**
+     * Pings the server through its TCP port.
+     *
+     * @param configuration the DBConfiguration of the server
+     * @return the version and latency
+     * @throws IOException if the server did not send a handshake
+     */
+    static ServerPing ping(DBConfiguration configuration) throws IOException {
+        long startNanos = System.nanoTime();
+        String version;
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress("localhost", configuration.getPort()), TIMEOUT_MS);
+            socket.setSoTimeout(TIMEOUT_MS);
+            version = readHandshake(socket.getInputStream());
+        }
+        return new ServerPing(version, Duration.ofNanos(System.nanoTime() - startNanos));
+    }
+
+    static String readHandshake(InputStream is) throws IOException {
+        DataInputStream in = new DataInputStream(is);
+        byte[] header = new byte[4];
+        in.readFully(header);
+        int length = (header[0] & 0xFF) | (header[1] & 0xFF) << 8 | (header[2] & 0xFF) << 16;
+        byte[] payload = new byte[length];
+        in.readFully(payload);
+        if (length > 0 && (payload[0] & 0xFF) == 0xFF) {
+            // ERR packet: 0xFF, 2 bytes error code, then the message
+            throw new IOException(
+                    "Server refused connection: "
+                            + new String(payload, 3, length - 3, StandardCharsets.UTF_8));
+        }
+        if (length == 0 || payload[0] != 10) {
+            throw new IOException("Not a protocol version 10 handshake");
+        }
+        int end = 1;
+        while (end < length && payload[end] != 0) {
+            end++;
+        }
+        String version = new String(payload, 1, end - 1, StandardCharsets.US_ASCII);
+        return version.startsWith(RPL_VERSION_HACK)
+                ? version.substring(RPL_VERSION_HACK.length())
+                : version;
+    }
+}
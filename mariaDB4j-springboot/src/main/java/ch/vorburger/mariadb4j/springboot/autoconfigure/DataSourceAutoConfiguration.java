@@ -19,12 +19,28 @@
  */
 package ch.vorburger.mariadb4j.springboot.autoconfigure;
 
+import ch.vorburger.exec.ManagedProcessException;
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfiguration;
+import ch.vorburger.mariadb4j.springframework.MariaDB4jSpringService;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
 import org.springframework.boot.context.properties.ConfigurationProperties;
-import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.context.annotation.DependsOn;
+import org.springframework.core.env.Environment;
+
+import java.io.File;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import javax.sql.DataSource;
 
@@ -33,14 +49,154 @@ import javax.sql.DataSource;
 @ConfigurationProperties("spring.datasource")
 public class DataSourceAutoConfiguration {
 
+    private static final Logger logger = LoggerFactory.getLogger(DataSourceAutoConfiguration.class);
+
+    /** Connections of max_connections left for others, e.g. DB.run() and the metrics sampler. */
+    static final int RESERVED_CONNECTIONS = 10;
+
+    /** MariaDB's default max_connections, used if it cannot be read. */
+    private static final int DEFAULT_MAX_CONNECTIONS = 151;
+
+    /** Connections which the pool keeps open while idle; it opens more on demand. */
+    static final int MINIMUM_IDLE = 2;
+
+    /**
+     * Maximum pool size of each context in the {@link MariaDB4jSpringService#SHARED} mode, where
+     * many contexts share the max_connections of one server.
+     */
+    static final int SHARED_POOL_SIZE = 5;
+
+    /**
+     * HikariCP pool for the embedded DB. It can be injected right away, but blocks on its first use
+     * until the DB, which is starting in the background, is ready; see {@link MariaDB4jDataSource}.
+     * The pool is created as soon as the DB is ready.
+     *
+     * <p>Unless spring.datasource.url is set, the URL is that of the {@link
+     * DBConfiguration#getURL(String)} for the spring.datasource.name database (which is created if
+     * needed), connecting through the UNIX socket if not on Windows. The pool can grow to the
+     * server's max_connections, less {@link #RESERVED_CONNECTIONS}, but only keeps {@link
+     * #MINIMUM_IDLE} idle connections open; this and any other HikariCP setting can be overridden
+     * with spring.datasource.hikari.* properties. In the {@link MariaDB4jSpringService#SHARED}
+     * mode, the URL is that of the schema of this context, and the pool only has up to {@link
+     * #SHARED_POOL_SIZE} connections, which are not opened up front. In the {@link
+     * MariaDB4jSpringService#LAZY} mode, its first use is what starts the DB.
+     */
     @Bean
-    @DependsOn("mariaDB4j")
-    public DataSource dataSource(DataSourceProperties dataSourceProperties) {
-        return DataSourceBuilder.create()
-                .driverClassName(dataSourceProperties.getDriverClassName())
-                .url(dataSourceProperties.getUrl())
-                .username(dataSourceProperties.getUsername())
-                .password(dataSourceProperties.getPassword())
-                .build();
+    public DataSource dataSource(
+            DataSourceProperties dataSourceProperties,
+            MariaDB4jSpringService mariaDB4j,
+            Environment environment) {
+        MariaDB4jDataSource dataSource =
+                new MariaDB4jDataSource(
+                        mariaDB4j, () -> newPool(dataSourceProperties, mariaDB4j, environment));
+        if (mariaDB4j.isLazy() || mariaDB4j.isShared()) {
+            // The first getConnection() starts the DB, or respectively creates the pool
+            return dataSource;
+        }
+        CompletableFuture<Void> unused =
+                mariaDB4j
+                        .startAsync()
+                        .thenRun(
+                                () -> {
+                                    try {
+                                        dataSource.getTargetDataSource();
+                                    } catch (SQLException | RuntimeException e) {
+                                        logger.warn("Could not pre-fill DataSource pool", e);
+                                    }
+                                });
+        return dataSource;
+    }
+
+    static HikariDataSource newPool(
+            DataSourceProperties properties,
+            MariaDB4jSpringService mariaDB4j,
+            Environment environment) {
+        DB db;
+        try {
+            db = mariaDB4j.awaitStarted();
+        } catch (ManagedProcessException e) {
+            throw new IllegalStateException("Embedded MariaDB4j database is not started", e);
+        }
+        String username = properties.getUsername() != null ? properties.getUsername() : "root";
+        String password = properties.getPassword();
+        String url = properties.getUrl();
+        if (mariaDB4j.getSchema() != null) {
+            // Shared mode, where the schema of this context was already created
+            url = url(mariaDB4j.getConfiguration(), mariaDB4j.getSchema());
+        } else if (url == null) {
+            String dbName = properties.getName() != null ? properties.getName() : "";
+            if (!dbName.isEmpty()) {
+                try {
+                    db.createDB(dbName, username, password);
+                } catch (ManagedProcessException e) {
+                    throw new IllegalStateException("Could not create database " + dbName, e);
+                }
+            }
+            url = url(mariaDB4j.getConfiguration(), dbName);
+        }
+
+        HikariConfig hikari = new HikariConfig();
+        hikari.setPoolName("MariaDB4j");
+        hikari.setJdbcUrl(url);
+        if (properties.getDriverClassName() != null) {
+            hikari.setDriverClassName(properties.getDriverClassName());
+        }
+        hikari.setUsername(username);
+        hikari.setPassword(password);
+        if (mariaDB4j.isShared()) {
+            sizeSharedPool(hikari);
+        } else {
+            sizePool(hikari, maxConnections(db, username, password));
+        }
+        // Options of the MariaDB driver (org.mariadb.jdbc.Configuration); useBulkStmts is its
+        // equivalent of MySQL Connector/J's rewriteBatchedStatements
+        hikari.addDataSourceProperty("useServerPrepStmts", "true");
+        hikari.addDataSourceProperty("cachePrepStmts", "true");
+        hikari.addDataSourceProperty("prepStmtCacheSize", "250");
+        hikari.addDataSourceProperty("useBulkStmts", "true");
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(hikari));
+        logger.info(
+                "Creating DataSource pool of up to {} connections to {}",
+                hikari.getMaximumPoolSize(),
+                url);
+        return new HikariDataSource(hikari);
+    }
+
+    /**
+     * Sizes the pool to the max_connections of the server, less {@link #RESERVED_CONNECTIONS}, but
+     * without opening that many connections up front.
+     */
+    static void sizePool(HikariConfig hikari, int maxConnections) {
+        int poolSize = Math.max(1, maxConnections - RESERVED_CONNECTIONS);
+        hikari.setMaximumPoolSize(poolSize);
+        hikari.setMinimumIdle(Math.min(poolSize, MINIMUM_IDLE));
+    }
+
+    /**
+     * Sizes the pool of one of the many contexts sharing a server to {@link #SHARED_POOL_SIZE}, and
+     * keeps no idle connections, so that contexts which are cached but not used don't hold any.
+     */
+    static void sizeSharedPool(HikariConfig hikari) {
+        hikari.setMaximumPoolSize(SHARED_POOL_SIZE);
+        hikari.setMinimumIdle(0);
+    }
+
+    static String url(DBConfiguration configuration, String dbName) {
+        String url = configuration.getURL(dbName);
+        if (configuration.isWindows() || configuration.getSocket() == null) {
+            return url;
+        }
+        String socket = new File(configuration.getSocket()).getAbsolutePath();
+        return url + (url.contains("?") ? "&" : "?") + "localSocket=" + socket;
+    }
+
+    private static int maxConnections(DB db, String username, String password) {
+        try {
+            List<String[]> rows = db.query("SELECT @@max_connections", username, password, null);
+            return Integer.parseInt(rows.get(0)[0]);
+        } catch (ManagedProcessException | RuntimeException e) {
+            logger.warn("Could not read max_connections, assuming {}", DEFAULT_MAX_CONNECTIONS, e);
+            return DEFAULT_MAX_CONNECTIONS;
+        }
     }
 }
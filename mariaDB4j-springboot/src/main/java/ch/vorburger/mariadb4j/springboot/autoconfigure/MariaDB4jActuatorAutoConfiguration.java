@@ -0,0 +1,65 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j.springboot.autoconfigure;
+
+import ch.vorburger.mariadb4j.springboot.actuate.MariaDB4jHealthIndicator;
+import ch.vorburger.mariadb4j.springboot.actuate.MariaDB4jInfoContributor;
+import ch.vorburger.mariadb4j.springframework.MariaDB4jSpringService;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+
+import java.time.Duration;
+
+/**
+ * Health and info for the embedded DB of the MariaDB4jSpringService, if Spring Boot Actuator is on
+ * the classpath. Set <code>management.health.mariaDB4j.enabled=false</code> or <code>
+ * management.info.mariaDB4j.enabled=false</code> to disable them, and <code>
+ * mariaDB4j.health.timeToLive</code> to change how long a health check result is cached.
+ */
+@AutoConfiguration
+@ConditionalOnClass(name = "org.springframework.boot.actuate.health.HealthIndicator")
+@ConditionalOnBean(MariaDB4jSpringService.class)
+public class MariaDB4jActuatorAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "management.health.mariaDB4j.enabled", matchIfMissing = true)
+    public MariaDB4jHealthIndicator mariaDB4jHealthIndicator(
+            MariaDB4jSpringService mariaDB4j,
+            @Value("${mariaDB4j.health.timeToLive:5s}") Duration timeToLive) {
+        return new MariaDB4jHealthIndicator(mariaDB4j, timeToLive);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "management.info.mariaDB4j.enabled", matchIfMissing = true)
+    public MariaDB4jInfoContributor mariaDB4jInfoContributor(
+            MariaDB4jSpringService mariaDB4j,
+            ObjectProvider<MariaDB4jHealthIndicator> healthIndicator) {
+        return new MariaDB4jInfoContributor(mariaDB4j, healthIndicator.getIfAvailable());
+    }
+}
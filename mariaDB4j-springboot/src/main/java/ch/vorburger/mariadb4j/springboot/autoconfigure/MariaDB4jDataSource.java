@@ -0,0 +1,170 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j.springboot.autoconfigure;
+
+import ch.vorburger.exec.ManagedProcessException;
+import ch.vorburger.mariadb4j.springframework.MariaDB4jSpringService;
+
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+/**
+ * DataSource which waits for the DB of a {@link MariaDB4jSpringService} to be started only on its
+ * first use, typically the first {@link #getConnection()}, and then delegates to a DataSource
+ * created at that time. This lets the DataSource bean be injected while the DB is still starting in
+ * the background.
+ */
+public class MariaDB4jDataSource implements DataSource, AutoCloseable {
+
+    private final MariaDB4jSpringService service;
+    private final Supplier<DataSource> targetFactory;
+    private volatile DataSource target;
+    private boolean closed;
+
+    /**
+     * Constructor.
+     *
+     * @param service the MariaDB4jSpringService to wait for
+     * @param targetFactory creates the DataSource to delegate to, once the DB is started
+     */
+    public MariaDB4jDataSource(MariaDB4jSpringService service, Supplier<DataSource> targetFactory) {
+        this.service = service;
+        this.targetFactory = targetFactory;
+    }
+
+    /**
+     * Waits for the DB to be started, and creates the target DataSource if not yet done.
+     *
+     * @return the DataSource this delegates to
+     * @throws SQLException if the DB could not be started
+     */
+    public DataSource getTargetDataSource() throws SQLException {
+        DataSource current = target;
+        if (current != null) {
+            return current;
+        }
+        try {
+            service.awaitStarted();
+        } catch (ManagedProcessException e) {
+            throw new SQLException("Embedded MariaDB4j database could not be started", e);
+        }
+        synchronized (this) {
+            if (closed) {
+                throw new SQLException("DataSource is closed");
+            }
+            if (target == null) {
+                target = targetFactory.get();
+            }
+            return target;
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return getTargetDataSource().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return getTargetDataSource().getConnection(username, password);
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return getTargetDataSource().getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        getTargetDataSource().setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        getTargetDataSource().setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return getTargetDataSource().getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        DataSource current = target;
+        if (current == null) {
+            throw new SQLFeatureNotSupportedException("DB not yet started");
+        }
+        return current.getParentLogger();
+    }
+
+    /**
+     * Unwraps this, or the target DataSource once created. This does not start the DB, nor wait for
+     * it, because Spring Boot probes every DataSource like this while the context starts, e.g. for
+     * pool metrics and health indicators.
+     */
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        DataSource current = target;
+        if (current == null) {
+            throw new SQLException(
+                    "Cannot unwrap " + iface.getName() + " before the DB was started and used");
+        }
+        return current.unwrap(iface);
+    }
+
+    /**
+     * Whether this, or the target DataSource once created, wraps iface; so false for e.g. the pool
+     * before the first connection. Like {@link #unwrap(Class)}, this neither starts nor waits for
+     * the DB.
+     */
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return true;
+        }
+        DataSource current = target;
+        return current != null && current.isWrapperFor(iface);
+    }
+
+    /** Closes the target DataSource, if it was created and is closeable, e.g. a pool. */
+    @Override
+    public synchronized void close() throws SQLException {
+        closed = true;
+        if (target instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (SQLException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new SQLException("Closing the target DataSource failed", e);
+            }
+        }
+    }
+}
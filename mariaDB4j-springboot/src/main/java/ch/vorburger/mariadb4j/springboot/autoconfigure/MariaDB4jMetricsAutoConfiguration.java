@@ -0,0 +1,51 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j.springboot.autoconfigure;
+
+import ch.vorburger.mariadb4j.micrometer.MariaDB4jMetrics;
+
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Binds the embedded DB of the MariaDB4jSpringService to Micrometer, if it is on the classpath.
+ *
+ * <p>The {@link MariaDB4jMetrics} bean is a MeterBinder, which Spring Boot Actuator binds to its
+ * MeterRegistry; it is also picked up by the MariaDB4jSpringService as a DBListener. Set <code>
+ * mariaDB4j.metrics.enabled=false</code> to disable it.
+ */
+@AutoConfiguration
+@ConditionalOnClass(
+        name = {
+            "io.micrometer.core.instrument.MeterRegistry",
+            "ch.vorburger.mariadb4j.micrometer.MariaDB4jMetrics"
+        })
+@ConditionalOnProperty(name = "mariaDB4j.metrics.enabled", matchIfMissing = true)
+public class MariaDB4jMetricsAutoConfiguration {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean
+    public MariaDB4jMetrics mariaDB4jMetrics() {
+        return new MariaDB4jMetrics();
+    }
+}
@@ -23,15 +23,29 @@ import ch.vorburger.exec.ManagedProcessException;
 import ch.vorburger.mariadb4j.DB;
 import ch.vorburger.mariadb4j.DBConfiguration;
 import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+import ch.vorburger.mariadb4j.DBListener;
+import ch.vorburger.mariadb4j.Util;
 
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
-import org.springframework.context.Lifecycle;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.context.SmartLifecycle;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.MapPropertySource;
 
 import java.io.File;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 
 /**
  * MariaDB4j Lifecycle suitable for use in Spring Framework-based applications.
@@ -40,12 +54,33 @@ import java.util.Objects;
  * mariaDB4j.socket, mariaDB4j.dataDir, mariaDB4j.baseDir; so e.g. via -D or (if using Spring Boot)
  * main() command line arguments.
  *
+ * <p>The DB is unpacked, installed and started on a background thread as soon as this bean's
+ * configuration is bound, so that it boots while the rest of the application context is created.
+ * The {@link #start()} of this {@link SmartLifecycle}, which runs in an early {@link #PHASE}, then
+ * waits for it to be ready (and fails if it could not be started). Beans which need the DB earlier
+ * can use {@link #awaitStarted()}, or the lazy DataSource of the DataSourceAutoConfiguration.
+ *
+ * <p>With {@link #LAZY mariaDB4j.lazy=true}, only the configuration (including a free port, if none
+ * is set) is determined up front, and the DB is unpacked, installed and started on the first {@link
+ * #awaitStarted()} or {@link #startAsync()}, e.g. by the first connection of that DataSource; so
+ * contexts which never use the DB don't pay for starting it.
+ *
+ * <p>With {@link #SHARED mariaDB4j.shared=true}, all contexts in the JVM (e.g. the cached contexts
+ * of a test suite) share one DB, which is stopped when the last of them is stopped; each context
+ * gets its own schema, see {@link #getSchema()}, and spring.datasource.url is set to it.
+ *
  * <p>See MariaDB4jService for a similar class which can be used outside of Spring.
  *
  * @author Michael Vorburger
  */
 @Configuration
-public class MariaDB4jSpringService implements Lifecycle {
+public class MariaDB4jSpringService implements SmartLifecycle, InitializingBean, EnvironmentAware {
+
+    /**
+     * Lifecycle phase of this service; early, so that the DB is started before (and stopped after)
+     * other lifecycle beans, such as web servers, which use it.
+     */
+    public static final int PHASE = Integer.MIN_VALUE + 1000;
 
     /** Constant <code>PORT="mariaDB4j.port"</code>. */
     public static final String PORT = "mariaDB4j.port";
@@ -74,11 +109,24 @@ public class MariaDB4jSpringService implements Lifecycle {
     /** Constant <code>DEFAULT_CHARSET="mariaDB4j.defaultCharset"</code>. */
     public static final String DEFAULT_CHARSET = "mariaDB4j.defaultCharset";
 
+    /** Constant <code>SHARED="mariaDB4j.shared"</code>. */
+    public static final String SHARED = "mariaDB4j.shared";
+
+    /** Constant <code>LAZY="mariaDB4j.lazy"</code>. */
+    public static final String LAZY = "mariaDB4j.lazy";
+
     private final DBConfigurationBuilder builder = DBConfigurationBuilder.newBuilder();
 
-    private DB db = null;
+    private final Executor startExecutor =
+            runnable -> Util.newThreadFactory("MariaDB4j-start").newThread(runnable).start();
+
+    private volatile CompletableFuture<DB> startup = null;
     private DBConfiguration configuration = null;
-    private ManagedProcessException lastException;
+    private volatile ManagedProcessException lastException;
+    private boolean shared;
+    private boolean lazy;
+    private String schema;
+    private Environment environment;
 
     @Value("${" + MariaDB4jSpringService.PORT + ":-1}")
     public void setDefaultPort(int port) {
@@ -126,22 +174,182 @@ public class MariaDB4jSpringService implements Lifecycle {
         if (!Objects.equals(charset, "NA")) builder.setDefaultCharacterSet(charset);
     }
 
+    @Value("${" + MariaDB4jSpringService.SHARED + ":false}")
+    public void setShared(boolean shared) {
+        this.shared = shared;
+    }
+
+    public boolean isShared() {
+        return shared;
+    }
+
+    /**
+     * Whether to start the DB only when it is first needed, instead of in the background right
+     * away. This is ignored in {@link #SHARED} mode, where spring.datasource.url must be set before
+     * the shared DB (and so its port) is known.
+     *
+     * @param lazy true to defer starting the DB until its first use
+     */
+    @Value("${" + MariaDB4jSpringService.LAZY + ":false}")
+    public void setLazy(boolean lazy) {
+        this.lazy = lazy;
+    }
+
+    public boolean isLazy() {
+        return lazy && !shared;
+    }
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Autowired(required = false)
+    public void setListeners(List<DBListener> listeners) {
+        listeners.forEach(builder::addListener);
+    }
+
+    /**
+     * The started DB. This bean is lazy, because it blocks until the DB is ready.
+     *
+     * @return the started DB
+     * @throws ManagedProcessException if the DB could not be started
+     */
     @Bean
+    @Lazy
     @ConditionalOnMissingBean
     public DB mariaDB4j() throws ManagedProcessException {
-        if (db == null) {
-            configuration = builder.build();
-            db = DB.newEmbeddedDB(configuration);
-            db.start();
+        return awaitStarted();
+    }
+
+    /**
+     * Begins starting the DB in the background, as soon as the configuration is bound; or, if
+     * {@link #isLazy()}, only builds the configuration, so that its URL is already known.
+     */
+    @Override
+    public synchronized void afterPropertiesSet() {
+        if (isLazy()) {
+            if (configuration == null) {
+                configuration = builder.build();
+            }
+            return;
         }
-        return db;
+        // Failures are reported by start() and awaitStarted()
+        CompletableFuture<DB> unused = startAsync();
     }
 
-    /** {@inheritDoc} */
+    /**
+     * Whether starting the DB has begun, i.e. it is starting, running or failed to start. This is
+     * only false before the first use of a {@link #isLazy()} service, and after {@link #stop()}.
+     *
+     * @return true if the DB was asked to start
+     */
+    public boolean isStartRequested() {
+        return startup != null;
+    }
+
+    /**
+     * Begins to unpack, install and start the DB on a background thread, unless that already
+     * happened.
+     *
+     * @return a future which completes with the started DB
+     */
+    public synchronized CompletableFuture<DB> startAsync() {
+        if (startup == null) {
+            if (configuration == null) {
+                configuration = builder.build();
+            }
+            if (shared) {
+                startup = startShared();
+            } else {
+                startup = startInBackground(configuration);
+            }
+        }
+        return startup;
+    }
+
+    /* Package private, not private, only for tests */
+    CompletableFuture<DB> startInBackground(DBConfiguration config) {
+        return CompletableFuture.supplyAsync(
+                () -> {
+                    try {
+                        DB newDB = DB.newEmbeddedDB(config);
+                        newDB.start();
+                        return newDB;
+                    } catch (ManagedProcessException e) {
+                        lastException = e;
+                        throw new IllegalStateException("MariaDB4jSpringService start failed", e);
+                    }
+                },
+                startExecutor);
+    }
+
+    private CompletableFuture<DB> startShared() {
+        CompletableFuture<DB> sharedStartup =
+                SharedDB.acquire(configuration, this::startInBackground);
+        configuration = SharedDB.getConfiguration();
+        if (schema == null) {
+            schema = SharedDB.newSchemaName("context");
+        }
+        if (environment instanceof ConfigurableEnvironment configurable) {
+            configurable
+                    .getPropertySources()
+                    .addFirst(
+                            new MapPropertySource(
+                                    "mariaDB4jSharedSchema",
+                                    Map.of("spring.datasource.url", configuration.getURL(schema))));
+        }
+        String newSchema = schema;
+        return sharedStartup.thenApply(
+                db -> {
+                    try {
+                        db.createDB(newSchema);
+                        return db;
+                    } catch (ManagedProcessException e) {
+                        lastException = e;
+                        throw new IllegalStateException(
+                                "Creating schema " + newSchema + " failed", e);
+                    }
+                });
+    }
+
+    /**
+     * The schema of this context in {@link #SHARED} mode.
+     *
+     * @return the schema name, or null if not shared, or not yet started
+     */
+    public synchronized String getSchema() {
+        return schema;
+    }
+
+    /**
+     * Starts the DB, if that did not already begin in the background, and waits until it is ready.
+     *
+     * @return the started DB
+     * @throws ManagedProcessException if the DB could not be started, or waiting was interrupted
+     */
+    public DB awaitStarted() throws ManagedProcessException {
+        try {
+            return startAsync().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ManagedProcessException("Interrupted while waiting for the DB to start", e);
+        } catch (ExecutionException e) {
+            if (lastException != null) {
+                throw lastException;
+            }
+            throw new ManagedProcessException("MariaDB4jSpringService start failed", e.getCause());
+        }
+    }
+
+    /** Waits for the DB to be started, unless {@link #isLazy()} and it was not used yet. */
     @Override
     public void start() {
+        if (isLazy() && !isStartRequested()) {
+            return;
+        }
         try {
-            mariaDB4j();
+            awaitStarted();
         } catch (ManagedProcessException e) {
             lastException = e;
             throw new IllegalStateException("MariaDB4jSpringService start() failed", e);
@@ -150,26 +358,60 @@ public class MariaDB4jSpringService implements Lifecycle {
 
     /** {@inheritDoc} */
     @Override
-    public void stop() {
+    public synchronized void stop() {
+        CompletableFuture<DB> current = startup;
+        if (current == null) {
+            return;
+        }
+        startup = null;
+        if (shared) {
+            SharedDB.release();
+            return;
+        }
         try {
+            DB db = current.get();
             db.stop();
-            db = null;
+        } catch (ExecutionException e) {
+            // It never started, so there is nothing to stop
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("MariaDB4jSpringService stop() interrupted", e);
         } catch (ManagedProcessException e) {
             lastException = e;
             throw new IllegalStateException("MariaDB4jSpringService stop() failed", e);
         }
     }
 
+    /**
+     * True from when starting the DB began, including while it is still starting in the background
+     * (or failed to), until it is stopped; so that the context calls {@link #stop()} also if it is
+     * closed in the middle of a start. See {@link #isStarted()} for whether it is ready.
+     */
     @Override
     public boolean isRunning() {
-        return db != null;
+        return isStartRequested();
+    }
+
+    /**
+     * Whether the DB was started successfully, and not stopped since.
+     *
+     * @return true if the DB is ready for connections
+     */
+    public boolean isStarted() {
+        CompletableFuture<DB> current = startup;
+        return current != null && current.isDone() && !current.isCompletedExceptionally();
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
     }
 
     public ManagedProcessException getLastException() {
         return lastException;
     }
 
-    public DBConfiguration getConfiguration() {
+    public synchronized DBConfiguration getConfiguration() {
         if (configuration == null) throw new IllegalStateException("Not yet started!");
         return configuration;
     }
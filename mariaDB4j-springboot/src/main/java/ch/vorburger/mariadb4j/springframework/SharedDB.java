@@ -0,0 +1,113 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j.springframework;
+
+import ch.vorburger.exec.ManagedProcessException;
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfiguration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+/**
+ * The JVM-wide DB shared by all MariaDB4jSpringService in {@link MariaDB4jSpringService#SHARED}
+ * mode, e.g. of the many cached application contexts of a test suite. It is reference counted: it
+ * is started by the first context, and stopped when the last one is stopped.
+ */
+/* Intentionally package private, not public */
+final class SharedDB {
+
+    private static final Logger logger = LoggerFactory.getLogger(SharedDB.class);
+
+    private static CompletableFuture<DB> startup;
+    private static DBConfiguration configuration;
+    private static int references;
+    private static int schemas;
+
+    private SharedDB() {}
+
+    /**
+     * Acquires a reference to the shared DB, starting it if this is the first one.
+     *
+     * @param candidate the configuration to start the shared DB with, if it is not yet running
+     * @param starter starts a DB with a configuration in the background
+     * @return a future which completes with the started shared DB
+     */
+    static synchronized CompletableFuture<DB> acquire(
+            DBConfiguration candidate, Function<DBConfiguration, CompletableFuture<DB>> starter) {
+        if (startup == null) {
+            logger.info("Starting shared DB on port {}", candidate.getPort());
+            configuration = candidate;
+            startup = starter.apply(candidate);
+        }
+        references++;
+        return startup;
+    }
+
+    /**
+     * The configuration of the shared DB, which may not be the one passed to acquire().
+     *
+     * @return the DBConfiguration, or null if there is no shared DB
+     */
+    static synchronized DBConfiguration getConfiguration() {
+        return configuration;
+    }
+
+    /**
+     * A new, unique schema name.
+     *
+     * @param prefix the prefix of the name
+     * @return e.g. "context_3"
+     */
+    static synchronized String newSchemaName(String prefix) {
+        return prefix + "_" + ++schemas;
+    }
+
+    /** Releases a reference to the shared DB, and stops it if that was the last one. */
+    static void release() {
+        CompletableFuture<DB> last;
+        synchronized (SharedDB.class) {
+            if (references == 0) {
+                return;
+            }
+            if (--references > 0) {
+                return;
+            }
+            last = startup;
+            startup = null;
+            configuration = null;
+        }
+        try {
+            logger.info("Stopping shared DB, as its last context is stopped");
+            last.get().stop();
+        } catch (ExecutionException e) {
+            // It never started, so there is nothing to stop
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while stopping shared DB", e);
+        } catch (ManagedProcessException e) {
+            throw new IllegalStateException("Stopping shared DB failed", e);
+        }
+    }
+}
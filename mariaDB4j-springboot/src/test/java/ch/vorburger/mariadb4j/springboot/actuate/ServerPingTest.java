@@ -0,0 +1,62 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j.springboot.actuate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+public class ServerPingTest {
+
+    private static ByteArrayInputStream packet(int first, String text) {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        payload.write(first);
+        payload.writeBytes(text.getBytes(StandardCharsets.US_ASCII));
+        payload.write(0);
+        payload.writeBytes(new byte[] {42, 0, 0, 0}); // connection id, and so on
+        ByteArrayOutputStream packet = new ByteArrayOutputStream();
+        packet.write(payload.size());
+        packet.write(0);
+        packet.write(0);
+        packet.write(0); // sequence id
+        packet.writeBytes(payload.toByteArray());
+        return new ByteArrayInputStream(packet.toByteArray());
+    }
+
+    @Test
+    public void readsVersionFromHandshake() throws IOException {
+        assertEquals(
+                "11.4.5-MariaDB", ServerPing.readHandshake(packet(10, "5.5.5-11.4.5-MariaDB")));
+        assertEquals("8.0.36", ServerPing.readHandshake(packet(10, "8.0.36")));
+    }
+
+    @Test
+    public void errorPacket() {
+        assertThrows(
+                IOException.class,
+                () -> ServerPing.readHandshake(packet(0xFF, "\u0010\u0004Too many")));
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j.springboot.autoconfigure;
+
+import static org.junit.Assert.assertEquals;
+
+import ch.vorburger.mariadb4j.DBConfiguration;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+
+import com.zaxxer.hikari.HikariConfig;
+
+import org.junit.Test;
+
+public class DataSourceAutoConfigurationTest {
+
+    @Test
+    public void urlUsesSocket() {
+        DBConfiguration config =
+                DBConfigurationBuilder.newBuilder()
+                        .setPort(3307)
+                        .setSocket("/tmp/test.sock")
+                        .build();
+        String expected =
+                config.isWindows()
+                        ? "jdbc:mariadb://localhost:3307/shop"
+                        : "jdbc:mariadb://localhost:3307/shop?localSocket=/tmp/test.sock";
+        assertEquals(expected, DataSourceAutoConfiguration.url(config, "shop"));
+    }
+
+    @Test
+    public void poolGrowsToMaxConnectionsButStartsSmall() {
+        HikariConfig hikari = new HikariConfig();
+        DataSourceAutoConfiguration.sizePool(hikari, 151);
+        assertEquals(141, hikari.getMaximumPoolSize());
+        assertEquals(DataSourceAutoConfiguration.MINIMUM_IDLE, hikari.getMinimumIdle());
+
+        DataSourceAutoConfiguration.sizePool(hikari, 5);
+        assertEquals(1, hikari.getMaximumPoolSize());
+        assertEquals(1, hikari.getMinimumIdle());
+    }
+
+    @Test
+    public void sharedPoolIsSmall() {
+        HikariConfig hikari = new HikariConfig();
+        DataSourceAutoConfiguration.sizeSharedPool(hikari);
+        assertEquals(DataSourceAutoConfiguration.SHARED_POOL_SIZE, hikari.getMaximumPoolSize());
+        assertEquals(0, hikari.getMinimumIdle());
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j.springboot.autoconfigure;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.springframework.MariaDB4jSpringService;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+public class MariaDB4jDataSourceTest {
+
+    @Test
+    public void createsTargetOnlyOnceDBStarted() throws Exception {
+        AtomicInteger awaited = new AtomicInteger();
+        MariaDB4jSpringService service =
+                new MariaDB4jSpringService() {
+                    @Override
+                    public DB awaitStarted() {
+                        awaited.incrementAndGet();
+                        return null;
+                    }
+                };
+        DataSource target =
+                (DataSource)
+                        Proxy.newProxyInstance(
+                                getClass().getClassLoader(),
+                                new Class<?>[] {DataSource.class},
+                                (proxy, method, args) -> proxy);
+        AtomicInteger created = new AtomicInteger();
+        try (MariaDB4jDataSource dataSource =
+                new MariaDB4jDataSource(
+                        service,
+                        () -> {
+                            created.incrementAndGet();
+                            return target;
+                        })) {
+            assertTrue(dataSource.isWrapperFor(MariaDB4jDataSource.class));
+            assertEquals(0, awaited.get());
+            assertEquals(0, created.get());
+
+            assertSame(target, dataSource.getTargetDataSource());
+            assertSame(target, dataSource.getTargetDataSource());
+            assertEquals(1, created.get());
+        }
+    }
+
+    @Test
+    public void probingDoesNotStartLazyDB() throws Exception {
+        MariaDB4jSpringService service = new MariaDB4jSpringService();
+        service.setLazy(true);
+        service.afterPropertiesSet();
+        service.start();
+        try (MariaDB4jDataSource dataSource =
+                new MariaDB4jDataSource(
+                        service,
+                        () -> {
+                            throw new AssertionError("DataSource created before first use");
+                        })) {
+            // As e.g. Spring Boot's DataSourceUnwrapper does for metrics and health
+            assertFalse(dataSource.isWrapperFor(HikariDataSource.class));
+            assertThrows(SQLException.class, () -> dataSource.unwrap(HikariDataSource.class));
+            assertSame(dataSource, dataSource.unwrap(DataSource.class));
+            assertFalse(service.isStartRequested());
+        }
+    }
+}
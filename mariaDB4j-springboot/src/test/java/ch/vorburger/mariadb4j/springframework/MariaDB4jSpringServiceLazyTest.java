@@ -0,0 +1,107 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j.springframework;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfiguration;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class MariaDB4jSpringServiceLazyTest {
+
+    @Test
+    public void startsOnlyWhenFirstAwaited() throws Exception {
+        AtomicInteger started = new AtomicInteger();
+        DB db = new DB(DBConfigurationBuilder.newBuilder().build()) {};
+        MariaDB4jSpringService service =
+                new MariaDB4jSpringService() {
+                    @Override
+                    public synchronized CompletableFuture<DB> startAsync() {
+                        started.incrementAndGet();
+                        return CompletableFuture.completedFuture(db);
+                    }
+                };
+        service.setLazy(true);
+        service.setDefaultPort(3307);
+        service.afterPropertiesSet();
+        service.start();
+
+        assertEquals(0, started.get());
+        assertFalse(service.isRunning());
+        assertEquals(3307, service.getConfiguration().getPort());
+        assertEquals(
+                "jdbc:mariadb://localhost:3307/test", service.getConfiguration().getURL("test"));
+
+        assertSame(db, service.awaitStarted());
+        assertEquals(1, started.get());
+    }
+
+    @Test
+    public void lazyIsIgnoredWhenShared() {
+        MariaDB4jSpringService service = new MariaDB4jSpringService();
+        service.setLazy(true);
+        assertTrue(service.isLazy());
+        service.setShared(true);
+        assertFalse(service.isLazy());
+    }
+
+    @Test
+    public void stopsDBWhichIsStillStarting() throws Exception {
+        AtomicInteger stopped = new AtomicInteger();
+        DB db =
+                new DB(DBConfigurationBuilder.newBuilder().build()) {
+                    @Override
+                    public void stop() {
+                        stopped.incrementAndGet();
+                    }
+                };
+        CompletableFuture<DB> starting = new CompletableFuture<>();
+        MariaDB4jSpringService service =
+                new MariaDB4jSpringService() {
+                    @Override
+                    CompletableFuture<DB> startInBackground(DBConfiguration config) {
+                        return starting;
+                    }
+                };
+        service.afterPropertiesSet();
+
+        // So that the context stop()s it, if closed before the start finished
+        assertTrue(service.isRunning());
+        assertFalse(service.isStarted());
+
+        CompletableFuture<Void> unused =
+                CompletableFuture.runAsync(
+                        () -> starting.complete(db),
+                        CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS));
+        service.stop();
+        assertEquals(1, stopped.get());
+        assertFalse(service.isRunning());
+    }
+}
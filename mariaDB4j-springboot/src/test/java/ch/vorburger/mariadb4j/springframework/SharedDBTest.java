@@ -0,0 +1,60 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j.springframework;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfiguration;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SharedDBTest {
+
+    @Test
+    public void referenceCounted() {
+        DBConfiguration first = DBConfigurationBuilder.newBuilder().setPort(3307).build();
+        DBConfiguration second = DBConfigurationBuilder.newBuilder().setPort(3308).build();
+        AtomicInteger started = new AtomicInteger();
+        CompletableFuture<DB> db =
+                SharedDB.acquire(
+                        first,
+                        config -> {
+                            started.incrementAndGet();
+                            return CompletableFuture.completedFuture(new DB(config) {});
+                        });
+        assertSame(db, SharedDB.acquire(second, config -> null));
+        assertEquals(1, started.get());
+        assertSame(first, SharedDB.getConfiguration());
+        assertNotEquals(SharedDB.newSchemaName("context"), SharedDB.newSchemaName("context"));
+
+        SharedDB.release();
+        assertSame(first, SharedDB.getConfiguration());
+        SharedDB.release();
+        assertNull(SharedDB.getConfiguration());
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import org.junit.Test;
+
+import java.io.File;
+
+/**
+ * Tests the transportable tablespace path of {@link SchemaCloner}, which is otherwise only taken
+ * for tables larger than {@link SchemaCloner#TRANSPORT_MIN_SIZE}.
+ */
+public class SchemaClonerTransportTest {
+
+    @Test
+    public void transportTablespaces() throws Exception {
+        DB db = DB.newEmbeddedDB(DBConfigurationBuilder.newBuilder().setPort(0).build());
+        db.start();
+        try {
+            db.createDB("golden");
+            db.run(
+                    "CREATE TABLE t (id INT PRIMARY KEY, name VARCHAR(20)) ENGINE=InnoDB;"
+                            + " INSERT INTO t VALUES (1, 'a'), (2, 'b');"
+                            + " CREATE TABLE u (id INT PRIMARY KEY) ENGINE=InnoDB;"
+                            + " INSERT INTO u VALUES (1), (2), (3);"
+                            + " CREATE TABLE m (id INT) ENGINE=MyISAM;"
+                            + " INSERT INTO m VALUES (1);",
+                    null,
+                    null,
+                    "golden");
+
+            // With a threshold of 0, all InnoDB tables are transported, and MyISAM ones copied
+            new SchemaCloner(db, null, null, 0).cloneSchema("golden", "copy");
+
+            assertEquals(
+                    "b", db.query("SELECT name FROM t WHERE id = 2", null, null, "copy").get(0)[0]);
+            assertEquals("3", db.query("SELECT COUNT(*) FROM u", null, null, "copy").get(0)[0]);
+            assertEquals("1", db.query("SELECT COUNT(*) FROM m", null, null, "copy").get(0)[0]);
+            File copy = new File(db.getConfiguration().getDataDir(), "copy");
+            assertFalse(new File(copy, "t.cfg").exists());
+            assertFalse(new File(copy, "u.cfg").exists());
+
+            // The session which held FLUSH TABLES FOR EXPORT was ended, so the source is writable
+            db.run("SET SESSION lock_wait_timeout = 10; INSERT INTO golden.t VALUES (3, 'c')");
+            db.run("DELETE FROM golden.u");
+            assertEquals("2", db.query("SELECT COUNT(*) FROM t", null, null, "copy").get(0)[0]);
+            assertEquals("3", db.query("SELECT COUNT(*) FROM u", null, null, "copy").get(0)[0]);
+        } finally {
+            db.stop();
+        }
+    }
+
+    @Test
+    public void copyIntoSchemaWithEncodedName() throws Exception {
+        DB db = DB.newEmbeddedDB(DBConfigurationBuilder.newBuilder().setPort(0).build());
+        db.start();
+        try {
+            db.createDB("golden");
+            db.run(
+                    "CREATE TABLE t (id INT PRIMARY KEY) ENGINE=InnoDB;"
+                            + " INSERT INTO t VALUES (1), (2);",
+                    null,
+                    null,
+                    "golden");
+
+            // Its directory is copy@002dof@002dgolden, so this uses INSERT ... SELECT instead
+            new SchemaCloner(db, null, null, 0).cloneSchema("golden", "copy-of-golden");
+
+            assertEquals(
+                    "2",
+                    db.query("SELECT COUNT(*) FROM t", null, null, "copy-of-golden").get(0)[0]);
+            db.run("SET SESSION lock_wait_timeout = 10; INSERT INTO golden.t VALUES (3)");
+        } finally {
+            db.stop();
+        }
+    }
+}
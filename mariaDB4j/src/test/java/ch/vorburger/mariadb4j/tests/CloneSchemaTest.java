@@ -0,0 +1,59 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j.tests;
+
+import static org.junit.Assert.assertEquals;
+
+import ch.vorburger.exec.ManagedProcessException;
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+
+import org.junit.Test;
+
+public class CloneSchemaTest {
+
+    @Test
+    public void cloneSchema() throws ManagedProcessException {
+        DB db = DB.newEmbeddedDB(DBConfigurationBuilder.newBuilder().setPort(0).build());
+        db.start();
+        db.createDB("golden");
+        db.run(
+                "CREATE TABLE t (id INT PRIMARY KEY, name VARCHAR(20),"
+                        + " upper_name VARCHAR(20) AS (UPPER(name)));"
+                        + " INSERT INTO t (id, name) VALUES (1, 'a'), (2, 'b');"
+                        + " CREATE TABLE empty (id INT) ENGINE=MyISAM;"
+                        + " CREATE VIEW v AS SELECT upper_name FROM t WHERE id = 2;"
+                        + " CREATE VIEW w AS SELECT '`golden`.t' AS s FROM golden.t"
+                        + " WHERE id = 1;",
+                null,
+                null,
+                "golden");
+
+        db.cloneSchema("golden", "copy");
+        db.run("DELETE FROM golden.t");
+
+        assertEquals("2", db.query("SELECT COUNT(*) FROM t", null, null, "copy").get(0)[0]);
+        assertEquals("B", db.query("SELECT * FROM v", null, null, "copy").get(0)[0]);
+        // Only the qualifiers of names are changed, not string literals
+        assertEquals("`golden`.t", db.query("SELECT s FROM w", null, null, "copy").get(0)[0]);
+        assertEquals("0", db.query("SELECT COUNT(*) FROM empty", null, null, "copy").get(0)[0]);
+        db.stop();
+    }
+}
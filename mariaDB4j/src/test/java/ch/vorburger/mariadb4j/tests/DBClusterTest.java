@@ -0,0 +1,100 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import ch.vorburger.exec.ManagedProcessException;
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBCluster;
+import ch.vorburger.mariadb4j.DBListener;
+import ch.vorburger.mariadb4j.ReplicaLag;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+public class DBClusterTest {
+
+    @Test
+    public void replicasReplicateThePrimary() throws ManagedProcessException {
+        DBCluster cluster = DBCluster.newBuilder().setReplicas(2).build();
+        cluster.start();
+        try {
+            cluster.getPrimary().createDB("app");
+            cluster.getPrimary()
+                    .query("CREATE TABLE app.t (id INT PRIMARY KEY); INSERT INTO app.t VALUES (1)");
+            assertNotEquals(cluster.getURL("app"), cluster.getReplicaURL(0, "app"));
+
+            cluster.waitForReplication(Duration.ofSeconds(30));
+            for (int i = 0; i < cluster.getReplicas().size(); i++) {
+                ReplicaLag lag = cluster.getLag(i);
+                assertTrue(lag.toString(), lag.isRunning());
+                assertEquals(lag.toString(), 0, lag.getTransactionsBehind());
+
+                DB replica = cluster.getReplica(i);
+                assertEquals("1", replica.query("SELECT COUNT(*) FROM app.t").get(0)[0]);
+                assertEquals("1", replica.query("SELECT @@read_only").get(0)[0]);
+                assertEquals(
+                        Integer.toString(2 + i), replica.query("SELECT @@server_id").get(0)[0]);
+            }
+        } finally {
+            cluster.stop();
+        }
+    }
+
+    @Test
+    public void waitForReplicationReportsLatency() throws ManagedProcessException {
+        List<Duration> waits = new ArrayList<>();
+        DBCluster cluster =
+                DBCluster.newBuilder()
+                        .setCustomizer(
+                                config ->
+                                        config.addListener(
+                                                new DBListener() {
+                                                    @Override
+                                                    public void onReplicationWait(
+                                                            DB replica,
+                                                            Duration duration,
+                                                            boolean success) {
+                                                        waits.add(duration);
+                                                    }
+                                                }))
+                        .build();
+        cluster.start();
+        try {
+            DB primary = cluster.getPrimary();
+            DB replica = cluster.getReplica(0);
+            assertEquals(
+                    Duration.ZERO,
+                    DBCluster.waitForReplication(primary, replica, Duration.ofSeconds(30)));
+            primary.query("CREATE TABLE test.t (id INT); INSERT INTO test.t VALUES (1)");
+            DBCluster.waitForReplication(primary, replica, Duration.ofSeconds(30));
+            assertEquals("1", replica.query("SELECT COUNT(*) FROM test.t").get(0)[0]);
+            assertEquals(1, waits.size());
+        } finally {
+            cluster.stop();
+        }
+    }
+}
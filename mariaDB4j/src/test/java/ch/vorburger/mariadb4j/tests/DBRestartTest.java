@@ -0,0 +1,114 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+import ch.vorburger.mariadb4j.DBListener;
+import ch.vorburger.mariadb4j.DBState;
+
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class DBRestartTest {
+
+    @Test
+    public void restartsAfterCrash() throws Exception {
+        List<String> events = new CopyOnWriteArrayList<>();
+        DBConfigurationBuilder config = DBConfigurationBuilder.newBuilder();
+
+        config.setRestartOnCrash(3, Duration.ofMillis(100));
+        config.addListener(
+                new DBListener() {
+                    @Override
+                    public void onCrash(DB db, int exitValue) {
+                        events.add("crash");
+                    }
+
+                    @Override
+                    public void onRestart(DB db, int attempt, Duration downtime, boolean success) {
+                        events.add("restart " + attempt + " " + success);
+                    }
+                });
+        DB db = DB.newEmbeddedDB(config.build());
+        db.start();
+        try {
+            db.run("CREATE TABLE test.t (id INT) ENGINE=InnoDB; INSERT INTO test.t VALUES (1)");
+            long pid =
+                    Long.parseLong(
+                            Files.readString(Path.of(db.query("SELECT @@pid_file").get(0)[0]))
+                                    .trim());
+            assertTrue(ProcessHandle.of(pid).orElseThrow().destroyForcibly());
+
+            long deadline = System.nanoTime() + Duration.ofMinutes(2).toNanos();
+            while (!events.contains("restart 1 true") && System.nanoTime() < deadline) {
+                Thread.sleep(100);
+            }
+            assertEquals(List.of("crash", "restart 1 true"), events);
+            assertEquals(DBState.RUNNING, db.getState());
+            // InnoDB recovered the committed row
+            assertEquals("1", db.query("SELECT COUNT(*) FROM test.t").get(0)[0]);
+        } finally {
+            db.stop();
+        }
+        assertEquals(DBState.STOPPED, db.getState());
+    }
+
+    @Test
+    public void shutdownIsNoCrash() throws Exception {
+        List<String> events = new CopyOnWriteArrayList<>();
+        DBConfigurationBuilder config = DBConfigurationBuilder.newBuilder();
+
+        config.setRestartOnCrash(3, Duration.ofMillis(100));
+        config.addListener(
+                new DBListener() {
+                    @Override
+                    public void onStop(DB db, Duration duration) {
+                        events.add("stop " + duration);
+                    }
+
+                    @Override
+                    public void onCrash(DB db, int exitValue) {
+                        events.add("crash");
+                    }
+                });
+        DB db = DB.newEmbeddedDB(config.build());
+        db.start();
+        db.run("SHUTDOWN");
+
+        long deadline = System.nanoTime() + Duration.ofMinutes(1).toNanos();
+        while (db.getState() != DBState.STOPPED && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+        }
+        assertEquals(DBState.STOPPED, db.getState());
+        assertEquals(List.of("stop PT0S"), events);
+        // Not restarted
+        Thread.sleep(500);
+        assertEquals(DBState.STOPPED, db.getState());
+    }
+}
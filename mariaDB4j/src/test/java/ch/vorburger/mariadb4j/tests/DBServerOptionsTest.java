@@ -0,0 +1,82 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import ch.vorburger.exec.ManagedProcessException;
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+import ch.vorburger.mariadb4j.DBState;
+
+import org.junit.Test;
+
+public class DBServerOptionsTest {
+
+    @Test
+    public void optionsAreSetThroughOptionFile() throws ManagedProcessException {
+        DB db =
+                DB.newEmbeddedDB(
+                        DBConfigurationBuilder.newBuilder()
+                                .addArg("--max_connections=42")
+                                .addArg("--character-set-server")
+                                .addArg("utf8mb4")
+                                .addArg("--default-time-zone")
+                                .addArg("+00:00")
+                                .setServerOption("innodb_buffer_pool_size", "16M")
+                                .setServerOption("max-connections", "43")
+                                .build());
+        db.start();
+        try {
+            String[] row =
+                    db.query(
+                                    "SELECT @@innodb_buffer_pool_size, @@max_connections,"
+                                            + " @@max_allowed_packet, @@character_set_server,"
+                                            + " @@time_zone",
+                                    null,
+                                    null,
+                                    null)
+                            .get(0);
+            assertEquals(String.valueOf(16 * 1024 * 1024), row[0]);
+            assertEquals("43", row[1]);
+            assertEquals(String.valueOf(64 * 1024 * 1024), row[2]);
+            assertEquals("utf8mb4", row[3]);
+            assertEquals("+00:00", row[4]);
+        } finally {
+            db.stop();
+        }
+    }
+
+    @Test
+    public void unknownOptionFailsBeforeStarting() throws ManagedProcessException {
+        DB db =
+                DB.newEmbeddedDB(
+                        DBConfigurationBuilder.newBuilder()
+                                .setServerOption("innodb_bufer_pool_size", "16M")
+                                .build());
+        ManagedProcessException e = assertThrows(ManagedProcessException.class, db::start);
+        assertTrue(
+                String.valueOf(e.getCause()),
+                e.getCause().getMessage().contains("innodb-bufer-pool-size"));
+        assertEquals(DBState.FAILED, db.getState());
+    }
+}
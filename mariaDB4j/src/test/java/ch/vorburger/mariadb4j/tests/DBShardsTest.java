@@ -0,0 +1,56 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import ch.vorburger.exec.ManagedProcessException;
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBShards;
+
+import org.junit.Test;
+
+public class DBShardsTest {
+
+    @Test
+    public void fansOutAndRoutesToShards() throws ManagedProcessException {
+        DBShards shards = DBShards.newBuilder().setShards(3).build();
+        shards.start();
+        try {
+            shards.createDB("app");
+            shards.run(
+                    "CREATE TABLE t (shard INT); INSERT INTO t VALUES (@@port)", null, null, "app");
+            for (DB shard : shards.getShards()) {
+                assertEquals(
+                        Integer.toString(shard.getConfiguration().getPort()),
+                        shard.query("SELECT shard FROM app.t").get(0)[0]);
+            }
+
+            DB shard = shards.getShardFor("tenant42");
+            assertEquals(shard, shards.getShard(shards.getShardIndex("tenant42")));
+            assertEquals(shard.getConfiguration().getURL("app"), shards.getURL("tenant42", "app"));
+
+            assertThrows(ManagedProcessException.class, () -> shards.run("SELECT * FROM nope"));
+        } finally {
+            shards.stop();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import ch.vorburger.exec.ManagedProcessException;
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+import ch.vorburger.mariadb4j.DBState;
+
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+public class DBStateTest {
+
+    @Test
+    public void startAndStop() throws ManagedProcessException {
+        DB db = DB.newEmbeddedDB(DBConfigurationBuilder.newBuilder().build());
+        assertEquals(DBState.INSTALLED, db.getState());
+        db.start();
+        assertEquals(DBState.RUNNING, db.getState());
+        assertThrows(ManagedProcessException.class, db::start);
+        db.stop();
+        assertEquals(DBState.STOPPED, db.getState());
+        db.stop();
+        assertEquals(DBState.STOPPED, db.getState());
+    }
+
+    @Test
+    public void stopCancelsStart() throws Exception {
+        DB db = DB.newEmbeddedDB(DBConfigurationBuilder.newBuilder().build());
+        CompletableFuture<Void> start =
+                CompletableFuture.runAsync(
+                        () -> {
+                            try {
+                                db.start();
+                            } catch (ManagedProcessException e) {
+                                throw new CompletionException(e);
+                            }
+                        });
+        while (db.getState() != DBState.STARTING && !start.isDone()) {
+            Thread.sleep(1);
+        }
+        // Usually enough for mysqld to be launched, but not to be ready yet
+        Thread.sleep(200);
+        db.stop();
+        assertEquals(DBState.STOPPED, db.getState());
+        CompletionException e = assertThrows(CompletionException.class, start::join);
+        assertTrue(e.getCause().getMessage(), e.getCause().getMessage().contains("cancelled"));
+
+        db.start();
+        assertEquals(DBState.RUNNING, db.getState());
+        db.stop();
+    }
+}
@@ -19,6 +19,10 @@
  */
 package ch.vorburger.mariadb4j.tests;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
 import ch.vorburger.exec.ManagedProcessException;
 import ch.vorburger.mariadb4j.DB;
 import ch.vorburger.mariadb4j.DBConfigurationBuilder;
@@ -28,6 +32,10 @@ import org.apache.commons.lang3.SystemUtils;
 import org.junit.Test;
 
 import java.io.File;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /** Tests more functionality of MariaDB4j. */
 public class MariaDB4jSampleOtherTest {
@@ -117,4 +125,29 @@ public class MariaDB4jSampleOtherTest {
         db.source("ch/vorburger/mariadb4j/characterTest.sql");
         db.stop();
     }
+
+    @Test
+    public void sourceAllIntoManyDatabases() throws Exception {
+        DB db = startNewDB();
+        Map<String, List<String>> resources = new LinkedHashMap<>();
+        for (int i = 0; i < 3; i++) {
+            db.createDB("tenant" + i);
+            resources.put("tenant" + i, List.of("ch/vorburger/mariadb4j/tenantSource.sql"));
+        }
+        Map<String, Duration> durations = db.sourceAll(resources, 2);
+        assertEquals(resources.keySet(), durations.keySet());
+        assertEquals("1", db.query("SELECT COUNT(*) FROM tenant", null, null, "tenant2").get(0)[0]);
+
+        // A missing database fails, but does not prevent sourcing into the others
+        db.createDB("tenant3");
+        Map<String, List<String>> more =
+                Map.of(
+                        "missing", List.of("ch/vorburger/mariadb4j/tenantSource.sql"),
+                        "tenant3", List.of("ch/vorburger/mariadb4j/tenantSource.sql"));
+        ManagedProcessException e =
+                assertThrows(ManagedProcessException.class, () -> db.sourceAll(more, 2));
+        assertTrue(e.getMessage(), e.getMessage().contains("1 of 2 databases failed: [missing]"));
+        assertEquals("1", db.query("SELECT COUNT(*) FROM tenant", null, null, "tenant3").get(0)[0]);
+        db.stop();
+    }
 }
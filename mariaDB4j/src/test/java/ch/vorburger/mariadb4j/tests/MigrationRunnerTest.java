@@ -0,0 +1,87 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import ch.vorburger.exec.ManagedProcessException;
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+import ch.vorburger.mariadb4j.MigrationRunner;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+public class MigrationRunnerTest {
+
+    private static final byte[] CREATE = "CREATE TABLE t (id INT);".getBytes(UTF_8);
+    private static final byte[] INSERT = "INSERT INTO t VALUES (1);".getBytes(UTF_8);
+    private static final byte[] VIEW =
+            "CREATE OR REPLACE VIEW v AS SELECT * FROM a.t;".getBytes(UTF_8);
+
+    private DB db;
+
+    @Before
+    public void startDB() throws ManagedProcessException {
+        db = DB.newEmbeddedDB(DBConfigurationBuilder.newBuilder().setPort(0).build());
+        db.start();
+    }
+
+    @After
+    public void stopDB() throws ManagedProcessException {
+        db.stop();
+    }
+
+    private MigrationRunner runner(byte[] insert) {
+        return new MigrationRunner(db)
+                .addScript("a", "V1", CREATE)
+                .addScript("a", "V2", insert)
+                .addScript("b", "V1", VIEW)
+                .dependsOn("b", "a");
+    }
+
+    @Test
+    public void appliesOnlyNewOrChangedScripts() throws ManagedProcessException {
+        assertEquals(List.of("a/V1", "a/V2", "b/V1"), runner(INSERT).run());
+        assertEquals(List.of(), runner(INSERT).run());
+        assertEquals(List.of("a/V2"), runner("INSERT INTO t VALUES (2);".getBytes(UTF_8)).run());
+        assertEquals("2", db.query("SELECT COUNT(*) FROM v", null, null, "b").get(0)[0]);
+    }
+
+    @Test
+    public void failedScriptIsNotRecorded() throws ManagedProcessException {
+        byte[] broken = "INSERT INTO nonexistent VALUES (1);".getBytes(UTF_8);
+        assertThrows(ManagedProcessException.class, () -> runner(broken).run());
+        assertThrows(ManagedProcessException.class, () -> runner(broken).run());
+        assertEquals(List.of("a/V2", "b/V1"), runner(INSERT).run());
+    }
+
+    @Test
+    public void rejectsCyclicDependencies() {
+        MigrationRunner runner = runner(INSERT).dependsOn("a", "b");
+        assertThrows(IllegalArgumentException.class, runner::run);
+    }
+}
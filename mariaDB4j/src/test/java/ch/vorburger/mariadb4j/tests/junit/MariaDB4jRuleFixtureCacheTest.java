@@ -0,0 +1,94 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j.tests.junit;
+
+import static org.junit.Assert.assertEquals;
+
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfiguration;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+import ch.vorburger.mariadb4j.DBListener;
+import ch.vorburger.mariadb4j.FixtureCache;
+import ch.vorburger.mariadb4j.junit.MariaDB4jRule;
+
+import org.apache.commons.dbutils.QueryRunner;
+import org.apache.commons.dbutils.handlers.ColumnListHandler;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class MariaDB4jRuleFixtureCacheTest {
+
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void cacheHitSkipsInstall() throws Throwable {
+        FixtureCache cache = new FixtureCache(folder.newFolder("cache"), Long.MAX_VALUE);
+        AtomicInteger installs = new AtomicInteger();
+        DBListener listener =
+                new DBListener() {
+                    @Override
+                    public void onInstall(DB db, Duration duration, boolean success) {
+                        installs.incrementAndGet();
+                    }
+                };
+
+        // The first rule installs the DB and sources the fixtures, the second restores them
+        for (int i = 0; i < 2; i++) {
+            StartableRule rule =
+                    new StartableRule(
+                            DBConfigurationBuilder.newBuilder().addListener(listener).build());
+            rule.setFixtureCache(cache);
+            rule.before();
+            try (Connection conn = DriverManager.getConnection(rule.getURL(), "root", "")) {
+                List<String> names =
+                        new QueryRunner()
+                                .query(conn, "SELECT * FROM test", new ColumnListHandler<>(2));
+                assertEquals(List.of("John Doe", "Jane Doe"), names);
+            } finally {
+                rule.after();
+            }
+            assertEquals(1, installs.get());
+        }
+    }
+
+    private static class StartableRule extends MariaDB4jRule {
+
+        StartableRule(DBConfiguration configuration) {
+            super(configuration, "junittest", "ch/vorburger/mariadb4j/basicSource.sql");
+        }
+
+        @Override
+        protected void before() throws Throwable {
+            super.before();
+        }
+
+        @Override
+        protected void after() {
+            super.after();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j.tests.junit;
+
+import static org.junit.Assert.assertEquals;
+
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+import ch.vorburger.mariadb4j.junit.MariaDB4jRule;
+import ch.vorburger.mariadb4j.junit.MariaDB4jTransactionRule;
+
+import org.apache.commons.dbutils.QueryRunner;
+import org.apache.commons.dbutils.handlers.ScalarHandler;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.FixMethodOrder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// So that commitStatementIsRestored() is verified by the @Before of the tests after it
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class MariaDB4jTransactionRuleTest {
+
+    @ClassRule
+    public static MariaDB4jRule dbRule =
+            new MariaDB4jRule(
+                    DBConfigurationBuilder.newBuilder().build(),
+                    "junittest",
+                    "ch/vorburger/mariadb4j/basicSource.sql");
+
+    @Rule public MariaDB4jTransactionRule tx = dbRule.newTransactionRule();
+
+    private final QueryRunner qr = new QueryRunner();
+
+    @Before
+    public void assertFixtures() throws SQLException {
+        assertEquals(2L, count("SELECT COUNT(*) FROM test"));
+        assertEquals(
+                0L,
+                count(
+                        "SELECT COUNT(*) FROM information_schema.TABLES"
+                                + " WHERE TABLE_SCHEMA = 'junittest' AND TABLE_NAME = 'other'"));
+    }
+
+    @Test
+    public void insertIsRolledBack() throws SQLException {
+        qr.update(tx.getConnection(), "INSERT INTO test (name) VALUES ('Baby Doe')");
+        tx.getConnection().commit();
+        assertEquals(3L, count("SELECT COUNT(*) FROM test"));
+    }
+
+    @Test
+    public void commitStatementIsRestored() throws SQLException {
+        qr.update(tx.getConnection(), "INSERT INTO test (name) VALUES ('Baby Doe')");
+        try (Statement stmt = tx.getConnection().createStatement()) {
+            stmt.execute("COMMIT");
+        }
+        assertEquals(3L, count("SELECT COUNT(*) FROM test"));
+    }
+
+    @Test
+    public void dataSourceIsBoundToTransaction() throws SQLException {
+        new QueryRunner(tx.getDataSource()).update("DELETE FROM test");
+        assertEquals(0L, count("SELECT COUNT(*) FROM test"));
+    }
+
+    @Test
+    public void nonTransactionalChangesAreRestored() throws SQLException {
+        qr.update(tx.getConnection(), "CREATE TABLE other (id int) ENGINE=MyISAM");
+        qr.update(tx.getConnection(), "INSERT INTO other VALUES (1)");
+        qr.update(tx.getConnection(), "DELETE FROM test");
+    }
+
+    private long count(String sql) throws SQLException {
+        return qr.query(tx.getConnection(), sql, new ScalarHandler<Long>());
+    }
+}
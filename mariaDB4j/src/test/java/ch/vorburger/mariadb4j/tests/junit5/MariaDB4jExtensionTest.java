@@ -0,0 +1,70 @@
+/*
+ * #%L
+ * MariaDB4j
+ * %%
+ * Copyright (C) 2025 Michael Vorburger
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ch.vorburger.mariadb4j.tests.junit5;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+import ch.vorburger.mariadb4j.junit5.MariaDB4jExtension;
+import ch.vorburger.mariadb4j.junit5.MariaDB4jExtension.Isolation;
+import ch.vorburger.mariadb4j.junit5.MariaDB4jSchema;
+
+import org.apache.commons.dbutils.QueryRunner;
+import org.apache.commons.dbutils.handlers.ColumnListHandler;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.List;
+
+class MariaDB4jExtensionTest {
+
+    @RegisterExtension
+    static MariaDB4jExtension db =
+            new MariaDB4jExtension(DBConfigurationBuilder.newBuilder())
+                    .setIsolation(Isolation.METHOD)
+                    .setResource("ch/vorburger/mariadb4j/basicSource.sql");
+
+    static String previousSchema = "";
+
+    @Test
+    void sourcedIntoOwnSchema(MariaDB4jSchema schema) throws SQLException {
+        assertNotEquals(previousSchema, schema.getName());
+        previousSchema = schema.getName();
+        try (Connection conn = DriverManager.getConnection(schema.getURL(), "root", "")) {
+            List<String> results =
+                    new QueryRunner()
+                            .query(conn, "SELECT * FROM test;", new ColumnListHandler<>(2));
+            assertEquals(List.of("John Doe", "Jane Doe"), results);
+        }
+    }
+
+    @Test
+    void anotherOwnSchema(MariaDB4jSchema schema) throws SQLException {
+        assertNotEquals(previousSchema, schema.getName());
+        previousSchema = schema.getName();
+        try (Connection conn = DriverManager.getConnection(schema.getURL(), "root", "")) {
+            new QueryRunner().update(conn, "DELETE FROM test");
+        }
+    }
+}
@@ -0,0 +1,6 @@
+CREATE TABLE tenant(
+  id int PRIMARY KEY AUTO_INCREMENT,
+  name varchar(255) NOT NULL
+);
+
+INSERT INTO tenant (name) VALUES ('Acme');